@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core;
+
+import reactor.fn.Consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Collects values into batches of up to {@code maxSize} values and passes each batch on, as a {@link List}, once it is
+ * full or has been closed. Batches are filled concurrently without locking: a value is added to the batch that is
+ * current, and a batch is only passed on once every value that made it in has been added.
+ *
+ * @param <T> The type of the values.
+ */
+class Batcher<T> {
+
+	private final int                       maxSize;
+	private final Consumer<List<T>>         consumer;
+	private final AtomicReference<Batch<T>> current;
+	private final AtomicLong                emitted = new AtomicLong();
+
+	Batcher(int maxSize, Consumer<List<T>> consumer) {
+		this.maxSize = maxSize;
+		this.consumer = consumer;
+		this.current = new AtomicReference<Batch<T>>(new Batch<T>(this));
+	}
+
+	/**
+	 * Add a value to the current batch, starting a new batch if the current one is full or closed.
+	 *
+	 * @param value The value to add.
+	 */
+	void add(T value) {
+		for (; ; ) {
+			Batch<T> batch = current.get();
+			int position = batch.add(value);
+			if (position > 0) {
+				if (position == 1) {
+					batchStarted(batch);
+				}
+				return;
+			}
+			current.compareAndSet(batch, new Batch<T>(this));
+		}
+	}
+
+	/**
+	 * Close the given batch, replacing it with a new one if it is the current batch. Closing a batch that has already
+	 * been closed does nothing.
+	 *
+	 * @param batch The batch to close.
+	 */
+	void close(Batch<T> batch) {
+		current.compareAndSet(batch, new Batch<T>(this));
+		batch.close();
+	}
+
+	/**
+	 * Close the current batch.
+	 */
+	void flush() {
+		close(current.get());
+	}
+
+	/**
+	 * Create a batch that is not the current one and is only filled with the values given to it directly, for batches
+	 * that overlap each other.
+	 *
+	 * @return A new batch.
+	 */
+	Batch<T> open() {
+		return new Batch<T>(this);
+	}
+
+	/**
+	 * The number of batches that have been passed on so far.
+	 *
+	 * @return The number of batches.
+	 */
+	long getEmittedCount() {
+		return emitted.get();
+	}
+
+	/**
+	 * Invoked when the first value has been added to a batch.
+	 *
+	 * @param batch The batch.
+	 */
+	protected void batchStarted(Batch<T> batch) {
+	}
+
+	private void emit(List<T> values) {
+		emitted.incrementAndGet();
+		consumer.accept(values);
+	}
+
+	/**
+	 * A batch of values. Writers register themselves in {@code writers} while they add a value; closing the batch sets
+	 * the {@code CLOSED} bit, and the batch is passed on by whoever leaves it closed with no writers.
+	 *
+	 * @param <T> The type of the values.
+	 */
+	static final class Batch<T> {
+		private static final int CLOSED = 1 << 30;
+
+		private final Batcher<T>               owner;
+		private final ConcurrentLinkedQueue<T> values  = new ConcurrentLinkedQueue<T>();
+		private final AtomicInteger            count   = new AtomicInteger();
+		private final AtomicInteger            writers = new AtomicInteger();
+		private final AtomicBoolean            emitted = new AtomicBoolean();
+
+		private Batch(Batcher<T> owner) {
+			this.owner = owner;
+		}
+
+		/**
+		 * Add a value to this batch.
+		 *
+		 * @param value The value to add.
+		 * @return The position of the value in the batch, starting at 1, or 0 if the batch is full or closed.
+		 */
+		int add(T value) {
+			if ((writers.incrementAndGet() & CLOSED) != 0) {
+				release();
+				return 0;
+			}
+			int position = count.incrementAndGet();
+			if (position > owner.maxSize) {
+				release();
+				return 0;
+			}
+			values.add(value);
+			if (position == owner.maxSize) {
+				markClosed();
+			}
+			release();
+			return position;
+		}
+
+		/**
+		 * Close this batch so that it is passed on as soon as the values being added to it have been added.
+		 */
+		void close() {
+			if (markClosed() == 0) {
+				emit();
+			}
+		}
+
+		private int markClosed() {
+			for (; ; ) {
+				int w = writers.get();
+				if ((w & CLOSED) != 0) {
+					return -1;
+				}
+				if (writers.compareAndSet(w, w | CLOSED)) {
+					return w;
+				}
+			}
+		}
+
+		private void release() {
+			if (writers.decrementAndGet() == CLOSED) {
+				emit();
+			}
+		}
+
+		private void emit() {
+			if (emitted.compareAndSet(false, true) && !values.isEmpty()) {
+				owner.emit(new ArrayList<T>(values));
+			}
+		}
+	}
+
+}
@@ -18,13 +18,17 @@ package reactor.core;
 
 import reactor.convert.Converter;
 import reactor.convert.DelegatingConverter;
+import reactor.filter.ConsistentHashFilter;
 import reactor.filter.Filter;
+import reactor.filter.LeastLoadedFilter;
 import reactor.filter.PassThroughFilter;
 import reactor.filter.RandomFilter;
 import reactor.filter.RoundRobinFilter;
+import reactor.filter.WeightedFilter;
 import reactor.fn.Supplier;
 import reactor.fn.dispatch.Dispatcher;
 import reactor.fn.dispatch.SynchronousDispatcher;
+import reactor.fn.dispatch.TrampolineDispatcher;
 import reactor.fn.registry.SelectionStrategy;
 import reactor.fn.registry.TagAwareSelectionStrategy;
 import reactor.fn.routing.ArgumentConvertingConsumerInvoker;
@@ -114,6 +118,26 @@ public abstract class ComponentSpec<SPEC extends ComponentSpec<SPEC, TARGET>, TA
 		return (SPEC) this;
 	}
 
+	public SPEC consistentHashEventRouting() {
+		this.eventRoutingStrategy = EventRoutingStrategy.CONSISTENT_HASH;
+		return (SPEC) this;
+	}
+
+	public SPEC weightedEventRouting() {
+		this.eventRoutingStrategy = EventRoutingStrategy.WEIGHTED;
+		return (SPEC) this;
+	}
+
+	public SPEC leastLoadedEventRouting() {
+		this.eventRoutingStrategy = EventRoutingStrategy.LEAST_LOADED;
+		return (SPEC) this;
+	}
+
+	public SPEC powerOfTwoChoicesEventRouting() {
+		this.eventRoutingStrategy = EventRoutingStrategy.POWER_OF_TWO_CHOICES;
+		return (SPEC) this;
+	}
+
 	public SPEC tagFiltering() {
 		this.selectionStrategy = new TagAwareSelectionStrategy();
 		return (SPEC) this;
@@ -124,6 +148,11 @@ public abstract class ComponentSpec<SPEC extends ComponentSpec<SPEC, TARGET>, TA
 		return (SPEC) this;
 	}
 
+	public SPEC trampoline() {
+		this.dispatcher = TrampolineDispatcher.INSTANCE;
+		return (SPEC) this;
+	}
+
 	public SPEC dispatcher(String dispatcherName) {
 		Assert.notNull(env, "Cannot reference a Dispatcher by name without a properly-configured Environment.");
 		this.dispatcher = env.getDispatcher(dispatcherName);
@@ -190,6 +219,14 @@ public abstract class ComponentSpec<SPEC extends ComponentSpec<SPEC, TARGET>, TA
 			filter = new RoundRobinFilter();
 		} else if (EventRoutingStrategy.RANDOM == eventRoutingStrategy) {
 			filter = new RandomFilter();
+		} else if (EventRoutingStrategy.CONSISTENT_HASH == eventRoutingStrategy) {
+			filter = new ConsistentHashFilter();
+		} else if (EventRoutingStrategy.WEIGHTED == eventRoutingStrategy) {
+			filter = new WeightedFilter();
+		} else if (EventRoutingStrategy.LEAST_LOADED == eventRoutingStrategy) {
+			filter = new LeastLoadedFilter();
+		} else if (EventRoutingStrategy.POWER_OF_TWO_CHOICES == eventRoutingStrategy) {
+			filter = new LeastLoadedFilter(true);
 		} else {
 			if (null == existingFilter) {
 				filter = PassThroughFilter.INSTANCE;
@@ -203,6 +240,6 @@ public abstract class ComponentSpec<SPEC extends ComponentSpec<SPEC, TARGET>, TA
 	protected abstract TARGET configure(Reactor reactor);
 
 	private enum EventRoutingStrategy {
-		BROADCAST, RANDOM, ROUND_ROBIN;
+		BROADCAST, RANDOM, ROUND_ROBIN, CONSISTENT_HASH, WEIGHTED, LEAST_LOADED, POWER_OF_TWO_CHOICES;
 	}
 }
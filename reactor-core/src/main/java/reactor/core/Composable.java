@@ -18,6 +18,9 @@ package reactor.core;
 
 import reactor.fn.Consumer;
 import reactor.fn.Observable;
+import reactor.util.Assert;
+
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * A {@literal Composable} is a specific type of {@link Future} implementing {@link Consumer} in order to provide
@@ -39,6 +42,10 @@ public abstract class Composable<T> extends Future<T> implements Consumer<T> {
 		super(env, observable);
 	}
 
+	Composable(Environment env) {
+		super(env);
+	}
+
 	/**
 	 * Register a {@link Composable} that will be invoked whenever {@link #accept(Object)} or {@link #accept (Throwable)}
 	 * are called.
@@ -59,14 +66,12 @@ public abstract class Composable<T> extends Future<T> implements Consumer<T> {
 	 */
 	public Future<T> future() {
 		final Future<T> c = super.createFuture(getObservable());
-		synchronized (monitor) {
-			c.doSetExpectedAcceptCount(getExpectedAcceptCount());
-			if (null != getValue()) {
-				c.setValue(getValue());
-			}
-			if (null != getError()) {
-				c.setError(getError());
-			}
+		c.doSetExpectedAcceptCount(getExpectedAcceptCount());
+		if (null != getValue()) {
+			c.setValue(getValue());
+		}
+		if (null != getError()) {
+			c.setError(getError());
 		}
 		when(Throwable.class, new Consumer<Throwable>() {
 			@Override
@@ -104,6 +109,17 @@ public abstract class Composable<T> extends Future<T> implements Consumer<T> {
 	}
 
 
+	/**
+	 * Get the shared timer of this {@link Composable}'s {@link Environment}, on which time-based operations schedule
+	 * their tasks.
+	 *
+	 * @return The shared timer.
+	 */
+	protected final ScheduledExecutorService getTimer() {
+		Assert.notNull(getEnvironment(), "Cannot use a timer without a properly-configured Environment.");
+		return getEnvironment().getTimer();
+	}
+
 	protected Composable<T> forwardError(final Composable<?> composable) {
 		if (composable.getObservable() == getObservable()) {
 			return this;
@@ -18,13 +18,16 @@ package reactor.core;
 
 import static reactor.fn.Functions.$;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 
 import reactor.convert.StandardConverters;
@@ -43,6 +46,7 @@ import reactor.fn.dispatch.ThreadPoolExecutorDispatcher;
 import reactor.fn.registry.CachingRegistry;
 import reactor.fn.registry.Registration;
 import reactor.fn.registry.Registry;
+import reactor.support.NamedDaemonThreadFactory;
 
 import com.eaio.uuid.UUID;
 import com.lmax.disruptor.BlockingWaitStrategy;
@@ -77,12 +81,15 @@ public class Environment {
 	private final Properties env;
 
 	private final AtomicReference<Reactor> rootReactor      = new AtomicReference<Reactor>();
+	private final AtomicReference<ScheduledExecutorService> timer = new AtomicReference<ScheduledExecutorService>();
 	private final Registry<Reactor>        reactors         = new CachingRegistry<Reactor>(null);
 	private final Object                   monitor          = new Object();
 	private final Filter                   dispatcherFilter = new RoundRobinFilter();
 
-	private final Map<String, List<Dispatcher>> dispatchers;
-	private final String                        defaultDispatcher;
+	private final List<Dispatcher>         parallelDispatchers = new CopyOnWriteArrayList<Dispatcher>();
+
+	private final ConcurrentMap<String, List<Dispatcher>> dispatchers;
+	private final String                                  defaultDispatcher;
 
 	public Environment() {
 		this(Collections.<String, List<Dispatcher>>emptyMap(), new PropertiesConfigurationReader());
@@ -94,7 +101,10 @@ public class Environment {
 
 	public Environment(Map<String, List<Dispatcher>> dispatchers, ConfigurationReader configurationReader) {
 
-		this.dispatchers = new HashMap<String, List<Dispatcher>>(dispatchers);
+		this.dispatchers = new ConcurrentHashMap<String, List<Dispatcher>>();
+		for (Map.Entry<String, List<Dispatcher>> entry : dispatchers.entrySet()) {
+			this.dispatchers.put(entry.getKey(), new CopyOnWriteArrayList<Dispatcher>(entry.getValue()));
+		}
 
 		ReactorConfiguration configuration = configurationReader.read();
 		defaultDispatcher = configuration.getDefaultDispatcherName();
@@ -175,14 +185,14 @@ public class Environment {
 	}
 
 	public Dispatcher getDispatcher(String name) {
-		synchronized (monitor) {
-			List<Dispatcher> dispatchers = this.dispatchers.get(name);
-			List<Dispatcher> filteredDispatchers = this.dispatcherFilter.filter(dispatchers, name);
-			if (filteredDispatchers.isEmpty()) {
-				throw new IllegalArgumentException("No Dispatcher found for name '" + name + "'");
-			} else {
-				return filteredDispatchers.get(0);
-			}
+		List<Dispatcher> dispatchers = this.dispatchers.get(name);
+		List<Dispatcher> filteredDispatchers = (null != dispatchers
+				? this.dispatcherFilter.filter(dispatchers, name)
+				: Collections.<Dispatcher>emptyList());
+		if (filteredDispatchers.isEmpty()) {
+			throw new IllegalArgumentException("No Dispatcher found for name '" + name + "'");
+		} else {
+			return filteredDispatchers.get(0);
 		}
 	}
 
@@ -197,12 +207,13 @@ public class Environment {
 	}
 
 	private void doAddDispatcher(String name, Dispatcher dispatcher) {
+		// writers are serialized by the monitor, readers never lock and only ever see populated lists
 		List<Dispatcher> dispatchers = this.dispatchers.get(name);
 		if (dispatchers == null) {
-			dispatchers = new ArrayList<Dispatcher>();
-			this.dispatchers.put(name, dispatchers);
+			this.dispatchers.put(name, new CopyOnWriteArrayList<Dispatcher>(Collections.singletonList(dispatcher)));
+		} else {
+			dispatchers.add(dispatcher);
 		}
-		dispatchers.add(dispatcher);
 	}
 
 	public Environment removeDispatcher(String name) {
@@ -253,4 +264,42 @@ public class Environment {
 		rootReactor.compareAndSet(null, new Reactor(this, getDefaultDispatcher()));
 		return rootReactor.get();
 	}
+
+	/**
+	 * Get {@code n} event loops to spread work across, such as the values of a {@link Stream#parallel(int) parallel
+	 * Stream}. They are kept apart from the configured dispatchers, created the first time they are needed and then
+	 * shared, so that only the components that spread work have threads of their own for it.
+	 *
+	 * @param n The number of event loops.
+	 * @return The event loops.
+	 */
+	public List<Dispatcher> getParallelDispatchers(int n) {
+		if (parallelDispatchers.size() < n) {
+			synchronized (monitor) {
+				while (parallelDispatchers.size() < n) {
+					parallelDispatchers.add(new BlockingQueueDispatcher("parallel", 256));
+				}
+			}
+		}
+		return parallelDispatchers.subList(0, n);
+	}
+
+	/**
+	 * The timer shared by the components of this {@link Environment} to schedule time-based work, such as closing a
+	 * batch of values. It is created, with a single daemon thread, the first time it is asked for. Tasks run on the
+	 * timer should be short and hand any real work off to a {@link Dispatcher}.
+	 *
+	 * @return The shared timer.
+	 */
+	public ScheduledExecutorService getTimer() {
+		ScheduledExecutorService t = timer.get();
+		if (null == t) {
+			t = Executors.newSingleThreadScheduledExecutor(new NamedDaemonThreadFactory("reactor-timer"));
+			if (!timer.compareAndSet(null, t)) {
+				t.shutdown();
+				t = timer.get();
+			}
+		}
+		return t;
+	}
 }
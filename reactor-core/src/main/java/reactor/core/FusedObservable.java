@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.fn.Consumer;
+import reactor.fn.Event;
+import reactor.fn.Function;
+import reactor.fn.Observable;
+import reactor.fn.Supplier;
+import reactor.fn.registry.Registration;
+import reactor.fn.selector.HeaderResolver;
+import reactor.fn.selector.Selector;
+import reactor.fn.tuples.Tuple2;
+import reactor.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static reactor.fn.Functions.$;
+
+/**
+ * An {@link Observable} used by the stages of a fused {@link Stream} or {@link Future}. Rather than dispatching
+ * through a {@link Reactor}, with its own registry, event router and dispatcher, notifying a {@literal
+ * FusedObservable} invokes the matching consumers directly in the calling thread, which is the thread on which the
+ * source of the fused pipeline dispatched the value. Consumers receive the {@link Event} as-is and errors thrown by a
+ * consumer are routed to the consumers registered for that type of error, just as a {@link Reactor} would.
+ * <p>
+ * Consumers are kept in a copy-on-write array, as stages register them while the pipeline is assembled and only very
+ * rarely afterwards, so notifying neither locks nor allocates.
+ */
+final class FusedObservable implements Observable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(FusedObservable.class);
+
+	private final Object   defaultKey      = new Object();
+	private final Selector defaultSelector = $(defaultKey);
+
+	private final    Object                 monitor       = new Object();
+	private volatile FusedRegistration<?>[] registrations = new FusedRegistration<?>[0];
+
+	FusedObservable() {
+		// scheduled consumers, as used by Functions.schedule, are executed as they would be by a Reactor
+		on(new Consumer<Event<?>>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public void accept(Event<?> event) {
+				if (event.getData() instanceof Tuple2) {
+					Object consumer = ((Tuple2) event.getData()).getT1();
+					Object data = ((Tuple2) event.getData()).getT2();
+					if (consumer instanceof Consumer) {
+						((Consumer) consumer).accept(data);
+					}
+				}
+			}
+		});
+	}
+
+	@Override
+	public boolean respondsToKey(Object key) {
+		Assert.notNull(key, "Key cannot be null.");
+		for (FusedRegistration<?> reg : this.registrations) {
+			if (reg.getSelector().matches(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public <E extends Event<?>> Registration<Consumer<E>> on(Selector sel, Consumer<E> consumer) {
+		Assert.notNull(sel, "Selector cannot be null.");
+		Assert.notNull(consumer, "Consumer cannot be null.");
+		FusedRegistration<Consumer<E>> reg = new FusedRegistration<Consumer<E>>(sel, consumer);
+		synchronized (monitor) {
+			FusedRegistration<?>[] registrations = Arrays.copyOf(this.registrations, this.registrations.length + 1);
+			registrations[registrations.length - 1] = reg;
+			this.registrations = registrations;
+		}
+		return reg;
+	}
+
+	@Override
+	public <E extends Event<?>> Registration<Consumer<E>> on(Consumer<E> consumer) {
+		return on(defaultSelector, consumer);
+	}
+
+	@Override
+	public <E extends Event<?>, V> Registration<Consumer<E>> receive(Selector sel, final Function<E, V> fn) {
+		return on(sel, new Consumer<E>() {
+			@Override
+			public void accept(E ev) {
+				Observable replyToObservable = (ev instanceof ReplyToEvent
+						? ((ReplyToEvent<?>) ev).replyToObservable
+						: FusedObservable.this);
+				try {
+					V reply = fn.apply(ev);
+					Event<?> replyEv;
+					if (null == reply) {
+						replyEv = Event.NULL_EVENT;
+					} else {
+						replyEv = (reply instanceof Event ? (Event<?>) reply : Event.wrap(reply));
+					}
+					replyToObservable.notify(ev.getReplyTo(), replyEv);
+				} catch (Throwable x) {
+					replyToObservable.notify(x.getClass(), Event.wrap(x));
+				}
+			}
+		});
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	@Override
+	public <E extends Event<?>> FusedObservable notify(Object key, E ev, Consumer<E> onComplete) {
+		Assert.notNull(key, "Key cannot be null.");
+		Assert.notNull(ev, "Event cannot be null.");
+
+		try {
+			for (FusedRegistration<?> reg : this.registrations) {
+				if (reg.isCancelled() || reg.isPaused() || !reg.getSelector().matches(key)) {
+					continue;
+				}
+				Event<?> event = ev;
+				HeaderResolver headerResolver = reg.getSelector().getHeaderResolver();
+				if (null != headerResolver) {
+					Map<String, String> headers = headerResolver.resolve(key);
+					if (null != headers && !headers.isEmpty()) {
+						event = event.overlayHeaders(headers);
+					}
+				}
+				((Consumer) reg.getObject()).accept(event);
+				if (reg.isCancelAfterUse()) {
+					reg.cancel();
+				}
+				if (null != onComplete) {
+					onComplete.accept(ev);
+				}
+			}
+		} catch (Throwable t) {
+			LOG.error("Event routing failed: {}", t.getMessage(), t);
+			if (!(key instanceof Class && Throwable.class.isAssignableFrom((Class<?>) key))) {
+				// errors thrown while handling an error are only logged, as a Reactor would
+				notify(t.getClass(), Event.wrap(t));
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public <E extends Event<?>> FusedObservable notify(Object key, E ev) {
+		return notify(key, ev, null);
+	}
+
+	@Override
+	public <S extends Supplier<Event<?>>> FusedObservable notify(Object key, S supplier) {
+		return notify(key, supplier.get(), null);
+	}
+
+	@Override
+	public <E extends Event<?>> FusedObservable notify(E ev) {
+		return notify(defaultKey, ev, null);
+	}
+
+	@Override
+	public <S extends Supplier<Event<?>>> FusedObservable notify(S supplier) {
+		return notify(defaultKey, supplier.get(), null);
+	}
+
+	@Override
+	public FusedObservable notify(Object key) {
+		return notify(key, Event.NULL_EVENT, null);
+	}
+
+	@Override
+	public <E extends Event<?>> FusedObservable send(Object key, E ev) {
+		return notify(key, replyTo((Event<?>) ev, this));
+	}
+
+	@Override
+	public <S extends Supplier<Event<?>>> FusedObservable send(Object key, S supplier) {
+		return notify(key, replyTo(supplier.get(), this));
+	}
+
+	@Override
+	public <E extends Event<?>> FusedObservable send(Object key, E ev, Observable replyTo) {
+		return notify(key, replyTo((Event<?>) ev, replyTo));
+	}
+
+	@Override
+	public <S extends Supplier<Event<?>>> FusedObservable send(Object key, S supplier, Observable replyTo) {
+		return notify(key, replyTo(supplier.get(), replyTo));
+	}
+
+	private static <T> ReplyToEvent<T> replyTo(Event<T> ev, Observable replyToObservable) {
+		return new ReplyToEvent<T>(ev, replyToObservable);
+	}
+
+	private static class ReplyToEvent<T> extends Event<T> {
+		private final Observable replyToObservable;
+
+		private ReplyToEvent(Event<T> delegate, Observable replyToObservable) {
+			super(delegate.getHeaders(), delegate.getData());
+			setReplyTo(delegate.getReplyTo());
+			this.replyToObservable = replyToObservable;
+		}
+
+		private ReplyToEvent(ReplyToEvent<T> source, Headers headers) {
+			super(source, headers);
+			this.replyToObservable = source.replyToObservable;
+		}
+
+		@Override
+		protected Event<T> copy(Headers headers) {
+			return new ReplyToEvent<T>(this, headers);
+		}
+	}
+
+	private class FusedRegistration<T> implements Registration<T> {
+		private final Selector selector;
+		private final T        object;
+
+		private volatile boolean cancelled;
+		private volatile boolean cancelAfterUse;
+		private volatile boolean paused;
+
+		private FusedRegistration(Selector selector, T object) {
+			this.selector = selector;
+			this.object = object;
+		}
+
+		@Override
+		public Selector getSelector() {
+			return selector;
+		}
+
+		@Override
+		public T getObject() {
+			return object;
+		}
+
+		@Override
+		public Registration<T> cancelAfterUse() {
+			cancelAfterUse = true;
+			return this;
+		}
+
+		@Override
+		public boolean isCancelAfterUse() {
+			return cancelAfterUse;
+		}
+
+		@Override
+		public Registration<T> cancel() {
+			cancelled = true;
+			synchronized (monitor) {
+				List<FusedRegistration<?>> remaining = new ArrayList<FusedRegistration<?>>(Arrays.asList(registrations));
+				remaining.remove(this);
+				registrations = remaining.toArray(new FusedRegistration<?>[remaining.size()]);
+			}
+			return this;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public Registration<T> pause() {
+			paused = true;
+			return this;
+		}
+
+		@Override
+		public boolean isPaused() {
+			return paused;
+		}
+
+		@Override
+		public Registration<T> resume() {
+			paused = false;
+			return this;
+		}
+	}
+
+}
@@ -19,36 +19,83 @@ package reactor.core;
 import reactor.fn.*;
 import reactor.fn.registry.Registration;
 import reactor.fn.selector.Selector;
+import reactor.fn.support.Backoff;
 import reactor.util.Assert;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static reactor.fn.Functions.$;
 
 /**
  * A {@literal Future} is a way to notify components to provide new data that must wait on the data to become
  * available.
+ * <p/>
+ * The completion of a {@literal Future} is tracked in a single state word, updated atomically, that holds the number
+ * of accepted values along with an error flag and a completing flag. Reading the state or the value never takes a
+ * lock; only threads that {@link #await()} the {@literal Future} block, and they are woken up by whoever completes it.
  *
  * @param <T> The {@link Future}  output type.
  * @author Stephane Maldini
  */
 public class Future<T> implements Supplier<T> {
 
+	private static final long ERROR      = 1L << 62;
+	private static final long COMPLETING = 1L << 61;
+	private static final long COUNT_MASK = COMPLETING - 1;
+
+	// field updaters can only be created for the raw class, so their declarations use it too
+	@SuppressWarnings("rawtypes")
+	private static final AtomicLongFieldUpdater<Future>    STATE_UPDATER          = AtomicLongFieldUpdater.newUpdater(Future.class, "state");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicLongFieldUpdater<Future>    EXPECTED_COUNT_UPDATER = AtomicLongFieldUpdater.newUpdater(Future.class, "expectedAcceptCount");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<Future> WAITERS_UPDATER        = AtomicIntegerFieldUpdater.newUpdater(Future.class, "waiters");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<Future> CANCELLED_UPDATER      = AtomicIntegerFieldUpdater.newUpdater(Future.class, "cancelled");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Future, Observable> OBSERVABLE_UPDATER =
+			AtomicReferenceFieldUpdater.newUpdater(Future.class, Observable.class, "observable");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Future, Queue> UPSTREAM_REGISTRATIONS_UPDATER =
+			AtomicReferenceFieldUpdater.newUpdater(Future.class, Queue.class, "upstreamRegistrations");
+
+	/**
+	 * Only used to block and wake up the threads awaiting this {@link Future}.
+	 */
 	protected final Object monitor = new Object();
 
 	private final Object   acceptKey      = new Object();
 	private final Selector acceptSelector = $(acceptKey);
 
 	private final Environment env;
-	private final Observable  observable;
+	private volatile Observable observable;
+
+	private volatile long state               = 0L;
+	private volatile long expectedAcceptCount = -1L;
+	private volatile int  waiters             = 0;
+
+	private volatile T         value;
+	private volatile Throwable error;
+
+	private volatile boolean fused = false;
 
-	private long acceptedCount       = 0L;
-	private long expectedAcceptCount = -1L;
+	private volatile Future<?> upstream;
 
-	private T         value;
-	private Throwable error;
+	/**
+	 * The registrations this {@link Future}'s values come through, cancelled when it is.
+	 */
+	private volatile Queue<Registration<?>> upstreamRegistrations;
+	private volatile int                    cancelled;
 
-	private boolean hasBlockers = false;
+	/**
+	 * How the stage that feeds this {@link Future} is retried when it fails, if at all.
+	 */
+	private volatile Backoff retryPolicy;
 
 	/**
 	 * Create a {@link Future} that uses the given {@link Reactor} for publishing events internally.
@@ -61,6 +108,14 @@ public class Future<T> implements Supplier<T> {
 		this.observable = observable;
 	}
 
+	/**
+	 * Create a {@link Future} whose {@link Observable} is only created, by {@link #createDefaultObservable()}, if and
+	 * when it is first needed. For implementations that notify their consumers by other means.
+	 */
+	Future(Environment env) {
+		this.env = env;
+	}
+
 
 	/**
 	 * Set the number of times to expect {@link #acceptKey} to be called.
@@ -69,11 +124,9 @@ public class Future<T> implements Supplier<T> {
 	 * @return {@literal this}
 	 */
 	public Future<T> setExpectedAcceptCount(long expectedAcceptCount) {
-		synchronized (monitor) {
-			doSetExpectedAcceptCount(expectedAcceptCount);
-			if (acceptCountReached()) {
-				monitor.notifyAll();
-			}
+		doSetExpectedAcceptCount(expectedAcceptCount);
+		if (acceptCountReached()) {
+			signalWaiters();
 		}
 		return this;
 	}
@@ -119,15 +172,11 @@ public class Future<T> implements Supplier<T> {
 	 */
 	public <V> Future<V> map(final Function<T, V> fn) {
 		Assert.notNull(fn);
-		final Future<V> c = this.assignComposable(observable);
-		when(acceptSelector, new Consumer<T>() {
+		final Future<V> c = this.assignComposable(getObservable());
+		linkStage(c, new Consumer<T>() {
 			@Override
 			public void accept(T value) {
-				try {
-					c.internalAccept(fn.apply(value));
-				} catch (Throwable t) {
-					handleError(c, t);
-				}
+				c.internalAccept(fn.apply(value));
 			}
 		});
 		return c;
@@ -141,18 +190,15 @@ public class Future<T> implements Supplier<T> {
 	 */
 	public Future<T> filter(final Function<T, Boolean> fn) {
 		Assert.notNull(fn);
-		final Future<T> c = this.assignComposable(observable);
-		consume(new Consumer<T>() {
+		final Future<T> c = this.assignComposable(getObservable());
+		linkStage(c, new Consumer<T>() {
 			@Override
 			public void accept(T value) {
-				try {
-					if (fn.apply(value)) {
-						c.internalAccept(value);
-					} else {
-						c.decreaseAcceptLength();
-					}
-				} catch (Throwable t) {
-					handleError(c, t);
+				if (fn.apply(value)) {
+					c.internalAccept(value);
+				} else {
+					c.decreaseAcceptLength();
+					c.valueDropped();
 				}
 			}
 		});
@@ -175,14 +221,14 @@ public class Future<T> implements Supplier<T> {
 		Assert.notNull(onError);
 
 		if (!isComplete()) {
-			observable.on(Functions.T(exceptionType), new Consumer<Event<E>>() {
+			getObservable().on(Functions.T(exceptionType), new Consumer<Event<E>>() {
 				@Override
 				public void accept(Event<E> ev) {
 					onError.accept(ev.getData());
 				}
 			});
 		} else if (isError()) {
-			Functions.schedule(onError, (E) error, observable);
+			Functions.schedule(onError, (E) error, getObservable());
 		}
 		return this;
 	}
@@ -197,24 +243,30 @@ public class Future<T> implements Supplier<T> {
 	}
 
 	public T await(long timeout, TimeUnit unit) throws InterruptedException {
+		if (isComplete()) {
+			return get();
+		}
 		synchronized (monitor) {
-			if (isComplete()) {
-				return get();
-			}
-			if (timeout >= 0) {
-				hasBlockers = true;
-				long msTimeout = TimeUnit.MILLISECONDS.convert(timeout, unit);
-				long endTime = System.currentTimeMillis() + msTimeout;
-				long now;
-				while (!isComplete() && (now = System.currentTimeMillis()) < endTime) {
-					this.monitor.wait(endTime - now);
-				}
-			} else {
-				while (!isComplete()) {
-					this.monitor.wait();
+			// registering as a waiter before checking the state means that whoever completes this future afterwards sees
+			// the waiter and wakes it up
+			WAITERS_UPDATER.incrementAndGet(this);
+			try {
+				if (timeout >= 0) {
+					long msTimeout = TimeUnit.MILLISECONDS.convert(timeout, unit);
+					long endTime = System.currentTimeMillis() + msTimeout;
+					long now;
+					// the whole timeout elapses before giving up, even when the clock only just reaches the deadline
+					while (!isComplete() && (now = System.currentTimeMillis()) <= endTime) {
+						this.monitor.wait(Math.max(1, endTime - now));
+					}
+				} else {
+					while (!isComplete()) {
+						this.monitor.wait();
+					}
 				}
+			} finally {
+				WAITERS_UPDATER.decrementAndGet(this);
 			}
-			hasBlockers = false;
 		}
 		return get();
 	}
@@ -222,56 +274,260 @@ public class Future<T> implements Supplier<T> {
 
 	@Override
 	public T get() {
-		synchronized (this.monitor) {
-			if (null != error) {
-				throw new IllegalStateException(getError());
-			}
-			return value;
+		Throwable error = this.error;
+		if (null != error) {
+			throw new IllegalStateException(error);
 		}
+		return value;
 	}
 
 
 	protected Registration<Consumer<Event<T>>> when(Selector sel, final Consumer<T> consumer) {
 		if (!isComplete()) {
-			return observable.on(sel, new Consumer<Event<T>>() {
+			return getObservable().on(sel, new Consumer<Event<T>>() {
 				@Override
 				public void accept(Event<T> ev) {
 					consumer.accept(ev.getData());
 				}
 			});
 		} else if (!isError()) {
-			Functions.schedule(consumer, value, observable);
+			Functions.schedule(consumer, value, getObservable());
 		}
 		return null;
 	}
 
 
+	/**
+	 * Register a {@link Consumer} for the values of this {@literal Future} and return its {@link Registration} so that
+	 * it can be cancelled later. If this {@literal Future} completes while the consumer is being registered, the consumer
+	 * may be invoked twice with the same value.
+	 *
+	 * @param consumer The consumer to invoke.
+	 * @return The {@link Registration}, or {@literal null} if nothing was registered because this {@literal Future} had
+	 * already completed
+	 */
+	Registration<?> listen(Consumer<T> consumer) {
+		Registration<?> reg = when(acceptSelector, consumer);
+		if (null != reg && acceptCountReached()) {
+			Functions.schedule(consumer, value, getObservable());
+		}
+		return reg;
+	}
+
+	/**
+	 * Register a {@link Consumer} for the errors of this {@literal Future} and return its {@link Registration} so that it
+	 * can be cancelled later. If this {@literal Future} fails while the consumer is being registered, the consumer may
+	 * be invoked twice with the same error.
+	 *
+	 * @param consumer The consumer to invoke.
+	 * @return The {@link Registration}, or {@literal null} if nothing was registered because this {@literal Future} had
+	 * already completed
+	 */
+	Registration<?> listenErrors(final Consumer<Throwable> consumer) {
+		if (isComplete()) {
+			if (isError()) {
+				Functions.schedule(consumer, error, getObservable());
+			}
+			return null;
+		}
+		Registration<?> reg = getObservable().on(Functions.T(Throwable.class), new Consumer<Event<Throwable>>() {
+			@Override
+			public void accept(Event<Throwable> ev) {
+				consumer.accept(ev.getData());
+			}
+		});
+		if (isError()) {
+			Functions.schedule(consumer, error, getObservable());
+		}
+		return reg;
+	}
+
 	protected boolean isComplete() {
 		return isError() || acceptCountReached();
 	}
 
 	protected boolean isError() {
-		synchronized (monitor) {
-			return null != error;
-		}
+		return (state & ERROR) != 0;
 	}
 
 	protected boolean acceptCountReached() {
-		synchronized (monitor) {
-			return expectedAcceptCount >= 0 && acceptedCount >= expectedAcceptCount;
-		}
+		long expected = expectedAcceptCount;
+		return expected >= 0 && (state & COUNT_MASK) >= expected;
 	}
 
 	protected <U> Future<U> assignComposable(Observable src) {
 		Future<U> c = this.createFuture(src);
-		synchronized (monitor) {
-			c.doSetExpectedAcceptCount(getExpectedAcceptCount());
-		}
+		c.doSetExpectedAcceptCount(getExpectedAcceptCount());
+		c.upstream = this;
 		return c;
 	}
 
+	/**
+	 * Cancel the given {@link Registration}, through which values reach this {@literal Future}, when this {@literal
+	 * Future} is {@link #cancel() cancelled}. If it has been cancelled already, the {@link Registration} is cancelled
+	 * straight away.
+	 *
+	 * @param registration The {@link Registration} to cancel, ignored if {@literal null}.
+	 * @return {@literal this}
+	 */
+	@SuppressWarnings("unchecked")
+	public Future<T> cancelWith(Registration<?> registration) {
+		if (null == registration) {
+			return this;
+		}
+		Queue<Registration<?>> registrations = upstreamRegistrations;
+		if (null == registrations) {
+			UPSTREAM_REGISTRATIONS_UPDATER.compareAndSet(this, null, new ConcurrentLinkedQueue<Registration<?>>());
+			registrations = upstreamRegistrations;
+		}
+		registrations.add(registration);
+		// a cancellation that ran before the registration was added has missed it
+		if (isCancelled()) {
+			cancelRegistrations();
+		}
+		return this;
+	}
+
+	/**
+	 * Stop the values that feed this {@literal Future}: the registrations it has been given through {@link
+	 * #cancelWith(Registration)}, such as those of the consumers that pass it the values of the {@literal Future} it has
+	 * been derived from, are cancelled. If that leaves the upstream {@literal Future} without consumers it is cancelled
+	 * in turn, and so on up to the source, so that a source that produces its values itself, such as a {@link Stream} of
+	 * an {@link Iterable}, stops producing them. The consumers of this {@literal Future} are kept.
+	 */
+	public void cancel() {
+		if (!CANCELLED_UPDATER.compareAndSet(this, 0, 1)) {
+			return;
+		}
+		cancelRegistrations();
+		Future<?> upstream = this.upstream;
+		if (null != upstream && !upstream.hasConsumers()) {
+			upstream.cancel();
+		}
+	}
+
+	/**
+	 * Indicates whether this {@literal Future} has been {@link #cancel() cancelled}.
+	 *
+	 * @return {@literal true} if cancelled, {@literal false} otherwise.
+	 */
+	public boolean isCancelled() {
+		return cancelled != 0;
+	}
+
+	/**
+	 * Indicates whether any consumer still listens to the values of this {@literal Future}.
+	 *
+	 * @return {@literal true} if there is a consumer, {@literal false} otherwise.
+	 */
+	protected boolean hasConsumers() {
+		return getObservable().respondsToKey(acceptKey);
+	}
+
+	/**
+	 * Register a {@link Consumer} of the values of this {@literal Future} on behalf of a {@literal Future} derived from
+	 * it, which cancels the registration when it is itself cancelled.
+	 *
+	 * @param downstream The {@literal Future} the consumer feeds.
+	 * @param consumer   The consumer.
+	 */
+	protected final void link(Future<?> downstream, Consumer<T> consumer) {
+		downstream.cancelWith(when(acceptSelector, consumer));
+	}
+
+	/**
+	 * Like {@link #link(Future, Consumer)}, for a stage that can fail: an error thrown by {@code stage} fails {@code
+	 * downstream} unless its {@link #setRetryPolicy(Backoff) retry policy} lets the stage be run again for that value.
+	 *
+	 * @param downstream The {@literal Future} the stage feeds.
+	 * @param stage      The stage.
+	 */
+	protected final void linkStage(final Future<?> downstream, final Consumer<T> stage) {
+		link(downstream, new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				attempt(downstream, stage, value, 0);
+			}
+		});
+	}
+
+	/**
+	 * Set how the stage feeding this {@literal Future} is retried when it fails. Retries are delayed by the timer of the
+	 * {@link Environment}, which must therefore be configured.
+	 *
+	 * @param retryPolicy The policy, or {@literal null} not to retry.
+	 */
+	protected final void setRetryPolicy(Backoff retryPolicy) {
+		Assert.isTrue(null == retryPolicy || null != getEnvironment(),
+		              "Cannot retry without a properly-configured Environment.");
+		this.retryPolicy = retryPolicy;
+	}
+
+	private void attempt(final Future<?> downstream, final Consumer<T> stage, final T value, final int retries) {
+		try {
+			stage.accept(value);
+		} catch (Throwable t) {
+			Backoff backoff = downstream.retryPolicy;
+			if (null == backoff || downstream.isCancelled() || !backoff.canRetry(retries, t)) {
+				handleError(downstream, t);
+				return;
+			}
+			final Consumer<T> retry = new Consumer<T>() {
+				@Override
+				public void accept(T v) {
+					attempt(downstream, stage, v, retries + 1);
+				}
+			};
+			// the timer only waits out the delay: the stage is run again by the dispatcher that ran it the first time
+			downstream.getEnvironment().getTimer().schedule(new Runnable() {
+				@Override
+				public void run() {
+					Functions.schedule(retry, value, getObservable());
+				}
+			}, backoff.getDelay(retries + 1), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void cancelRegistrations() {
+		Queue<Registration<?>> registrations = upstreamRegistrations;
+		if (null == registrations) {
+			return;
+		}
+		Registration<?> reg;
+		while (null != (reg = registrations.poll())) {
+			reg.cancel();
+		}
+	}
+
+	/**
+	 * The {@link Future} this one has been derived from, if any.
+	 *
+	 * @return The upstream {@link Future} or {@literal null} if this is a source.
+	 */
+	protected final Future<?> getUpstream() {
+		return upstream;
+	}
+
+	/**
+	 * Invoked when a value accepted by the upstream {@link Future} has been dropped rather than passed to this one.
+	 */
+	protected void valueDropped() {
+	}
+
 	protected <U> Future<U> createFuture(Observable src) {
-		return new Future<U>(getEnvironment(), createReactor(getObservable()));
+		return new Future<U>(getEnvironment(), createObservable(getObservable()));
+	}
+
+	/**
+	 * Create the {@link Observable} of a new stage derived from this one. Stages of a fused pipeline are given a {@link
+	 * FusedObservable} so that values flow from stage to stage through direct calls; otherwise each stage gets its own
+	 * {@link Reactor}.
+	 *
+	 * @param src The {@link Observable} the new stage is derived from.
+	 * @return The {@link Observable} to use for the new stage.
+	 */
+	protected Observable createObservable(Observable src) {
+		return isFused() ? new FusedObservable() : createReactor(src);
 	}
 
 	protected Reactor createReactor(Observable src) {
@@ -281,100 +537,148 @@ public class Future<T> implements Supplier<T> {
 			rspec.using((Reactor) src);
 		}
 
-		return rspec.sync().get();
+		return rspec.trampoline().get();
+	}
+
+	/**
+	 * Make this the source of a fused pipeline: stages derived from it, and from them in turn, invoke each other
+	 * directly on the thread that this {@link Future} notifies its consumers on, instead of each dispatching through a
+	 * {@link Reactor} of its own.
+	 */
+	protected final void fuse() {
+		this.fused = true;
+	}
+
+	/**
+	 * Whether this {@link Future} is the source or a stage of a fused pipeline.
+	 *
+	 * @return {@literal true} if this is fused, {@literal false} otherwise.
+	 */
+	protected final boolean isFused() {
+		return fused || observable instanceof FusedObservable;
 	}
 
 	protected void decreaseAcceptLength() {
-		synchronized (monitor) {
-			if (--expectedAcceptCount <= acceptedCount) {
+		if (EXPECTED_COUNT_UPDATER.decrementAndGet(this) <= (state & COUNT_MASK)) {
+			signalWaiters();
+		}
+	}
+
+	/**
+	 * Wake up the threads awaiting this {@link Future}, if there are any. Must be called after the state has been
+	 * updated.
+	 */
+	protected final void signalWaiters() {
+		if (waiters > 0) {
+			synchronized (monitor) {
 				monitor.notifyAll();
 			}
 		}
 	}
 
+	/**
+	 * Claim the right to complete this {@link Future}, for implementations that can only be completed once.
+	 *
+	 * @return {@literal true} if this is the first claim and this {@link Future} is not already complete, {@literal
+	 *         false} otherwise.
+	 */
+	protected final boolean markCompleting() {
+		for (; ; ) {
+			long s = state;
+			if ((s & COMPLETING) != 0 || isComplete()) {
+				return false;
+			}
+			if (STATE_UPDATER.compareAndSet(this, s, s | COMPLETING)) {
+				return true;
+			}
+		}
+	}
+
 	protected final Environment getEnvironment() {
 		return env;
 	}
 
 	protected final void doSetExpectedAcceptCount(long expectedAcceptCount) {
-		synchronized (monitor) {
-			this.expectedAcceptCount = expectedAcceptCount;
-		}
+		this.expectedAcceptCount = expectedAcceptCount;
 	}
 
 	protected long getExpectedAcceptCount() {
-		synchronized (monitor) {
-			return expectedAcceptCount;
-		}
+		return expectedAcceptCount;
 	}
+
 	protected boolean isBeyondExceptedCount() {
-		synchronized (monitor) {
-			return acceptedCount > expectedAcceptCount;
-		}
+		return (state & COUNT_MASK) > expectedAcceptCount;
 	}
 
 	protected final Observable getObservable() {
-		return this.observable;
+		Observable observable = this.observable;
+		if (null == observable) {
+			OBSERVABLE_UPDATER.compareAndSet(this, null, createDefaultObservable());
+			observable = this.observable;
+		}
+		return observable;
+	}
+
+	/**
+	 * Create the {@link Observable} of a {@link Future} that has been created without one, the first time it is needed.
+	 *
+	 * @return The {@link Observable} to use.
+	 */
+	protected Observable createDefaultObservable() {
+		return createReactor(null);
 	}
 
 	protected final T getValue() {
-		synchronized (this.monitor) {
-			return this.value;
-		}
+		return this.value;
 	}
 
 	protected void internalAccept(T value) {
-		synchronized (monitor) {
-			setValue(value);
-			notifyAccept(Event.wrap(value));
-			if (hasBlockers) {
-				monitor.notifyAll();
-			}
-
-		}
+		setValue(value);
+		notifyAccept(Event.wrap(value));
+		signalWaiters();
 	}
 
 	protected void internalAccept(Throwable value) {
-		synchronized (monitor) {
-			//notifyError(value);
-			setError(value);
-			if (hasBlockers) {
-				monitor.notifyAll();
-			}
-		}
+		setError(value);
+		signalWaiters();
 	}
 
-	protected final void setValue(T value) {
-		synchronized (monitor) {
-			this.value = value;
-			acceptedCount++;
-		}
+	/**
+	 * Set the current value and count it as accepted.
+	 *
+	 * @param value The value.
+	 * @return The number of values accepted so far, including this one.
+	 */
+	protected final long setValue(T value) {
+		// the value is written before the count is incremented so that whoever sees the count sees the value too
+		this.value = value;
+		return STATE_UPDATER.incrementAndGet(this) & COUNT_MASK;
 	}
 
 	protected final boolean isFirst() {
-		synchronized (monitor) {
-			return acceptedCount == 1;
-		}
+		return (state & COUNT_MASK) == 1;
 	}
 
 	protected final Throwable getError() {
-		synchronized (monitor) {
-			return this.error;
-		}
+		return this.error;
 	}
 
 	protected final void setError(Throwable error) {
-		synchronized (monitor) {
-			this.error = error;
+		this.error = error;
+		for (; ; ) {
+			long s = state;
+			if (STATE_UPDATER.compareAndSet(this, s, s | ERROR)) {
+				return;
+			}
 		}
 	}
 
 	protected final void notifyAccept(Event<?> event) {
-		observable.notify(acceptKey, event);
+		getObservable().notify(acceptKey, event);
 	}
 
 	protected final void notifyError(Throwable error) {
-		observable.notify(error.getClass(), Event.wrap(error));
+		getObservable().notify(error.getClass(), Event.wrap(error));
 	}
 
 	protected void handleError(Future<?> c, Throwable t) {
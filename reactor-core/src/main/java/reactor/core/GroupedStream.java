@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core;
+
+import reactor.fn.Observable;
+
+/**
+ * A {@link Stream} of the values of a {@link Stream#groupBy(reactor.fn.Function) grouped Stream} that share the same
+ * key. The values of a group are all accepted by the same event loop, so its consumers are never invoked concurrently
+ * and the state they keep per group needs no locking.
+ *
+ * @param <K> The type of the key.
+ * @param <T> The type of the values.
+ */
+public class GroupedStream<K, T> extends Stream<T> {
+
+	private final K   key;
+	private final int lane;
+
+	/*
+	 * Only read and written on the event loop of the group, apart from lastValue, which the idle group sweeper reads.
+	 */
+	long          accepted;
+	boolean       closed;
+	volatile long lastValue;
+
+	GroupedStream(Environment env, Observable observable, K key, int lane) {
+		super(env, observable);
+		this.key = key;
+		this.lane = lane;
+		doSetExpectedAcceptCount(-1);
+	}
+
+	/**
+	 * Get the key shared by the values of this group.
+	 *
+	 * @return the key
+	 */
+	public K getKey() {
+		return key;
+	}
+
+	int getLane() {
+		return lane;
+	}
+
+	/**
+	 * Complete this group with the values it has accepted so far. Must be called on the event loop of the group.
+	 */
+	void close() {
+		if (!closed) {
+			closed = true;
+			setExpectedAcceptCount(accepted);
+		}
+	}
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.fn.Consumer;
+import reactor.fn.Event;
+import reactor.fn.Function;
+import reactor.fn.Observable;
+import reactor.fn.dispatch.Dispatcher;
+import reactor.fn.registry.Registration;
+import reactor.fn.routing.EventRouter;
+import reactor.util.Assert;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A {@link Promise} that keeps its callbacks inline rather than in the registry of a {@link Reactor}: a single
+ * callback is held as-is, several in an array, and they are all invoked by a single task dispatched directly onto the
+ * {@link Dispatcher} once the promise completes. Callbacks added afterwards are dispatched on their own. No {@link
+ * Reactor} is created unless a method that relies on one, such as {@link #future()}, is used.
+ *
+ * @param <T> The {@link Promise} output type.
+ */
+final class LightweightPromise<T> extends Promise<T> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(LightweightPromise.class);
+
+	private static final Object DONE = new Object();
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<LightweightPromise, Object> CALLBACKS_UPDATER =
+			AtomicReferenceFieldUpdater.newUpdater(LightweightPromise.class, Object.class, "callbacks");
+
+	/**
+	 * Runs the callbacks of a completed promise, or a single callback added after completion, in place of routing the
+	 * event to registered consumers.
+	 */
+	private static final EventRouter CALLBACK_ROUTER = new EventRouter() {
+		@Override
+		public void route(Object key,
+		                  Event<?> event,
+		                  List<Registration<? extends Consumer<? extends Event<?>>>> consumers,
+		                  Consumer<?> completionConsumer,
+		                  Consumer<Throwable> errorConsumer) {
+			if (key instanceof LightweightPromise) {
+				((LightweightPromise<?>) key).invokeCallbacks();
+			} else {
+				((LateCallback) key).invoke();
+			}
+		}
+	};
+
+	private final Dispatcher dispatcher;
+
+	/**
+	 * {@literal null}, a single callback, an array of callbacks or, once the promise has completed, {@code DONE}.
+	 */
+	private volatile Object callbacks;
+	private          Object completedCallbacks;
+
+	LightweightPromise(Environment env, Dispatcher dispatcher) {
+		super(env);
+		Assert.notNull(dispatcher, "Dispatcher cannot be null.");
+		this.dispatcher = dispatcher;
+	}
+
+	@Override
+	void doSet(T value) {
+		setValue(value);
+		complete();
+	}
+
+	@Override
+	void doSet(Throwable error) {
+		setError(error);
+		complete();
+	}
+
+	@Override
+	public Promise<T> consume(Consumer<T> consumer) {
+		Assert.notNull(consumer);
+		addCallback(consumer);
+		return this;
+	}
+
+	@Override
+	public <E extends Throwable> Promise<T> when(Class<E> exceptionType, Consumer<E> onError) {
+		Assert.notNull(exceptionType);
+		Assert.notNull(onError);
+		addCallback(new ErrorCallback(exceptionType, onError));
+		return this;
+	}
+
+	@Override
+	public <V> Promise<V> map(final Function<T, V> fn) {
+		Assert.notNull(fn);
+		final Promise<V> c = createPromise();
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				try {
+					c.set(fn.apply(value));
+				} catch (Throwable t) {
+					c.set(t);
+				}
+			}
+		});
+		forwardError(c);
+		return c;
+	}
+
+	@Override
+	public Promise<T> filter(final Function<T, Boolean> fn) {
+		Assert.notNull(fn);
+		final Promise<T> c = createPromise();
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				try {
+					if (fn.apply(value)) {
+						c.set(value);
+					} else {
+						c.set(new FilterException());
+					}
+				} catch (Throwable t) {
+					c.set(t);
+				}
+			}
+		});
+		forwardError(c);
+		return c;
+	}
+
+	@Override
+	<V> Promise<V> createPromise() {
+		return new LightweightPromise<V>(getEnvironment(), dispatcher);
+	}
+
+	@Override
+	Registration<?> listen(Consumer<T> consumer) {
+		addCallback(consumer);
+		return null;
+	}
+
+	@Override
+	Registration<?> listenErrors(Consumer<Throwable> consumer) {
+		addCallback(new ErrorCallback(Throwable.class, consumer));
+		return null;
+	}
+
+	@Override
+	protected Composable<T> forwardError(final Composable<?> composable) {
+		when(Throwable.class, new Consumer<Throwable>() {
+			@Override
+			public void accept(Throwable t) {
+				composable.accept(t);
+			}
+		});
+		return this;
+	}
+
+	@Override
+	protected Observable createDefaultObservable() {
+		return Reactors.reactor().using(getEnvironment()).using(dispatcher).get();
+	}
+
+	/**
+	 * Run the given consumer on this promise's {@link Dispatcher}.
+	 *
+	 * @param consumer The consumer to run.
+	 */
+	void schedule(Consumer<Object> consumer) {
+		dispatch(new LateCallback(this, consumer));
+	}
+
+	private void addCallback(Object callback) {
+		for (; ; ) {
+			Object current = callbacks;
+			Object next;
+			if (current == DONE) {
+				dispatch(new LateCallback(this, callback));
+				return;
+			} else if (null == current) {
+				next = callback;
+			} else if (current instanceof Object[]) {
+				Object[] previous = (Object[]) current;
+				Object[] all = Arrays.copyOf(previous, previous.length + 1);
+				all[previous.length] = callback;
+				next = all;
+			} else {
+				next = new Object[]{current, callback};
+			}
+			if (CALLBACKS_UPDATER.compareAndSet(this, current, next)) {
+				return;
+			}
+		}
+	}
+
+	private void complete() {
+		signalWaiters();
+		Object completed = CALLBACKS_UPDATER.getAndSet(this, DONE);
+		if (null != completed) {
+			// published to the dispatching thread by the dispatcher's hand-off
+			completedCallbacks = completed;
+			dispatch(this);
+		}
+	}
+
+	private void dispatch(Object key) {
+		dispatcher.dispatch(key, Event.NULL_EVENT, null, null, CALLBACK_ROUTER, null);
+	}
+
+	private void invokeCallbacks() {
+		Object completed = completedCallbacks;
+		completedCallbacks = null;
+		if (completed instanceof Object[]) {
+			for (Object callback : (Object[]) completed) {
+				invoke(callback);
+			}
+		} else {
+			invoke(completed);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void invoke(Object callback) {
+		try {
+			Throwable error = getError();
+			if (callback instanceof ErrorCallback) {
+				if (null != error && ((ErrorCallback) callback).type.isInstance(error)) {
+					((ErrorCallback) callback).consumer.accept(error);
+				}
+			} else if (null == error) {
+				((Consumer<Object>) callback).accept(getValue());
+			}
+		} catch (Throwable t) {
+			LOG.error(t.getMessage(), t);
+		}
+	}
+
+	private static final class ErrorCallback {
+		private final Class<?>           type;
+		private final Consumer<Throwable> consumer;
+
+		@SuppressWarnings("unchecked")
+		private ErrorCallback(Class<?> type, Consumer<?> consumer) {
+			this.type = type;
+			this.consumer = (Consumer<Throwable>) consumer;
+		}
+	}
+
+	private static final class LateCallback {
+		private final LightweightPromise<?> promise;
+		private final Object                callback;
+
+		private LateCallback(LightweightPromise<?> promise, Object callback) {
+			this.promise = promise;
+			this.callback = callback;
+		}
+
+		private void invoke() {
+			promise.invoke(callback);
+		}
+	}
+
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package reactor.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.fn.Consumer;
+import reactor.fn.Functions;
+import reactor.fn.Observable;
+import reactor.fn.dispatch.Dispatcher;
+import reactor.util.Assert;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares the values of a {@link Stream} between any number of consumers through a ring of the latest values, rather
+ * than through a registration per consumer on the {@link Reactor} of the {@link Stream}. Each {@link Subscription}
+ * keeps its own position in the ring, so that a consumer that joins late is first passed the values the ring still
+ * holds, up to the size of its history, and a consumer invoked by another {@link Dispatcher} can fall behind the others
+ * up to a bound, beyond which it is either dropped or skips the values it missed. Once the {@link Stream} completes or
+ * fails, each {@link Subscription} is told so after the values it had yet to be passed.
+ *
+ * @param <T> The type of the values.
+ * @see Stream#replay(int, int, Multicast.Overflow)
+ */
+public class Multicast<T> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(Multicast.class);
+
+	private final Environment env;
+	private final int         history;
+	private final int         maxLag;
+	private final Overflow    overflow;
+	private final Object[]    ring;
+	private final int         mask;
+
+	/**
+	 * The sequence of the last value written to the ring, or -1 before the first one.
+	 */
+	private final AtomicLong              published   = new AtomicLong(-1);
+	private final List<Subscription>      subscribers = new CopyOnWriteArrayList<Subscription>();
+
+	/*
+	 * Set once no more values will be added, after the last of them has been published.
+	 */
+	private volatile boolean   complete;
+	private volatile Throwable error;
+
+	Multicast(Environment env, int history, int maxLag, Overflow overflow) {
+		Assert.isTrue(history >= 0, "History cannot be negative.");
+		Assert.isTrue(maxLag > 0 && maxLag >= history,
+		              "Maximum lag must be greater than zero and cannot be less than the history a consumer starts with.");
+		Assert.notNull(overflow, "Overflow cannot be null.");
+		this.env = env;
+		this.history = history;
+		this.maxLag = maxLag;
+		this.overflow = overflow;
+		int capacity = 1;
+		while (capacity < Math.max(history, maxLag)) {
+			capacity <<= 1;
+		}
+		this.ring = new Object[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Pass the values, starting with those still held as history, to the given {@link Consumer} on the thread that
+	 * accepts them. A {@link Consumer} that throws an exception is cancelled, and the exception is passed to its {@link
+	 * Subscription#onError(Consumer) error consumer}, or logged, without holding up the other consumers.
+	 *
+	 * @param consumer The {@link Consumer} to pass the values to.
+	 * @return The {@link Subscription} of the {@link Consumer}.
+	 */
+	public Subscription consume(Consumer<T> consumer) {
+		return subscribe(consumer, null);
+	}
+
+	/**
+	 * Pass the values, starting with those still held as history, to the given {@link Consumer} with the given {@link
+	 * Dispatcher}. It only holds up the thread that accepts the values for as long as it takes to signal that there are
+	 * new ones, and can fall behind by up to the maximum lag of this {@literal Multicast}.
+	 *
+	 * @param consumer   The {@link Consumer} to pass the values to.
+	 * @param dispatcher The {@link Dispatcher} to invoke the {@link Consumer} with.
+	 * @return The {@link Subscription} of the {@link Consumer}.
+	 */
+	public Subscription consume(Consumer<T> consumer, Dispatcher dispatcher) {
+		Assert.notNull(dispatcher, "Dispatcher cannot be null.");
+		return subscribe(consumer, Reactors.reactor().using(env).using(dispatcher).get());
+	}
+
+	/**
+	 * Get the number of {@link Subscription Subscriptions} that are neither cancelled nor dropped.
+	 *
+	 * @return The number of subscriptions.
+	 */
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	/*
+	 * Values are written by the thread that accepts them. The source's consumers are only invoked concurrently by some
+	 * dispatchers, so the writers rarely contend for the lock; readers never take it.
+	 */
+	void add(T value) {
+		synchronized (ring) {
+			long seq = published.get() + 1;
+			ring[(int) (seq & mask)] = value;
+			published.set(seq);
+		}
+		signalAll();
+	}
+
+	void complete() {
+		complete = true;
+		signalAll();
+	}
+
+	void error(Throwable t) {
+		error = t;
+		complete = true;
+		signalAll();
+	}
+
+	private void signalAll() {
+		for (Subscription s : subscribers) {
+			s.signal();
+		}
+	}
+
+	private Subscription subscribe(Consumer<T> consumer, Observable observable) {
+		Assert.notNull(consumer, "Consumer cannot be null.");
+		long first = Math.max(0, published.get() - history + 1);
+		Subscription s = new Subscription(consumer, observable, first);
+		subscribers.add(s);
+		s.signal();
+		return s;
+	}
+
+	/**
+	 * What happens to a {@link Subscription} that falls further behind than the maximum lag of its {@link Multicast}.
+	 */
+	public static enum Overflow {
+		/**
+		 * It is cancelled and marked as {@link Subscription#isDropped() dropped}.
+		 */
+		DROP,
+		/**
+		 * It skips ahead to the oldest value within the maximum lag and {@link Subscription#getSkipped() counts} those it
+		 * missed.
+		 */
+		SKIP
+	}
+
+	/**
+	 * The position of a {@link Consumer} in a {@link Multicast}.
+	 */
+	public final class Subscription {
+		private final AtomicInteger draining = new AtomicInteger();
+		private final Consumer<T>    consumer;
+		private final Observable     observable;
+		private final Consumer<Void> drain;
+
+		private volatile Consumer<Void>      completeConsumer;
+		private volatile Consumer<Throwable> errorConsumer;
+
+		/*
+		 * Only read and written by the thread draining the subscription.
+		 */
+		private long    next;
+		private long    skipped;
+		private boolean completed;
+
+		private volatile boolean cancelled;
+		private volatile boolean dropped;
+
+		private Subscription(Consumer<T> consumer, Observable observable, long next) {
+			this.consumer = consumer;
+			this.observable = observable;
+			this.next = next;
+			this.drain = new Consumer<Void>() {
+				@Override
+				public void accept(Void v) {
+					drain();
+				}
+			};
+		}
+
+		/**
+		 * Register a {@link Consumer} to be invoked once the {@link Stream} of the {@link Multicast} has completed and
+		 * every value has been passed to the {@link Consumer} of this {@literal Subscription}.
+		 *
+		 * @param onComplete The {@link Consumer} to invoke on completion.
+		 * @return {@literal this}
+		 */
+		public Subscription onComplete(Consumer<Void> onComplete) {
+			Assert.notNull(onComplete, "Consumer cannot be null.");
+			completeConsumer = onComplete;
+			signal();
+			return this;
+		}
+
+		/**
+		 * Register a {@link Consumer} to be invoked with the error of the {@link Stream} of the {@link Multicast}, once
+		 * every value before it has been passed to the {@link Consumer} of this {@literal Subscription}, or with the
+		 * exception that {@link Consumer} throws.
+		 *
+		 * @param onError The {@link Consumer} to invoke with the error.
+		 * @return {@literal this}
+		 */
+		public Subscription onError(Consumer<Throwable> onError) {
+			Assert.notNull(onError, "Consumer cannot be null.");
+			errorConsumer = onError;
+			signal();
+			return this;
+		}
+
+		/**
+		 * Stop passing values to the {@link Consumer}.
+		 */
+		public void cancel() {
+			cancelled = true;
+			subscribers.remove(this);
+		}
+
+		/**
+		 * Indicates whether this {@literal Subscription} has been cancelled, including by being dropped.
+		 *
+		 * @return {@literal true} if cancelled, {@literal false} otherwise.
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Indicates whether this {@literal Subscription} has been dropped for falling too far behind.
+		 *
+		 * @return {@literal true} if dropped, {@literal false} otherwise.
+		 */
+		public boolean isDropped() {
+			return dropped;
+		}
+
+		/**
+		 * Get the number of values this {@literal Subscription} has skipped for falling too far behind. Only up to date
+		 * when read by the {@link Consumer}.
+		 *
+		 * @return The number of values skipped.
+		 */
+		public long getSkipped() {
+			return skipped;
+		}
+
+		/*
+		 * Only one thread drains at a time; a signal that finds another one draining leaves it a note to have another go
+		 * before it stops, so a dispatched subscription has at most one drain pending however many values arrive.
+		 */
+		private void signal() {
+			if (draining.getAndIncrement() != 0) {
+				return;
+			}
+			if (null == observable) {
+				drain();
+			} else {
+				Functions.schedule(drain, null, observable);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void drain() {
+			do {
+				for (; ; ) {
+					if (cancelled) {
+						return;
+					}
+					long n = next;
+					long pub = published.get();
+					if (n > pub) {
+						// completion is set after the last value is published, so the check against it must come after
+						if (complete && n > published.get()) {
+							signalCompletion();
+						}
+						break;
+					}
+					if (pub - n >= maxLag && !overflow()) {
+						return;
+					}
+					n = next;
+					T value = (T) ring[(int) (n & mask)];
+					// the writer may have wrapped around onto the slot while it was being read
+					if (published.get() - n >= ring.length) {
+						if (!overflow()) {
+							return;
+						}
+						continue;
+					}
+					next = n + 1;
+					try {
+						consumer.accept(value);
+					} catch (RuntimeException e) {
+						cancel();
+						notifyError(e);
+						return;
+					}
+				}
+			} while (draining.decrementAndGet() != 0);
+		}
+
+		private void signalCompletion() {
+			if (completed) {
+				return;
+			}
+			Throwable t = error;
+			if (null != t) {
+				if (null != errorConsumer) {
+					completed = true;
+					errorConsumer.accept(t);
+				}
+			} else if (null != completeConsumer) {
+				completed = true;
+				completeConsumer.accept(null);
+			}
+		}
+
+		private void notifyError(Throwable t) {
+			Consumer<Throwable> onError = errorConsumer;
+			if (null != onError) {
+				onError.accept(t);
+			} else {
+				LOG.error(t.getMessage(), t);
+			}
+		}
+
+		private boolean overflow() {
+			if (overflow == Overflow.DROP) {
+				dropped = true;
+				cancel();
+				return false;
+			}
+			long oldest = published.get() - maxLag + 1;
+			if (oldest > next) {
+				skipped += oldest - next;
+				next = oldest;
+			}
+			return true;
+		}
+	}
+
+}
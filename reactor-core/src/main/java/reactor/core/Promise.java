@@ -21,11 +21,20 @@ import org.slf4j.LoggerFactory;
 import reactor.fn.*;
 import reactor.fn.Observable;
 import reactor.fn.dispatch.Dispatcher;
-import reactor.fn.tuples.Tuple;
-import reactor.fn.tuples.Tuple2;
+import reactor.fn.dispatch.SynchronousDispatcher;
+import reactor.fn.registry.Registration;
+import reactor.fn.support.Backoff;
 import reactor.util.Assert;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A {@literal Promise} is a {@link Stream} that can only be used once. When created, it is pending. If a value of
@@ -44,6 +53,8 @@ import java.util.*;
  */
 public class Promise<T> extends Composable<T> {
 
+	private static final Object NULL = new Object();
+
 	private final Logger log = LoggerFactory.getLogger(getClass());
 
 	Promise(Environment env, Observable src) {
@@ -52,18 +63,23 @@ public class Promise<T> extends Composable<T> {
 		getObservable().on(Functions.T(Throwable.class), new Consumer<Event<Throwable>>() {
 			@Override
 			public void accept(Event<Throwable> throwableEvent) {
-				synchronized (monitor) {
-					if (!isComplete()) {
-						Promise.this.set(throwableEvent.getData());
-					} else {
-						log.error(throwableEvent.getData().getMessage(), throwableEvent.getData());
-					}
+				if (!trySet(throwableEvent.getData())) {
+					log.error(throwableEvent.getData().getMessage(), throwableEvent.getData());
 				}
 			}
 		});
 	}
 
 
+	/**
+	 * Create a {@literal Promise} that is not backed by an {@link Observable} until one is needed, for implementations
+	 * that notify their consumers by other means.
+	 */
+	Promise(Environment env) {
+		super(env);
+		setExpectedAcceptCount(1);
+	}
+
 	/**
 	 * Set the value of the {@literal Promise} so that subsequent calls to {@link reactor.core.Promise#get()} will throw
 	 * this exception instead of returning a value.
@@ -72,9 +88,8 @@ public class Promise<T> extends Composable<T> {
 	 * @return {@literal this}
 	 */
 	public Promise<T> set(Throwable error) {
-		synchronized (monitor) {
-			assertPending();
-			super.accept(error);
+		if (!trySet(error)) {
+			throw new IllegalStateException("This Promise has already completed.");
 		}
 		return this;
 	}
@@ -86,13 +101,58 @@ public class Promise<T> extends Composable<T> {
 	 * @return {@literal this}
 	 */
 	public Promise<T> set(T value) {
-		synchronized (monitor) {
-			assertPending();
-			super.accept(value);
+		if (!trySet(value)) {
+			throw new IllegalStateException("This Promise has already completed.");
 		}
 		return this;
 	}
 
+	/**
+	 * Set the value of this {@literal Promise} to the given exception, unless it has already completed.
+	 *
+	 * @param error The exception to use.
+	 * @return {@literal true} if this {@literal Promise} was completed by this call, {@literal false} otherwise.
+	 */
+	final boolean trySet(Throwable error) {
+		if (!markCompleting()) {
+			return false;
+		}
+		doSet(error);
+		return true;
+	}
+
+	/**
+	 * Set this {@literal Promise} to the given value, unless it has already completed.
+	 *
+	 * @param value The value to set.
+	 * @return {@literal true} if this {@literal Promise} was completed by this call, {@literal false} otherwise.
+	 */
+	final boolean trySet(T value) {
+		if (!markCompleting()) {
+			return false;
+		}
+		doSet(value);
+		return true;
+	}
+
+	/**
+	 * Complete this {@literal Promise} in error, once the right to complete it has been claimed.
+	 *
+	 * @param error The exception to use.
+	 */
+	void doSet(Throwable error) {
+		super.accept(error);
+	}
+
+	/**
+	 * Complete this {@literal Promise} successfully, once the right to complete it has been claimed.
+	 *
+	 * @param value The value to set.
+	 */
+	void doSet(T value) {
+		super.accept(value);
+	}
+
 	/**
 	 * Set a {@link Consumer} to invoke when this {@literal Promise} has either completed successfully or failed and set to
 	 * an error.
@@ -204,86 +264,129 @@ public class Promise<T> extends Composable<T> {
 
 	@Override
 	public Promise<T> consume(final Consumer<T> consumer) {
-		synchronized (monitor) {
-			if (isError()) {
-				return this;
-			} else if (acceptCountReached()) {
-				Functions.schedule(consumer, getValue(), getObservable());
-				return this;
-			} else {
-				return (Promise<T>) super.consume(consumer);
-			}
+		if (isError()) {
+			return this;
+		} else if (acceptCountReached()) {
+			Functions.schedule(consumer, getValue(), getObservable());
+			return this;
+		}
+		// the consumer is registered before checking whether the promise has completed in the meantime: if it has, the
+		// notification may or may not have seen the registration, so the consumer is also scheduled and whichever comes
+		// first invokes it
+		Consumer<T> once = once(consumer);
+		super.consume(once);
+		if (acceptCountReached()) {
+			Functions.schedule(once, getValue(), getObservable());
 		}
+		return this;
 	}
 
 	@Override
-	public Promise<T> consume(Object key, Observable observable) {
-		synchronized (monitor) {
-			if (acceptCountReached()) {
-				observable.notify(key, Event.wrap(getValue()));
-				return this;
-			} else {
-				return (Promise<T>) super.consume(key, observable);
+	public Promise<T> consume(final Object key, final Observable observable) {
+		Assert.notNull(observable);
+		return consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				observable.notify(key, Event.wrap(value));
 			}
-		}
+		});
 	}
 
 	@Override
 	public <V> Promise<V> map(final Function<T, V> fn) {
-		synchronized (monitor) {
-			if (acceptCountReached()) {
-				final Promise<V> c = (Promise<V>) this.assignComposable(getObservable());
-				Functions.schedule(new Consumer<T>() {
-					@Override
-					public void accept(T value) {
-						try {
-							c.accept(fn.apply(value));
-						} catch (Throwable t) {
-							handleError(c, t);
-						}
-					}
-				}, getValue(), getObservable());
-				return c;
-			} else {
-				return (Promise<V>) super.map(fn);
+		Assert.notNull(fn);
+		final Promise<V> c = (Promise<V>) this.<V>assignComposable(getObservable());
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				try {
+					c.accept(fn.apply(value));
+				} catch (Throwable t) {
+					handleError(c, t);
+				}
 			}
-		}
+		});
+		return c;
 	}
 
-
-
 	@Override
 	public Promise<T> filter(final Function<T, Boolean> fn) {
-		synchronized (monitor) {
-			final Promise<T> p = createFuture(getObservable());
-
-			Consumer<T> consumer = new Consumer<T>() {
-				@Override
-				public void accept(T value) {
-					try {
-						if (fn.apply(value)) {
-							p.accept(value);
-						} else {
-							p.accept(new FilterException());
-						}
-					} catch (Throwable t) {
-						handleError(p, t);
+		Assert.notNull(fn);
+		final Promise<T> p = createFuture(getObservable());
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				try {
+					if (fn.apply(value)) {
+						p.accept(value);
+					} else {
+						p.accept(new FilterException());
 					}
+				} catch (Throwable t) {
+					handleError(p, t);
 				}
-			};
+			}
+		});
+		return p;
+	}
 
-			if (acceptCountReached()) {
-				Functions.schedule(consumer, getValue(), getObservable());
-			} else {
-				consume(consumer);
+	/**
+	 * Create a {@literal Promise} that completes the same way as this one, or fails with a {@link TimeoutException} if
+	 * this one has not completed within the given time. The deadline is kept by the {@link Environment#getTimer() shared
+	 * timer} rather than by a waiting thread.
+	 *
+	 * @param timeout The time to wait for this {@literal Promise} to complete.
+	 * @param unit    The unit of {@code timeout}.
+	 * @return The new {@literal Promise}.
+	 */
+	public Promise<T> timeout(final long timeout, final TimeUnit unit) {
+		Assert.isTrue(timeout > 0, "Timeout must be greater than zero.");
+		final Promise<T> p = createPromise();
+		final ScheduledFuture<?> deadline = getTimer().schedule(new Runnable() {
+			@Override
+			public void run() {
+				p.trySet(new TimeoutException("The Promise did not complete within " + timeout + " " + unit + "."));
 			}
-			return p;
-		}
+		}, timeout, unit);
+
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				if (p.trySet(value)) {
+					deadline.cancel(false);
+				}
+			}
+		});
+		when(Throwable.class, new Consumer<Throwable>() {
+			@Override
+			public void accept(Throwable t) {
+				if (p.trySet(t)) {
+					deadline.cancel(false);
+				}
+			}
+		});
+		return p;
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public <E extends Throwable> Promise<T> when(Class<E> exceptionType, Consumer<E> onError) {
-		return (Promise<T>)super.when(exceptionType, onError);
+		Assert.notNull(exceptionType);
+		Assert.notNull(onError);
+		Throwable error = getError();
+		if (null != error) {
+			if (exceptionType.isInstance(error)) {
+				Functions.schedule(onError, (E) error, getObservable());
+			}
+			return this;
+		}
+		Consumer<E> once = once(onError);
+		super.when(exceptionType, once);
+		error = getError();
+		if (null != error && exceptionType.isInstance(error)) {
+			Functions.schedule(once, (E) error, getObservable());
+		}
+		return this;
 	}
 
 	@Override
@@ -296,6 +399,16 @@ public class Promise<T> extends Composable<T> {
 		set(value);
 	}
 
+	/**
+	 * Create a pending {@literal Promise} of the same kind as this one, that it does not complete itself.
+	 *
+	 * @param <V> The type of the new {@literal Promise}.
+	 * @return The new {@literal Promise}.
+	 */
+	<V> Promise<V> createPromise() {
+		return new Promise<V>(getEnvironment(), createObservable(getObservable()));
+	}
+
 	@Override
 	protected <U> Promise<U> createFuture(Observable src) {
 		final Promise<U> p = new Promise<U>(getEnvironment(), src);
@@ -303,69 +416,196 @@ public class Promise<T> extends Composable<T> {
 		return p;
 	}
 
-	private void assertPending() {
-		synchronized (monitor) {
-			if (!isPending()) {
-				throw new IllegalStateException("This Promise has already completed.");
+	private static <V> Consumer<V> once(final Consumer<V> consumer) {
+		return new Consumer<V>() {
+			private final AtomicBoolean invoked = new AtomicBoolean();
+
+			@Override
+			public void accept(V v) {
+				if (invoked.compareAndSet(false, true)) {
+					consumer.accept(v);
+				}
 			}
-		}
+		};
 	}
 
 
+	/**
+	 * Complete this {@literal Promise} with the list of the first values of the given composables, in the order they are
+	 * given, or with the first error any of them reports. Each value is written straight into the slot of its composable
+	 * and this {@literal Promise} completes when the last slot is filled.
+	 *
+	 * @param composables The composables to join.
+	 * @return {@literal this}
+	 */
 	@SuppressWarnings("unchecked")
 	protected Promise<T> merge(Collection<? extends Composable<?>> composables) {
-
 		final int size = composables.size();
 		if (size < 1) {
 			return this;
-		} else if (composables.size() == 1) {
-			composables.iterator().next().consume(new Consumer() {
+		}
+
+		final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<Object>(size);
+		final AtomicInteger remaining = new AtomicInteger(size);
+		final Listeners listeners = new Listeners(size);
+		int index = 0;
+		for (Composable<?> c : composables) {
+			final int slot = index++;
+			listeners.listen(slot, c, new Consumer<Object>() {
 				@Override
-				public void accept(Object t) {
-					Promise.this.accept((T) Arrays.asList(t));
+				public void accept(Object value) {
+					if (slots.compareAndSet(slot, null, null == value ? NULL : value) && remaining.decrementAndGet() == 0) {
+						Object[] values = new Object[size];
+						for (int i = 0; i < size; i++) {
+							Object v = slots.get(i);
+							values[i] = (v == NULL ? null : v);
+						}
+						if (trySet((T) Arrays.asList(values))) {
+							listeners.cancel();
+						}
+					}
+				}
+			}, new Consumer<Throwable>() {
+				@Override
+				public void accept(Throwable t) {
+					if (trySet(t)) {
+						listeners.cancel();
+					}
 				}
 			});
+		}
+		return this;
+	}
+
+	/**
+	 * Complete this {@literal Promise} with the first value any of the given composables produces. It only fails, with
+	 * the last error reported, if all of them fail.
+	 *
+	 * @param composables The composables to listen to.
+	 * @return {@literal this}
+	 */
+	@SuppressWarnings("unchecked")
+	protected Promise<T> any(Collection<? extends Composable<?>> composables) {
+		final int size = composables.size();
+		if (size < 1) {
 			return this;
 		}
 
-		final Stream<Tuple2<?, Integer>> reducer =
-				new Stream.DeferredStream<Tuple2<?, Integer>>(getEnvironment(), getObservable(), size);
-		reducer
-				.reduce()
-				.map(new Function<List<Tuple2<?, Integer>>, T>() {
-					@Override
-					public T apply(List<Tuple2<?, Integer>> collection) {
-						Collections.sort(collection, new Comparator<Tuple2<?, Integer>>() {
-							@Override
-							public int compare(Tuple2<?, Integer> o1, Tuple2<?, Integer> o2) {
-								return o1.getT2().compareTo(o2.getT2());
-							}
-						});
-						List<Object> orderedResult = new ArrayList<Object>();
-						for (Tuple2<?, Integer> element : collection) {
-							orderedResult.add(element.getT1());
-						}
-						return (T) orderedResult;
+		final AtomicIntegerArray failed = new AtomicIntegerArray(size);
+		final AtomicInteger remaining = new AtomicInteger(size);
+		final Listeners listeners = new Listeners(size);
+		int index = 0;
+		for (Composable<?> c : composables) {
+			final int slot = index++;
+			listeners.listen(slot, c, new Consumer<Object>() {
+				@Override
+				public void accept(Object value) {
+					if (trySet((T) value)) {
+						listeners.cancel();
+					}
+				}
+			}, new Consumer<Throwable>() {
+				@Override
+				public void accept(Throwable t) {
+					if (failed.compareAndSet(slot, 0, 1) && remaining.decrementAndGet() == 0 && trySet(t)) {
+						listeners.cancel();
+					}
+				}
+			});
+		}
+		return this;
+	}
+
+	/**
+	 * Complete this {@literal Promise} the same way as the first of the given composables to either produce a value or
+	 * fail.
+	 *
+	 * @param composables The composables to listen to.
+	 * @return {@literal this}
+	 */
+	@SuppressWarnings("unchecked")
+	protected Promise<T> race(Collection<? extends Composable<?>> composables) {
+		final Listeners listeners = new Listeners(composables.size());
+		int index = 0;
+		for (Composable<?> c : composables) {
+			listeners.listen(index++, c, new Consumer<Object>() {
+				@Override
+				public void accept(Object value) {
+					if (trySet((T) value)) {
+						listeners.cancel();
+					}
+				}
+			}, new Consumer<Throwable>() {
+				@Override
+				public void accept(Throwable t) {
+					if (trySet(t)) {
+						listeners.cancel();
 					}
-				}).consume(this);
+				}
+			});
+		}
+		return this;
+	}
 
-		Consumer<Object> consumer = new Consumer<Object>() {
-			int i = 0;
+	/**
+	 * How a {@link Promise} built from several composables completes.
+	 */
+	enum MergeMode {
+		/**
+		 * With the values of all of them, or the first error.
+		 */
+		ALL,
+		/**
+		 * With the first value, or the last error if they all fail.
+		 */
+		ANY,
+		/**
+		 * With the first value or error.
+		 */
+		RACE
+	}
 
-			@Override
-			public void accept(Object o) {
-				reducer.accept(Tuple.of(o, i++));
+	/**
+	 * The consumers a combined {@link Promise} has registered on its composables, kept so that those still registered
+	 * when it completes can be cancelled rather than left to fire for nothing.
+	 */
+	private static final class Listeners {
+		private final AtomicReferenceArray<Registration<?>> registrations;
+		private volatile boolean cancelled;
+
+		private Listeners(int size) {
+			this.registrations = new AtomicReferenceArray<Registration<?>>(size * 2);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void listen(int index, Composable<?> c, Consumer<Object> onValue, Consumer<Throwable> onError) {
+			add(index * 2, ((Composable<Object>) c).listen(onValue));
+			add(index * 2 + 1, c.listenErrors(onError));
+			if (c instanceof Stream.DeferredStream) {
+				((Stream.DeferredStream<?>) c).delayedAccept();
 			}
-		};
+		}
 
-		for (final Composable c : composables) {
-			c.forwardError(reducer).consume(consumer);
-			if (Stream.DeferredStream.class.isInstance(c)) {
-				((Stream.DeferredStream) c).delayedAccept();
+		private void add(int index, Registration<?> reg) {
+			if (null == reg) {
+				return;
+			}
+			registrations.set(index, reg);
+			// a cancellation that ran before the registration was stored has missed it
+			if (cancelled) {
+				reg.cancel();
 			}
 		}
 
-		return this;
+		private void cancel() {
+			cancelled = true;
+			for (int i = 0; i < registrations.length(); i++) {
+				Registration<?> reg = registrations.getAndSet(i, null);
+				if (null != reg) {
+					reg.cancel();
+				}
+			}
+		}
 	}
 
 	/**
@@ -379,6 +619,9 @@ public class Promise<T> extends Composable<T> {
 		protected final Throwable                           error;
 		protected final Supplier<T>                         supplier;
 		protected final Collection<? extends Composable<?>> mergeWith;
+		protected       MergeMode                           mergeMode = MergeMode.ALL;
+		protected       boolean                             lightweight;
+		protected       Backoff                             retryPolicy;
 
 		public Spec(T value, Supplier<T> supplier, Throwable error, Collection<? extends Composable<?>> composables) {
 			this.value = value;
@@ -387,21 +630,96 @@ public class Promise<T> extends Composable<T> {
 			this.mergeWith = composables;
 		}
 
+		/**
+		 * Set how the {@link Promise} completes when it is built from several composables.
+		 *
+		 * @param mergeMode The mode to use.
+		 * @return {@literal this}
+		 */
+		Spec<T> mergeMode(MergeMode mergeMode) {
+			this.mergeMode = mergeMode;
+			return this;
+		}
+
+		/**
+		 * Build a {@link Promise} that does not create a {@link Reactor}: its callbacks are kept in the promise itself and
+		 * invoked by a task dispatched directly onto the configured {@link Dispatcher} when it completes. Promises built
+		 * with a {@link Reactor}, a {@link reactor.convert.Converter} or an event routing strategy still use a {@link
+		 * Reactor}.
+		 *
+		 * @return {@literal this}
+		 */
+		public Spec<T> lightweight() {
+			this.lightweight = true;
+			return this;
+		}
+
+		/**
+		 * Run the {@link Supplier} of the {@link Promise} again up to {@code maxRetries} times if it fails, before the
+		 * {@link Promise} fails with the error. Retries are delayed by 100 milliseconds, doubled for each retry up to 10
+		 * seconds, as by {@link #retryWhen(Backoff)}.
+		 *
+		 * @param maxRetries The maximum number of retries.
+		 * @return {@literal this}
+		 */
+		public Spec<T> retry(int maxRetries) {
+			return retryWhen(Backoff.exponential(maxRetries, 100, 10000, TimeUnit.MILLISECONDS));
+		}
+
+		/**
+		 * Run the {@link Supplier} of the {@link Promise} again if it fails, for as long as the given {@link Backoff}
+		 * allows, before the {@link Promise} fails with the error. Each retry waits out its delay on the {@link
+		 * Environment#getTimer() shared timer} and is then dispatched like the first attempt, so no thread waits in
+		 * between.
+		 *
+		 * @param backoff The retry policy.
+		 * @return {@literal this}
+		 */
+		public Spec<T> retryWhen(Backoff backoff) {
+			Assert.notNull(backoff, "Backoff cannot be null.");
+			this.retryPolicy = backoff;
+			return this;
+		}
+
 		@Override
-		protected Promise<T> configure(Reactor reactor) {
+		public Promise<T> get() {
+			if (!lightweight || null != reactor || null != converter || null != eventRoutingStrategy) {
+				return super.get();
+			}
+
+			Dispatcher d = dispatcher;
+			if (null == d) {
+				d = (null != env ? env.getDefaultDispatcher() : SynchronousDispatcher.INSTANCE);
+			}
+			final LightweightPromise<T> prom = new LightweightPromise<T>(env, d);
+			if (null != error) {
+				prom.set(error);
+			} else if (null != supplier) {
+				prom.schedule(new SupplierTask(prom) {
+					@Override
+					protected void resubmit() {
+						prom.schedule(this);
+					}
+				});
+			} else if (null != value) {
+				prom.set(value);
+			} else if (null != mergeWith) {
+				merge(prom);
+			}
+			return prom;
+		}
+
+		@Override
+		protected Promise<T> configure(final Reactor reactor) {
 			final Promise<T> prom;
 			if (null != error) {
 				prom = new Promise<T>(env, reactor).set(error);
 			} else if (supplier != null) {
 				prom = new Promise<T>(env, reactor);
-				Functions.schedule(new Consumer<Object>() {
+				Functions.schedule(new SupplierTask(prom) {
 					@Override
-					public void accept(Object o) {
-						try {
-							prom.set(supplier.get());
-						} catch (Throwable t) {
-							prom.set(t);
-						}
+					protected void resubmit() {
+						Functions.schedule(this, null, reactor);
 					}
 				}, null, reactor);
 			} else if (null != value) {
@@ -409,11 +727,64 @@ public class Promise<T> extends Composable<T> {
 			} else {
 				prom = new Promise<T>(env, reactor);
 				if (null != mergeWith) {
-					prom.merge(mergeWith);
+					merge(prom);
 				}
 			}
 			return prom;
 		}
+
+		/**
+		 * Completes a {@link Promise} with the value of the {@link Supplier}, running it again after a failure as the
+		 * retry policy allows.
+		 */
+		private abstract class SupplierTask implements Consumer<Object> {
+			private final Promise<T> prom;
+			private final Backoff    backoff = retryPolicy;
+			private       int        retries;
+
+			private SupplierTask(Promise<T> prom) {
+				Assert.isTrue(null == backoff || null != env, "Cannot retry without a properly-configured Environment.");
+				this.prom = prom;
+			}
+
+			/**
+			 * Dispatch this task again, the way its first attempt was.
+			 */
+			protected abstract void resubmit();
+
+			@Override
+			public void accept(Object o) {
+				try {
+					prom.set(supplier.get());
+				} catch (Throwable t) {
+					if (null == backoff || !backoff.canRetry(retries, t)) {
+						prom.set(t);
+						return;
+					}
+					// attempts run one after the other, so the count needs no synchronization beyond the dispatch
+					retries++;
+					env.getTimer().schedule(new Runnable() {
+						@Override
+						public void run() {
+							resubmit();
+						}
+					}, backoff.getDelay(retries), TimeUnit.MILLISECONDS);
+				}
+			}
+		}
+
+		private void merge(Promise<T> prom) {
+			switch (mergeMode) {
+				case ANY:
+					prom.any(mergeWith);
+					break;
+				case RACE:
+					prom.race(mergeWith);
+					break;
+				default:
+					prom.merge(mergeWith);
+			}
+		}
 	}
 
 
@@ -93,4 +93,52 @@ public abstract class Promises {
 	public static <T> Promise.Spec<Collection<T>> when(Collection<? extends Composable<T>> composables) {
 		return new Promise.Spec<Collection<T>>(null, null, null, composables);
 	}
+
+	/**
+	 * Create a {@literal Promise} that completes with the first value any of the given composables produces, and fails
+	 * only if all of them fail.
+	 *
+	 * @param composables The composables to use.
+	 * @param <T>         The type of the function result.
+	 * @return a {@link reactor.core.Promise.Spec}.
+	 */
+	public static <T> Promise.Spec<T> any(Composable<T>... composables) {
+		return any(Arrays.asList(composables));
+	}
+
+	/**
+	 * Create a {@literal Promise} that completes with the first value any of the given composables produces, and fails
+	 * only if all of them fail.
+	 *
+	 * @param composables The composables to use.
+	 * @param <T>         The type of the function result.
+	 * @return a {@link reactor.core.Promise.Spec}.
+	 */
+	public static <T> Promise.Spec<T> any(Collection<? extends Composable<T>> composables) {
+		return new Promise.Spec<T>(null, null, null, composables).mergeMode(Promise.MergeMode.ANY);
+	}
+
+	/**
+	 * Create a {@literal Promise} that completes the same way as the first of the given composables to either produce a
+	 * value or fail.
+	 *
+	 * @param composables The composables to use.
+	 * @param <T>         The type of the function result.
+	 * @return a {@link reactor.core.Promise.Spec}.
+	 */
+	public static <T> Promise.Spec<T> race(Composable<T>... composables) {
+		return race(Arrays.asList(composables));
+	}
+
+	/**
+	 * Create a {@literal Promise} that completes the same way as the first of the given composables to either produce a
+	 * value or fail.
+	 *
+	 * @param composables The composables to use.
+	 * @param <T>         The type of the function result.
+	 * @return a {@link reactor.core.Promise.Spec}.
+	 */
+	public static <T> Promise.Spec<T> race(Collection<? extends Composable<T>> composables) {
+		return new Promise.Spec<T>(null, null, null, composables).mergeMode(Promise.MergeMode.RACE);
+	}
 }
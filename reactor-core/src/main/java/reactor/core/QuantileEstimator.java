@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core;
+
+import java.util.Arrays;
+
+/**
+ * Estimates a quantile of a sequence of values in constant space with the P&sup2; algorithm of Jain and Chlamtac: five
+ * markers track the minimum, the maximum, the quantile and the two points half-way to it, and their heights are
+ * adjusted with a piecewise-parabolic interpolation as values are added. Adding a value allocates nothing.
+ * <p/>
+ * An estimator is not thread-safe.
+ */
+class QuantileEstimator {
+
+	private final double   quantile;
+	private final double[] heights   = new double[5];
+	private final int[]    positions = new int[5];
+	private final double[] desired   = new double[5];
+	private final double[] increments;
+	private       long     count;
+
+	QuantileEstimator(double quantile) {
+		this.quantile = quantile;
+		this.increments = new double[]{0, quantile / 2, quantile, (1 + quantile) / 2, 1};
+		reset();
+	}
+
+	/**
+	 * Add a value to the sequence.
+	 *
+	 * @param x The value.
+	 */
+	void add(double x) {
+		if (count < 5) {
+			heights[(int) count++] = x;
+			if (count == 5) {
+				Arrays.sort(heights);
+			}
+			return;
+		}
+
+		int k;
+		if (x < heights[0]) {
+			heights[0] = x;
+			k = 0;
+		} else if (x < heights[1]) {
+			k = 0;
+		} else if (x < heights[2]) {
+			k = 1;
+		} else if (x < heights[3]) {
+			k = 2;
+		} else if (x <= heights[4]) {
+			k = 3;
+		} else {
+			heights[4] = x;
+			k = 3;
+		}
+		for (int i = k + 1; i < 5; i++) {
+			positions[i]++;
+		}
+		for (int i = 0; i < 5; i++) {
+			desired[i] += increments[i];
+		}
+
+		for (int i = 1; i < 4; i++) {
+			double d = desired[i] - positions[i];
+			if ((d >= 1 && positions[i + 1] - positions[i] > 1) || (d <= -1 && positions[i - 1] - positions[i] < -1)) {
+				int s = (d > 0 ? 1 : -1);
+				double h = parabolic(i, s);
+				if (heights[i - 1] < h && h < heights[i + 1]) {
+					heights[i] = h;
+				} else {
+					heights[i] = heights[i] + s * (heights[i + s] - heights[i]) / (positions[i + s] - positions[i]);
+				}
+				positions[i] += s;
+			}
+		}
+		count++;
+	}
+
+	/**
+	 * Get the number of values added since this estimator was created or last reset.
+	 *
+	 * @return the number of values
+	 */
+	long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the estimate of the quantile. Until five values have been added, it is the nearest-rank quantile of the values
+	 * themselves.
+	 *
+	 * @return the estimate, or {@link Double#NaN} if no value has been added
+	 */
+	double estimate() {
+		if (count >= 5) {
+			return heights[2];
+		} else if (count == 0) {
+			return Double.NaN;
+		}
+		double[] values = Arrays.copyOf(heights, (int) count);
+		Arrays.sort(values);
+		return values[(int) Math.round(quantile * (count - 1))];
+	}
+
+	/**
+	 * Forget every value added so far.
+	 */
+	void reset() {
+		count = 0;
+		for (int i = 0; i < 5; i++) {
+			positions[i] = i + 1;
+		}
+		desired[0] = 1;
+		desired[1] = 1 + 2 * quantile;
+		desired[2] = 1 + 4 * quantile;
+		desired[3] = 3 + 2 * quantile;
+		desired[4] = 5;
+	}
+
+	private double parabolic(int i, int s) {
+		double below = positions[i] - positions[i - 1];
+		double above = positions[i + 1] - positions[i];
+		return heights[i] + s / (double) (positions[i + 1] - positions[i - 1]) *
+				((below + s) * (heights[i + 1] - heights[i]) / above + (above - s) * (heights[i] - heights[i - 1]) / below);
+	}
+}
@@ -19,6 +19,7 @@ package reactor.core;
 import static reactor.fn.Functions.$;
 
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.cliffc.high_scale_lib.NonBlockingHashSet;
 
@@ -56,6 +57,8 @@ import com.eaio.uuid.UUID;
 @SuppressWarnings({"unchecked", "rawtypes"})
 public class Reactor implements Observable, Linkable<Observable> {
 
+	private static final AtomicReferenceFieldUpdater<Reactor, UUID> ID_UPDATER = AtomicReferenceFieldUpdater.newUpdater(Reactor.class, UUID.class, "id");
+
 	private final Environment                            env;
 	private final Dispatcher                             dispatcher;
 	private final Registry<Consumer<? extends Event<?>>> consumerRegistry;
@@ -67,8 +70,8 @@ public class Reactor implements Observable, Linkable<Observable> {
 	private final Object   registerKey      = new Object();
 	private final Selector registerSelector = $(registerKey);
 
-	private final UUID                id             = new UUID();
-	private final Consumer<Throwable> errorHandler   = new Consumer<Throwable>() {
+	private volatile UUID                id;
+	private final    Consumer<Throwable> errorHandler   = new Consumer<Throwable>() {
 		@Override
 		public void accept(Throwable t) {
 			//avoid passing itself as error handler
@@ -138,6 +141,11 @@ public class Reactor implements Observable, Linkable<Observable> {
 	 * @return The {@link UUID} of this {@literal Reactor}.
 	 */
 	public UUID getId() {
+		UUID id = this.id;
+		if (null == id) {
+			ID_UPDATER.compareAndSet(this, null, new UUID());
+			id = this.id;
+		}
 		return id;
 	}
 
@@ -390,18 +398,13 @@ public class Reactor implements Observable, Linkable<Observable> {
 
 	@Override
 	public boolean equals(Object o) {
-		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
-
-		Reactor reactor = (Reactor) o;
-
-		return id.equals(reactor.id);
-
+		// every Reactor has its own id, so equality is identity and comparing doesn't force the id to be created
+		return this == o;
 	}
 
 	@Override
 	public int hashCode() {
-		return id.hashCode();
+		return System.identityHashCode(this);
 	}
 
 	private static class ReplyToEvent<T> extends Event<T> {
@@ -413,6 +416,16 @@ public class Reactor implements Observable, Linkable<Observable> {
 			this.replyToObservable = replyToObservable;
 		}
 
+		private ReplyToEvent(ReplyToEvent<T> source, Headers headers) {
+			super(source, headers);
+			this.replyToObservable = source.replyToObservable;
+		}
+
+		@Override
+		protected Event<T> copy(Headers headers) {
+			return new ReplyToEvent<T>(this, headers);
+		}
+
 		private Observable getReplyToObservable() {
 			return replyToObservable;
 		}
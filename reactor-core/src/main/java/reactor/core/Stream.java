@@ -16,19 +16,43 @@
 
 package reactor.core;
 
+import org.cliffc.high_scale_lib.NonBlockingHashMap;
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
 import reactor.fn.Consumer;
 import reactor.fn.Event;
 import reactor.fn.Function;
+import reactor.fn.Functions;
 import reactor.fn.Observable;
 import reactor.fn.dispatch.Dispatcher;
+import reactor.fn.dispatch.SynchronousDispatcher;
+import reactor.fn.registry.Registration;
 import reactor.fn.selector.Selector;
+import reactor.fn.support.Backoff;
 import reactor.fn.support.Reduce;
+import reactor.fn.support.Statistics;
+import reactor.fn.tuples.Tuple;
+import reactor.fn.tuples.Tuple2;
 import reactor.util.Assert;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static reactor.fn.Functions.$;
@@ -50,6 +74,13 @@ public class Stream<T> extends Composable<T> {
 	private final Object   lastKey      = new Object();
 	private final Selector lastSelector = $(lastKey);
 
+	/**
+	 * The number of values that have been passed on to the consumers of this {@link Stream}.
+	 */
+	private final AtomicLong delivered = new AtomicLong();
+
+	private volatile Demand upstreamDemand = Demand.AS_REQUESTED;
+
 	/**
 	 * Create a {@link Stream} that uses the given {@link Reactor} for publishing events internally.
 	 *
@@ -67,17 +98,13 @@ public class Stream<T> extends Composable<T> {
 	 */
 	@Override
 	public Stream<T> setExpectedAcceptCount(long expectedAcceptCount) {
-		boolean notifyLast = false;
-		synchronized (monitor) {
-			doSetExpectedAcceptCount(expectedAcceptCount);
-			if (acceptCountReached()) {
-				monitor.notifyAll();
-				notifyLast = true;
-			}
+		doSetExpectedAcceptCount(expectedAcceptCount);
+		if (acceptCountReached()) {
+			signalWaiters();
 		}
-
-		if (notifyLast) {
-			getObservable().notify(lastKey, Event.wrap(getValue()));
+		// values still being passed on will signal the last value themselves
+		if (expectedAcceptCount >= 0 && delivered.get() >= expectedAcceptCount) {
+			notifyLast(Event.wrap(getValue()));
 		}
 
 		return this;
@@ -85,20 +112,21 @@ public class Stream<T> extends Composable<T> {
 
 	/**
 	 * Creates a new {@link Composable} that will be triggered once, the first time {@link #accept(Object)} is called on
-	 * the parent.
+	 * the parent. It is then {@link #cancel() cancelled}, so that the parent stops feeding it.
 	 *
 	 * @return A new {@link Composable} that is linked to the parent.
 	 */
 	public Stream<T> first() {
-		final Stream<T> c = (Stream<T>) this.assignComposable(getObservable());
+		final Stream<T> c = (Stream<T>) this.<T>assignComposable(getObservable());
 		c.doSetExpectedAcceptCount(1);
 
-		when(firstSelector, new Consumer<T>() {
+		c.cancelWith(when(firstSelector, new Consumer<T>() {
 			@Override
 			public void accept(T t) {
 				c.accept(t);
+				c.cancel();
 			}
-		});
+		}));
 
 		return c;
 	}
@@ -111,8 +139,9 @@ public class Stream<T> extends Composable<T> {
 	 * @see {@link #setExpectedAcceptCount(long)}
 	 */
 	public Stream<T> last() {
-		final Stream<T> c = (Stream<T>) this.assignComposable(getObservable());
+		final Stream<T> c = (Stream<T>) this.<T>assignComposable(getObservable());
 		c.doSetExpectedAcceptCount(1);
+		c.upstreamDemand = Demand.UNBOUNDED;
 
 		when(lastSelector, new Consumer<T>() {
 			@Override
@@ -136,14 +165,14 @@ public class Stream<T> extends Composable<T> {
 	public <V> Stream<V> reduce(final Function<Reduce<T, V>, V> fn, V initial) {
 		Assert.notNull(fn);
 		final AtomicReference<V> lastValue = new AtomicReference<V>(initial);
-		final Stream<V> c = (Stream<V>) this.assignComposable(getObservable());
+		final Stream<V> c = (Stream<V>) this.<V>assignComposable(getObservable());
 
-		final long _expectedAcceptCount;
-		synchronized (monitor) {
-			_expectedAcceptCount = getExpectedAcceptCount();
-		}
+		final long _expectedAcceptCount = getExpectedAcceptCount();
 
 		c.setExpectedAcceptCount(_expectedAcceptCount < 0 ? _expectedAcceptCount : 1);
+		if (_expectedAcceptCount >= 0) {
+			c.upstreamDemand = Demand.UNBOUNDED;
+		}
 		when(lastSelector, new Consumer<T>() {
 			@Override
 			public void accept(T t) {
@@ -155,10 +184,14 @@ public class Stream<T> extends Composable<T> {
 			@Override
 			public void accept(T value) {
 				try {
-					Reduce<T, V> r = new Reduce<T, V>(lastValue.get(), value);
-					lastValue.set(fn.apply(r));
+					V result;
+					// the values of a parallel Stream are reduced on several threads
+					synchronized (lastValue) {
+						result = fn.apply(new Reduce<T, V>(lastValue.get(), value));
+						lastValue.set(result);
+					}
 					if (_expectedAcceptCount < 0) {
-						c.accept(lastValue.get());
+						c.accept(result);
 					}
 				} catch (Throwable t) {
 					handleError(c, t);
@@ -187,222 +220,1602 @@ public class Stream<T> extends Composable<T> {
 	}
 
 	/**
-	 * Take {@param count} number of values and send lastSelector event after {@param count} iterations
+	 * Count the values of this {@link Stream}. If the number of values is known, the count is passed on once they have
+	 * all been accepted, otherwise the running count is passed on after every value.
 	 *
-	 * @param count Number of values to accept
 	 * @return The new {@link Stream}.
 	 */
-	public Stream<T> take(long count) {
-		final Stream<T> c = (Stream<T>) this.assignComposable(getObservable());
-		c.setExpectedAcceptCount(count);
-		consume(c);
+	public Stream<Long> count() {
+		final AtomicLong count = new AtomicLong();
+		return reduceNumbers(new Accumulator<T, Long>() {
+			@Override
+			void add(T value) {
+				count.incrementAndGet();
+			}
 
-		return c;
+			@Override
+			Long result() {
+				return count.get();
+			}
+		});
 	}
 
 	/**
-	 * Accumulate a result until expected accept count has been reached - If this limit hasn't been set, each accumulated
-	 * result will notify the returned {@link Stream}. A {@link Function} taking a {@link Reduce} argument must be
-	 * passed to process each pair formed of the last accumulated result and a new value to be processed.
+	 * Sum the values of this {@link Stream}, which must be {@link Number Numbers}, as {@code long}s. The sum is passed on
+	 * the same way as a {@link #count()}.
 	 *
-	 * @param fn  The reduce function
-	 * @param <V> The type of the object returned by reactor reply.
 	 * @return The new {@link Stream}.
 	 */
-	public <V> Stream<V> reduce(final Function<Reduce<T, V>, V> fn) {
-		return reduce(fn, null);
+	public Stream<Long> sumLong() {
+		final AtomicLong sum = new AtomicLong();
+		return reduceNumbers(new Accumulator<T, Long>() {
+			@Override
+			void add(T value) {
+				sum.addAndGet(((Number) value).longValue());
+			}
+
+			@Override
+			Long result() {
+				return sum.get();
+			}
+		});
 	}
 
 	/**
-	 * Create a new {@link Stream} that is linked to the parent through the given {@code key} and {@link Observable}.
-	 * When the parent's {@link #accept(Object)} is invoked, its value is wrapped into an {@link Event} and passed to
-	 * {@link Observable#notify (reactor.Event.wrap)} along with the given {@code key}. After the event is being propagated
-	 * to the reactor consumers, the new composition expects {@param <V>} replies to be returned.
+	 * Sum the values of this {@link Stream}, which must be {@link Number Numbers}, as {@code double}s. The sum is passed
+	 * on the same way as a {@link #count()}.
 	 *
-	 * @param key        The key to notify
-	 * @param observable The observable to notify
-	 * @param <V>        The type of the object returned by reactor reply.
 	 * @return The new {@link Stream}.
 	 */
-	public <V> Stream<V> map(final Object key, final Observable observable) {
-		Assert.notNull(observable);
-		final Stream<V> c = (Stream<V>) this.assignComposable(observable);
-		c.setExpectedAcceptCount(-1);
-		final Object replyTo = new Object();
-
-		observable.on($(replyTo), new Consumer<Event<V>>() {
+	public Stream<Double> sumDouble() {
+		final AtomicLong sumBits = new AtomicLong(Double.doubleToRawLongBits(0d));
+		return reduceNumbers(new Accumulator<T, Double>() {
 			@Override
-			public void accept(Event<V> event) {
-				try {
-					c.accept(event.getData());
-				} catch (Throwable t) {
-					handleError(c, t);
+			void add(T value) {
+				double x = ((Number) value).doubleValue();
+				for (; ; ) {
+					long bits = sumBits.get();
+					if (sumBits.compareAndSet(bits, Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + x))) {
+						return;
+					}
 				}
 			}
-		});
 
-		consume(new Consumer<T>() {
 			@Override
-			public void accept(T value) {
-				try {
-					Event<?> event = Event.class.isAssignableFrom(value.getClass()) ? (Event<?>) value : Event.wrap(value);
-					event.setReplyTo(replyTo);
-					observable.send(key, event);
-				} catch (Throwable t) {
-					handleError(c, t);
-				}
+			Double result() {
+				return Double.longBitsToDouble(sumBits.get());
 			}
 		});
-
-		return c;
 	}
 
-	@Override
-	public <E extends Throwable> Stream<T> when(Class<E> exceptionType, Consumer<E> onError) {
-		return (Stream<T>) super.when(exceptionType, onError);
+	/**
+	 * Find the smallest of the values of this {@link Stream}, which must be {@link Comparable} with each other, such as
+	 * {@link Number Numbers} of the same type. The minimum is passed on the same way as a {@link #count()}.
+	 *
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<T> min() {
+		return reduceNumbers(new Extremum<T>() {
+			@Override
+			boolean replaces(int comparison) {
+				return comparison < 0;
+			}
+		});
 	}
 
-	@Override
-	public Stream<T> consume(Consumer<T> consumer) {
-		return (Stream<T>) super.consume(consumer);
+	/**
+	 * Find the largest of the values of this {@link Stream}, which must be {@link Comparable} with each other, such as
+	 * {@link Number Numbers} of the same type. The maximum is passed on the same way as a {@link #count()}.
+	 *
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<T> max() {
+		return reduceNumbers(new Extremum<T>() {
+			@Override
+			boolean replaces(int comparison) {
+				return comparison > 0;
+			}
+		});
 	}
 
-	@Override
-	public Stream<T> consume(Object key, Observable observable) {
-		return (Stream<T>) super.consume(key, observable);
-	}
+	/**
+	 * Compute the count, minimum, maximum, mean and variance of the values of this {@link Stream}, which must be {@link
+	 * Number Numbers}, as {@code double}s. The mean and variance are updated incrementally, with Welford's method, so
+	 * that no value is kept. The {@link Statistics} are passed on the same way as a {@link #count()}.
+	 *
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<Statistics> statistics() {
+		return reduceNumbers(new Accumulator<T, Statistics>() {
+			private long   count;
+			private double min = Double.NaN;
+			private double max = Double.NaN;
+			private double mean;
+			private double m2;
 
-	@Override
-	public Stream<T> consume(Composable<T> composable) {
-		return (Stream<T>) super.consume(composable);
-	}
+			@Override
+			synchronized void add(T value) {
+				double x = ((Number) value).doubleValue();
+				if (count++ == 0) {
+					min = max = x;
+				} else if (x < min) {
+					min = x;
+				} else if (x > max) {
+					max = x;
+				}
+				double delta = x - mean;
+				mean += delta / count;
+				m2 += delta * (x - mean);
+			}
 
-	@Override
-	public <V> Stream<V> map(Function<T, V> fn) {
-		return (Stream<V>) super.map(fn);
+			@Override
+			synchronized Statistics result() {
+				if (count == 0) {
+					return new Statistics(0, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+				}
+				return new Statistics(count, min, max, mean, m2 / count);
+			}
+		});
 	}
 
-	@Override
-	public Stream<T> filter(Function<T, Boolean> fn) {
-		return (Stream<T>) super.filter(fn);
+	/**
+	 * Estimate the {@code q} quantile of the values of this {@link Stream}, which must be {@link Number Numbers}, e.g.
+	 * {@code 0.99} for the 99th percentile. The estimate is kept in constant space, without keeping the values, and is
+	 * passed on the same way as a {@link #count()}.
+	 *
+	 * @param q The quantile to estimate, between 0 and 1.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<Double> quantile(double q) {
+		Assert.isTrue(q >= 0 && q <= 1, "Quantile must be between 0 and 1.");
+		final QuantileEstimator estimator = new QuantileEstimator(q);
+		return reduceNumbers(new Accumulator<T, Double>() {
+			@Override
+			void add(T value) {
+				synchronized (estimator) {
+					estimator.add(((Number) value).doubleValue());
+				}
+			}
+
+			@Override
+			Double result() {
+				synchronized (estimator) {
+					return estimator.estimate();
+				}
+			}
+		});
 	}
 
-	@Override
-	protected void internalAccept(T value) {
-		synchronized (monitor) {
-			setValue(value);
-			Event<T> ev = Event.wrap(value);
+	/**
+	 * Estimate the {@code q} quantile of the values of this {@link Stream}, which must be {@link Number Numbers}, over
+	 * consecutive windows of {@code period}. The estimate of each window that had values is passed on when it ends, as
+	 * well as that of the last window when this {@link Stream} completes.
+	 *
+	 * @param q      The quantile to estimate, between 0 and 1.
+	 * @param period The duration of each window.
+	 * @param unit   The unit of {@code period}.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<Double> quantile(double q, long period, TimeUnit unit) {
+		Assert.isTrue(q >= 0 && q <= 1, "Quantile must be between 0 and 1.");
+		Assert.isTrue(period > 0, "Period must be greater than zero.");
+		final Stream<Double> c = createBatchStream();
+		final QuantileEstimator estimator = new QuantileEstimator(q);
+		final AtomicLong emitted = new AtomicLong();
+		final Consumer<Object> flush = new Consumer<Object>() {
+			@Override
+			public void accept(Object o) {
+				double estimate;
+				synchronized (estimator) {
+					if (estimator.getCount() == 0) {
+						return;
+					}
+					estimate = estimator.estimate();
+					estimator.reset();
+				}
+				emitted.incrementAndGet();
+				c.accept(estimate);
+			}
+		};
 
-			if (acceptCountReached()) {
-				monitor.notifyAll();
+		final ScheduledFuture<?> ticks = scheduleTicks(c, new Runnable() {
+			@Override
+			public void run() {
+				Functions.schedule(flush, null, getObservable());
 			}
+		}, period, unit);
 
-			if (getExpectedAcceptCount() < 0 || !isBeyondExceptedCount()) {
-				notifyAccept(ev);
+		link(c, new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				try {
+					synchronized (estimator) {
+						estimator.add(((Number) value).doubleValue());
+					}
+				} catch (Throwable t) {
+					handleError(c, t);
+				}
 			}
-			if (isComplete()) {
-				notifyLast(ev);
+		});
+		c.cancelWith(when(lastSelector, new Consumer<T>() {
+			@Override
+			public void accept(T t) {
+				ticks.cancel(false);
+				flush.accept(null);
+				c.setExpectedAcceptCount(emitted.get());
 			}
+		}));
+		forwardError(c);
+		return c;
+	}
 
-			if (isFirst()) {
-				notifyFirst(ev);
+	/**
+	 * Take {@param count} number of values and send lastSelector event after {@param count} iterations. The new {@link
+	 * Stream} is then {@link #cancel() cancelled}, so that this one stops feeding it and, if nothing else consumes its
+	 * values, stops in turn.
+	 *
+	 * @param count Number of values to accept
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<T> take(long count) {
+		final Stream<T> c = (Stream<T>) this.<T>assignComposable(getObservable());
+		c.setExpectedAcceptCount(count);
+		link(c, new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				c.accept(value);
+				if (c.acceptCountReached()) {
+					c.cancel();
+				}
 			}
+		});
+		forwardError(c);
 
-		}
-	}
-
-	@Override
-	protected <U> Future<U> createFuture(Observable src) {
-		return new Stream<U>(getEnvironment(), createReactor(src));
+		return c;
 	}
 
-
-	protected final void notifyFirst(Event<?> event) {
-		getObservable().notify(firstKey, event);
+	/**
+	 * Retry the {@link #map(Function) map} or {@link #filter(Function) filter} function that feeds this {@link Stream}
+	 * up to {@code maxRetries} times for a value it fails on, before this {@link Stream} fails with the error. Retries
+	 * are delayed by 100 milliseconds, doubled for each retry up to 10 seconds, as by {@link #retryWhen(Backoff)}.
+	 *
+	 * @param maxRetries The maximum number of retries for each value.
+	 * @return {@literal this}
+	 */
+	public Stream<T> retry(int maxRetries) {
+		return retryWhen(Backoff.exponential(maxRetries, 100, 10000, TimeUnit.MILLISECONDS));
 	}
 
-	protected final void notifyLast(Event<?> event) {
-		getObservable().notify(lastKey, event);
+	/**
+	 * Retry the {@link #map(Function) map} or {@link #filter(Function) filter} function that feeds this {@link Stream}
+	 * for a value it fails on, for as long as the given {@link Backoff} allows, before this {@link Stream} fails with the
+	 * error. Each retry waits out its delay on the {@link Environment#getTimer() shared timer}, without holding a thread,
+	 * and then runs the function again on the {@link Dispatcher} that ran it the first time. Values that fail are
+	 * therefore passed on after the values that follow them.
+	 *
+	 * @param backoff The retry policy.
+	 * @return {@literal this}
+	 */
+	public Stream<T> retryWhen(Backoff backoff) {
+		Assert.notNull(backoff, "Backoff cannot be null.");
+		setRetryPolicy(backoff);
+		return this;
 	}
 
 	/**
-	 * Build a {@link Stream} based on the given values, {@link Dispatcher dispatcher}, and {@link Reactor reactor}.
+	 * Pass the values of this {@link Stream} on to a new {@link Stream} that fails with a {@link TimeoutException} if
+	 * more than {@code idle} elapses without a value, counting from now, before it completes. The check runs on the
+	 * {@link Environment#getTimer() shared timer} and no thread waits for the values. The {@link TimeoutException} is
+	 * passed on by the {@link Dispatcher} of this {@link Stream}, and the new {@link Stream} is then {@link #cancel()
+	 * cancelled}, so that this one stops feeding it.
 	 *
-	 * @param <T> The type of the values.
+	 * @param idle The maximum time to wait for each value.
+	 * @param unit The unit of {@code idle}.
+	 * @return The new {@link Stream}.
 	 */
-	public static class Spec<T> extends ComponentSpec<Spec<T>, Stream<T>> {
-
-		protected final Iterable<T> values;
-
-		public Spec(Iterable<T> values) {
-			this.values = values;
-		}
-
-		@Override
-		protected Stream<T> configure(final Reactor reactor) {
-
-			final Stream<T> comp;
-			if (values != null) {
-				comp = new DeferredStream<T>(env, reactor, values);
-			} else {
-				comp = new DeferredStream<T>(env, reactor, -1);
+	public Stream<T> timeout(final long idle, final TimeUnit unit) {
+		Assert.isTrue(idle > 0, "Timeout must be greater than zero.");
+		final ScheduledExecutorService timer = getTimer();
+		final Stream<T> c = (Stream<T>) this.<T>assignComposable(getObservable());
+		final long idleNanos = unit.toNanos(idle);
+		final AtomicLong lastValue = new AtomicLong(System.nanoTime());
+		final Consumer<TimeoutException> fail = new Consumer<TimeoutException>() {
+			@Override
+			public void accept(TimeoutException e) {
+				if (!c.isComplete()) {
+					c.accept(e);
+					c.cancel();
+				}
 			}
-			return comp;
-		}
-	}
-
-	protected static class DeferredStream<T> extends Stream<T> {
-		private final Object stateMonitor = new Object();
-		protected final Iterable<T> values;
-		protected AcceptState acceptState = AcceptState.DELAYED;
+		};
 
-		protected DeferredStream(Environment env, Observable src, Iterable<T> values) {
-			super(env, src);
-			this.values = values;
-			if (values instanceof Collection) {
-				setExpectedAcceptCount((((Collection<?>) values).size()));
+		link(c, new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				lastValue.lazySet(System.nanoTime());
+				if (!c.isError()) {
+					c.accept(value);
+				}
 			}
-		}
-
-		protected DeferredStream(Environment env, Observable src, long length) {
-			super(env, src);
-			this.values = null;
-			setExpectedAcceptCount(length);
-		}
-
-		@Override
-		public void accept(Throwable error) {
-			setError(error);
-			notifyError(error);
-		}
+		});
+		forwardError(c);
 
-		private void acceptValues(Iterable<T> values) {
-			for (T initValue : values) {
-				internalAccept(initValue);
+		timer.schedule(new Runnable() {
+			@Override
+			public void run() {
+				if (c.isComplete() || c.isCancelled()) {
+					return;
+				}
+				// rather than being rescheduled on every value, the check is pushed back by the time since the last one
+				long remaining = idleNanos - (System.nanoTime() - lastValue.get());
+				if (remaining > 0) {
+					timer.schedule(this, remaining, TimeUnit.NANOSECONDS);
+				} else {
+					TimeoutException e = new TimeoutException("No value was accepted within " + idle + " " + unit + ".");
+					Functions.schedule(fail, e, getObservable());
+				}
 			}
-		}
+		}, idle, unit);
 
-		@Override
-		public void accept(T value) {
-			boolean init = false;
+		return c;
+	}
 
-			synchronized (this.stateMonitor) {
-				if (acceptState == AcceptState.DELAYED) {
-					acceptState = AcceptState.ACCEPTING;
-					init = true;
-				}
-			}
+	/**
+	 * Pass on the latest value of this {@link Stream} once every {@code period}, if a value has been accepted since the
+	 * previous one was passed on. Only that latest value is kept in between, and the last one is passed on when this
+	 * {@link Stream} completes. Periods are counted by the {@link Environment#getTimer() shared timer} and values are
+	 * passed on by the {@link Dispatcher} of this {@link Stream}.
+	 *
+	 * @param period The time between two values.
+	 * @param unit   The unit of {@code period}.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<T> sample(long period, TimeUnit unit) {
+		Assert.isTrue(period > 0, "Period must be greater than zero.");
+		final Stream<T> c = createBatchStream();
+		final Latest<T> latest = new Latest<T>(c, getObservable());
 
-			if (values != null) {
-				if (init) {
-					acceptValues(values);
-				}
-			} else {
-				internalAccept(value);
+		final ScheduledFuture<?> ticks = scheduleTicks(c, new Runnable() {
+			@Override
+			public void run() {
+				latest.flush();
 			}
+		}, period, unit);
 
-			synchronized (this.stateMonitor) {
-				acceptState = AcceptState.ACCEPTED;
+		link(c, new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				latest.set(value);
+			}
+		});
+		c.cancelWith(when(lastSelector, new Consumer<T>() {
+			@Override
+			public void accept(T t) {
+				ticks.cancel(false);
+				latest.complete();
+			}
+		}));
+		forwardError(c);
+		return c;
+	}
+
+	/**
+	 * Pass on a value of this {@link Stream}, then drop those that follow it until {@code period} has elapsed. Nothing
+	 * is scheduled: the time of each value decides whether it is passed on.
+	 *
+	 * @param period The time during which the values following one that was passed on are dropped.
+	 * @param unit   The unit of {@code period}.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<T> throttleFirst(long period, TimeUnit unit) {
+		Assert.isTrue(period > 0, "Period must be greater than zero.");
+		final Stream<T> c = createBatchStream();
+		final long periodNanos = unit.toNanos(period);
+		final AtomicLong nextOpening = new AtomicLong(System.nanoTime());
+		final AtomicLong emitted = new AtomicLong();
+
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				long now = System.nanoTime();
+				long opening = nextOpening.get();
+				// of the values accepted concurrently once the period is over, only the one that moves it on passes
+				if (now - opening >= 0 && nextOpening.compareAndSet(opening, now + periodNanos)) {
+					emitted.incrementAndGet();
+					c.accept(value);
+				}
+			}
+		});
+		when(lastSelector, new Consumer<T>() {
+			@Override
+			public void accept(T t) {
+				c.setExpectedAcceptCount(emitted.get());
+			}
+		});
+		forwardError(c);
+		return c;
+	}
+
+	/**
+	 * Pass on a value of this {@link Stream} only once {@code quiet} has elapsed without another value being accepted,
+	 * so that a burst of values is reduced to its last one. Only that value is kept while waiting, and it is passed on
+	 * straight away when this {@link Stream} completes. The wait is timed by the {@link Environment#getTimer() shared
+	 * timer} and values are passed on by the {@link Dispatcher} of this {@link Stream}.
+	 *
+	 * @param quiet The time without values after which the last one is passed on.
+	 * @param unit  The unit of {@code quiet}.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<T> debounce(final long quiet, final TimeUnit unit) {
+		Assert.isTrue(quiet > 0, "Quiet period must be greater than zero.");
+		final ScheduledExecutorService timer = getTimer();
+		final Stream<T> c = createBatchStream();
+		final Latest<T> latest = new Latest<T>(c, getObservable());
+		final long quietNanos = unit.toNanos(quiet);
+		final AtomicLong lastValue = new AtomicLong();
+		final AtomicBoolean armed = new AtomicBoolean();
+
+		final Runnable check = new Runnable() {
+			@Override
+			public void run() {
+				if (c.isComplete()) {
+					return;
+				}
+				// like timeout(), the check is pushed back by the time since the last value rather than rescheduled by each
+				long remaining = quietNanos - (System.nanoTime() - lastValue.get());
+				if (remaining > 0) {
+					timer.schedule(this, remaining, TimeUnit.NANOSECONDS);
+				} else {
+					// disarmed first, so that a value accepted from now on schedules a check of its own
+					armed.set(false);
+					latest.flush();
+				}
+			}
+		};
+
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				lastValue.set(System.nanoTime());
+				latest.set(value);
+				if (!armed.get() && armed.compareAndSet(false, true)) {
+					timer.schedule(check, quiet, unit);
+				}
+			}
+		});
+		when(lastSelector, new Consumer<T>() {
+			@Override
+			public void accept(T t) {
+				latest.complete();
+			}
+		});
+		forwardError(c);
+		return c;
+	}
+
+	/**
+	 * Collect the values of this {@link Stream} into lists of {@code size} values. The last list may be shorter, as it
+	 * is passed on when this {@link Stream} completes.
+	 *
+	 * @param size The number of values in each list.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<List<T>> buffer(int size) {
+		Assert.isTrue(size > 0, "Buffer size must be greater than zero.");
+		final Stream<List<T>> c = createBatchStream();
+		batch(c, new Batcher<T>(size, batchConsumer(c)), null);
+		return c;
+	}
+
+	/**
+	 * Collect the values of this {@link Stream} into lists of up to {@code size} values. A list is passed on when it is
+	 * full, or when {@code timeout} has elapsed since its first value has been collected, whichever comes first.
+	 *
+	 * @param size    The maximum number of values in each list.
+	 * @param timeout The maximum time to wait for a list to be filled.
+	 * @param unit    The unit of {@code timeout}.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<List<T>> buffer(int size, final long timeout, final TimeUnit unit) {
+		Assert.isTrue(size > 0, "Buffer size must be greater than zero.");
+		Assert.isTrue(timeout > 0, "Timeout must be greater than zero.");
+		final ScheduledExecutorService timer = getTimer();
+		final Stream<List<T>> c = createBatchStream();
+		final Batcher<T> batcher = new Batcher<T>(size, batchConsumer(c)) {
+			@Override
+			protected void batchStarted(final Batch<T> batch) {
+				final Batcher<T> self = this;
+				timer.schedule(new Runnable() {
+					@Override
+					public void run() {
+						Functions.schedule(new Consumer<Batch<T>>() {
+							@Override
+							public void accept(Batch<T> b) {
+								self.close(b);
+							}
+						}, batch, getObservable());
+					}
+				}, timeout, unit);
+			}
+		};
+		batch(c, batcher, null);
+		return c;
+	}
+
+	/**
+	 * Collect the values of this {@link Stream} into a list every {@code duration}. Periods in which no value has been
+	 * accepted produce no list.
+	 *
+	 * @param duration The length of each window.
+	 * @param unit     The unit of {@code duration}.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<List<T>> window(long duration, TimeUnit unit) {
+		Assert.isTrue(duration > 0, "Duration must be greater than zero.");
+		final Stream<List<T>> c = createBatchStream();
+		final Batcher<T> batcher = new Batcher<T>(Integer.MAX_VALUE, batchConsumer(c));
+		ScheduledFuture<?> ticks = scheduleTicks(c, new Runnable() {
+			@Override
+			public void run() {
+				Functions.schedule(new Consumer<Batcher<T>>() {
+					@Override
+					public void accept(Batcher<T> b) {
+						b.flush();
+					}
+				}, batcher, getObservable());
+			}
+		}, duration, unit);
+		batch(c, batcher, ticks);
+		return c;
+	}
+
+	/**
+	 * Collect the values of this {@link Stream} into sliding windows: a window of length {@code duration} is opened
+	 * every {@code shift}, so that windows overlap when {@code shift} is shorter than {@code duration}, and a value is
+	 * collected into every window that is open when it is accepted. Windows are timed by the {@link
+	 * Environment#getTimer() shared timer} and opened and closed by the {@link Dispatcher} of this {@link Stream}.
+	 *
+	 * @param duration The length of each window.
+	 * @param shift    The time between the opening of two windows.
+	 * @param unit     The unit of {@code duration} and {@code shift}.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<List<T>> window(final long duration, long shift, final TimeUnit unit) {
+		Assert.isTrue(duration > 0, "Duration must be greater than zero.");
+		Assert.isTrue(shift > 0, "Shift must be greater than zero.");
+		final ScheduledExecutorService timer = getTimer();
+		final Stream<List<T>> c = createBatchStream();
+		final Batcher<T> batcher = new Batcher<T>(Integer.MAX_VALUE, batchConsumer(c));
+		final List<Batcher.Batch<T>> windows = new CopyOnWriteArrayList<Batcher.Batch<T>>();
+		final Consumer<Batcher.Batch<T>> closer = new Consumer<Batcher.Batch<T>>() {
+			@Override
+			public void accept(Batcher.Batch<T> window) {
+				if (windows.remove(window)) {
+					window.close();
+				}
+			}
+		};
+
+		final AtomicBoolean closed = new AtomicBoolean();
+		final Consumer<Void> opener = new Consumer<Void>() {
+			@Override
+			public void accept(Void v) {
+				final Batcher.Batch<T> window;
+				// no window is opened once the last one has been closed, or it would be passed on after completion
+				synchronized (windows) {
+					if (closed.get()) {
+						return;
+					}
+					window = batcher.open();
+					windows.add(window);
+				}
+				timer.schedule(new Runnable() {
+					@Override
+					public void run() {
+						Functions.schedule(closer, window, getObservable());
+					}
+				}, duration, unit);
+			}
+		};
+		opener.accept(null);
+		final ScheduledFuture<?> ticks = scheduleTicks(c, new Runnable() {
+			@Override
+			public void run() {
+				Functions.schedule(opener, null, getObservable());
+			}
+		}, shift, unit);
+
+		link(c, new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				for (Batcher.Batch<T> window : windows) {
+					window.add(value);
+				}
+			}
+		});
+		c.cancelWith(when(lastSelector, new Consumer<T>() {
+			@Override
+			public void accept(T t) {
+				ticks.cancel(false);
+				synchronized (windows) {
+					closed.set(true);
+				}
+				for (Batcher.Batch<T> window : windows) {
+					closer.accept(window);
+				}
+				c.setExpectedAcceptCount(batcher.getEmittedCount());
+			}
+		}));
+		forwardError(c);
+		return c;
+	}
+
+	/**
+	 * Accumulate a result until expected accept count has been reached - If this limit hasn't been set, each accumulated
+	 * result will notify the returned {@link Stream}. A {@link Function} taking a {@link Reduce} argument must be
+	 * passed to process each pair formed of the last accumulated result and a new value to be processed.
+	 *
+	 * @param fn  The reduce function
+	 * @param <V> The type of the object returned by reactor reply.
+	 * @return The new {@link Stream}.
+	 */
+	public <V> Stream<V> reduce(final Function<Reduce<T, V>, V> fn) {
+		return reduce(fn, null);
+	}
+
+	/**
+	 * Create a new {@link Stream} that is linked to the parent through the given {@code key} and {@link Observable}.
+	 * When the parent's {@link #accept(Object)} is invoked, its value is wrapped into an {@link Event} and passed to
+	 * {@link Observable#notify (reactor.Event.wrap)} along with the given {@code key}. After the event is being propagated
+	 * to the reactor consumers, the new composition expects {@param <V>} replies to be returned.
+	 *
+	 * @param key        The key to notify
+	 * @param observable The observable to notify
+	 * @param <V>        The type of the object returned by reactor reply.
+	 * @return The new {@link Stream}.
+	 */
+	public <V> Stream<V> map(final Object key, final Observable observable) {
+		Assert.notNull(observable);
+		final Stream<V> c = (Stream<V>) this.<V>assignComposable(observable);
+		c.setExpectedAcceptCount(-1);
+		final Object replyTo = new Object();
+
+		observable.on($(replyTo), new Consumer<Event<V>>() {
+			@Override
+			public void accept(Event<V> event) {
+				try {
+					c.accept(event.getData());
+				} catch (Throwable t) {
+					handleError(c, t);
+				}
+			}
+		});
+
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				try {
+					Event<?> event = Event.class.isAssignableFrom(value.getClass()) ? (Event<?>) value : Event.wrap(value);
+					event.setReplyTo(replyTo);
+					observable.send(key, event);
+				} catch (Throwable t) {
+					handleError(c, t);
+				}
+			}
+		});
+
+		return c;
+	}
+
+	/**
+	 * Create a new {@link Stream} that passes on the values and errors of the {@link Composable} returned by {@code fn}
+	 * for each value of this {@link Stream}. No more than {@code maxConcurrency} of those composables are listened to at
+	 * a time: values that arrive while that many are still running are queued until one of them completes, and only
+	 * {@code maxConcurrency} values, then one more each time a composable completes, are requested from this {@link
+	 * Stream}. The values of different composables are passed on as they arrive, so they may interleave. The new {@link
+	 * Stream} completes once this one and every composable it has started have completed; a {@link Stream} returned by
+	 * {@code fn} must therefore have a known number of values.
+	 *
+	 * @param fn             The function that starts the work for a value.
+	 * @param maxConcurrency The maximum number of composables listened to at a time.
+	 * @param <V>            The type of the values of the composables.
+	 * @return The new {@link Stream}.
+	 */
+	public <V> Stream<V> flatMap(final Function<T, ? extends Composable<V>> fn, final int maxConcurrency) {
+		Assert.notNull(fn);
+		Assert.isTrue(maxConcurrency > 0, "Max concurrency must be greater than zero.");
+		final Stream<V> c = createBatchStream();
+		c.upstreamDemand = Demand.PREFETCHED;
+		final FlatMap<T, V> flatMap = new FlatMap<T, V>(this, c, fn, maxConcurrency);
+
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				flatMap.offer(value);
+			}
+		});
+		when(lastSelector, new Consumer<T>() {
+			@Override
+			public void accept(T t) {
+				flatMap.complete();
+			}
+		});
+		forwardError(c);
+		request(maxConcurrency);
+
+		return c;
+	}
+
+	/**
+	 * Create a new {@link Stream} of {@link GroupedStream groups} of the values of this {@link Stream}, one for each key
+	 * returned by {@code fn}. Each key is pinned to one of the {@link Environment#getParallelDispatchers(int) event
+	 * loops} of the {@link Environment}, which accepts all the values of its group, so the consumers of a group are never
+	 * invoked concurrently. A group is passed on by the event loop of its key, before its first value, and completes when
+	 * this {@link Stream} does.
+	 *
+	 * @param fn  The function that returns the key of a value.
+	 * @param <K> The type of the key.
+	 * @return The new {@link Stream}.
+	 */
+	public <K> Stream<GroupedStream<K, T>> groupBy(Function<T, K> fn) {
+		return groupBy(fn, 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Create a new {@link Stream} of {@link GroupedStream groups} of the values of this {@link Stream}, as {@link
+	 * #groupBy(Function)} does, where a group that accepts no value for {@code idleTimeout} is completed and forgotten.
+	 * A value with the same key that arrives afterwards starts a new group.
+	 *
+	 * @param fn          The function that returns the key of a value.
+	 * @param idleTimeout The time after which a group that accepts no value is completed, or 0 to keep groups until this
+	 *                    {@link Stream} completes.
+	 * @param unit        The unit of {@code idleTimeout}.
+	 * @param <K>         The type of the key.
+	 * @return The new {@link Stream}.
+	 */
+	public <K> Stream<GroupedStream<K, T>> groupBy(final Function<T, K> fn, long idleTimeout, TimeUnit unit) {
+		Assert.notNull(fn);
+		Assert.isTrue(idleTimeout >= 0, "Idle timeout must not be negative.");
+		final Stream<GroupedStream<K, T>> c = createBatchStream();
+		final GroupBy<K, T> groupBy =
+				new GroupBy<K, T>(getEnvironment(), c, createRails(Environment.PROCESSORS), unit.toNanos(idleTimeout));
+
+		link(c, new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				K key;
+				try {
+					key = fn.apply(value);
+				} catch (Throwable t) {
+					c.notifyError(t);
+					return;
+				}
+				groupBy.route(key, value);
+			}
+		});
+		c.cancelWith(when(lastSelector, new Consumer<T>() {
+			@Override
+			public void accept(T t) {
+				groupBy.complete();
+			}
+		}));
+		forwardError(c);
+
+		if (idleTimeout > 0) {
+			// cancelled with the stream of groups, so that neither the sweeper nor the groups outlive it
+			groupBy.sweeper = scheduleTicks(c, new Runnable() {
+				@Override
+				public void run() {
+					groupBy.expireIdleGroups();
+				}
+			}, idleTimeout, unit);
+		}
+
+		return c;
+	}
+
+	/**
+	 * Signal that the consumers of this {@link Stream} can take {@code n} more values. The demand travels up to the
+	 * {@link Stream} this one has been derived from and, eventually, to the source, which emits no more values than have
+	 * been requested when it has been built with {@link Spec#backpressure(int)}. Sources that have not been built that
+	 * way push their values regardless of demand.
+	 *
+	 * @param n The number of additional values that can be taken. {@link Long#MAX_VALUE} means no limit.
+	 * @return {@literal this}
+	 */
+	public Stream<T> request(long n) {
+		Assert.isTrue(n > 0, "Demand must be greater than zero.");
+		Future<?> upstream = getUpstream();
+		if (upstream instanceof Stream && upstreamDemand != Demand.PREFETCHED) {
+			((Stream<?>) upstream).request(upstreamDemand == Demand.UNBOUNDED ? Long.MAX_VALUE : n);
+		}
+		return this;
+	}
+
+	/**
+	 * Indicates whether this {@link Stream} emits no more values than are {@link #request(long) requested}, which is the
+	 * case when each demand travels unchanged up to a source built with {@link Spec#backpressure(int)}.
+	 *
+	 * @return {@literal true} if the demand is honoured, {@literal false} if values are pushed regardless.
+	 */
+	protected boolean honoursDemand() {
+		Future<?> upstream = getUpstream();
+		return upstream instanceof Stream && upstreamDemand == Demand.AS_REQUESTED
+				&& ((Stream<?>) upstream).honoursDemand();
+	}
+
+	/**
+	 * Make the source of this {@link Stream}, if it is a {@link Stream} of a known set of values that has not started
+	 * emitting them, iterate them only as they are {@link #request(long) requested}, so that this {@link Stream} {@link
+	 * #honoursDemand() honours demand}. The source then goes at that pace for its other consumers too.
+	 */
+	protected void iterateOnRequest() {
+		Future<?> upstream = getUpstream();
+		if (upstream instanceof Stream && upstreamDemand == Demand.AS_REQUESTED) {
+			((Stream<?>) upstream).iterateOnRequest();
+		}
+	}
+
+	/**
+	 * Share the values of this {@link Stream}, from now on, with the consumers of a {@link Multicast}, which go through a
+	 * single registration on this {@link Stream} whatever their number. Consumers invoked by another {@link Dispatcher}
+	 * that fall more than {@code maxLag} values behind are dropped.
+	 *
+	 * @param maxLag The number of values a consumer can fall behind.
+	 * @return The new {@link Multicast}.
+	 */
+	public Multicast<T> publish(int maxLag) {
+		return replay(0, maxLag, Multicast.Overflow.DROP);
+	}
+
+	/**
+	 * Share the values of this {@link Stream}, from now on, with the consumers of a {@link Multicast}, which go through a
+	 * single registration on this {@link Stream} whatever their number. The last {@code history} values are kept and
+	 * passed to each consumer when it joins, before the values that follow. The completion or error of this {@link
+	 * Stream} is passed on to each {@link Multicast.Subscription} after its values.
+	 *
+	 * @param history  The number of values passed to a consumer when it joins.
+	 * @param maxLag   The number of values a consumer can fall behind, which cannot be less than {@code history}.
+	 * @param overflow What happens to a consumer that falls further behind.
+	 * @return The new {@link Multicast}.
+	 */
+	public Multicast<T> replay(int history, int maxLag, Multicast.Overflow overflow) {
+		final Multicast<T> multicast = new Multicast<T>(getEnvironment(), history, maxLag, overflow);
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				multicast.add(value);
+			}
+		});
+		when(lastSelector, new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				multicast.complete();
+			}
+		});
+		when(Throwable.class, new Consumer<Throwable>() {
+			@Override
+			public void accept(Throwable t) {
+				multicast.error(t);
+			}
+		});
+		return multicast;
+	}
+
+	/**
+	 * Create a new {@link Stream} whose consumers are invoked by the given {@link Dispatcher}, with no more than {@code
+	 * bufferSize} values waiting to be processed by it. The new {@link Stream} requests {@code bufferSize} values from
+	 * this one, and one more each time a value has been processed, so that a source built with {@link
+	 * Spec#backpressure(int)} goes at the pace of the consumers. This {@link Stream} is never blocked: a value pushed
+	 * regardless of demand while {@code bufferSize} values are already waiting makes the new {@link Stream} fail with an
+	 * {@link IllegalStateException}.
+	 *
+	 * @param dispatcher The {@link Dispatcher} to invoke the consumers of the new {@link Stream} with.
+	 * @param bufferSize The maximum number of values waiting to be processed.
+	 * @return The new {@link Stream}.
+	 * @see #dispatchOn(Dispatcher, int, Overflow)
+	 */
+	public Stream<T> dispatchOn(Dispatcher dispatcher, int bufferSize) {
+		return dispatchOn(dispatcher, bufferSize, Overflow.FAIL);
+	}
+
+	/**
+	 * Create a new {@link Stream} whose consumers are invoked by the given {@link Dispatcher}, with no more than {@code
+	 * bufferSize} values waiting to be processed by it. The new {@link Stream} requests {@code bufferSize} values from
+	 * this one, and one more each time a value has been processed, so that a source built with {@link
+	 * Spec#backpressure(int)} goes at the pace of the consumers. This {@link Stream} is never blocked, and {@code
+	 * overflow} decides what happens to a value pushed regardless of demand while {@code bufferSize} values are already
+	 * waiting.
+	 *
+	 * @param dispatcher The {@link Dispatcher} to invoke the consumers of the new {@link Stream} with.
+	 * @param bufferSize The maximum number of values waiting to be processed.
+	 * @param overflow   What to do with a value accepted while {@code bufferSize} values are waiting.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<T> dispatchOn(Dispatcher dispatcher, final int bufferSize, final Overflow overflow) {
+		Assert.notNull(dispatcher, "Dispatcher cannot be null.");
+		Assert.isTrue(bufferSize > 0, "Buffer size must be greater than zero.");
+		Assert.notNull(overflow, "Overflow cannot be null.");
+		final Stream<T> c = (Stream<T>) this.<T>assignComposable(getObservable());
+		c.upstreamDemand = Demand.PREFETCHED;
+
+		final Reactor handOff = Reactors.reactor().using(getEnvironment()).using(dispatcher).get();
+		final Queue<T> waiting = new ConcurrentLinkedQueue<T>();
+		final AtomicInteger size = new AtomicInteger();
+		// one task is scheduled per value added, so a task that finds the queue empty lost a dropped value or its turn
+		final Consumer<Void> deliver = new Consumer<Void>() {
+			@Override
+			public void accept(Void v) {
+				T value = waiting.poll();
+				if (null == value) {
+					return;
+				}
+				size.decrementAndGet();
+				try {
+					c.accept(value);
+				} finally {
+					request(1);
+				}
+			}
+		};
+
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				while (size.incrementAndGet() > bufferSize) {
+					size.decrementAndGet();
+					switch (overflow) {
+						case DROP_LATEST:
+							return;
+						case DROP_OLDEST:
+							if (null != waiting.poll()) {
+								size.decrementAndGet();
+							}
+							break;
+						default:
+							handleError(c, new IllegalStateException(
+									"Dispatch buffer of " + bufferSize + " values is full."));
+							return;
+					}
+				}
+				waiting.add(value);
+				Functions.schedule(deliver, null, handOff);
+			}
+		});
+		request(bufferSize);
+
+		return c;
+	}
+
+	/**
+	 * Create a new {@link Stream} whose values are spread across {@code n} {@link Environment#getParallelDispatchers(int)
+	 * event loops}, in turn, so that the operators applied to the new {@link Stream} run concurrently. The values reach
+	 * the consumers of those operators on whichever event loop they have been processed by, in no particular order. Each
+	 * {@link Stream} downstream only signals its last value once every value has been passed to its consumers, so that
+	 * reductions such as {@link #reduce(Function, Object)} see all the results.
+	 *
+	 * @param n The number of event loops to spread the values across.
+	 * @return The new {@link Stream}.
+	 */
+	public Stream<T> parallel(int n) {
+		final Reactor[] rails = createRails(n);
+		final Stream<T> c = (Stream<T>) this.<T>assignComposable(getObservable());
+		final AtomicLong next = new AtomicLong();
+		final Consumer<T> deliver = new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				c.accept(value);
+			}
+		};
+
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				Functions.schedule(deliver, value, rails[(int) (next.getAndIncrement() % rails.length)]);
+			}
+		});
+
+		return c;
+	}
+
+	/**
+	 * Create a new {@link Stream} that is linked to the parent through the given {@link Function}, which is applied to
+	 * the values of the parent concurrently on {@code n} {@link Environment#getParallelDispatchers(int) event loops}.
+	 * When {@code ordered} is {@literal true}, each value is numbered as it is spread and the results are held back in a
+	 * reorder buffer until those of every preceding value have been passed on, so that they are passed on in the order of
+	 * the parent's values.
+	 *
+	 * @param n       The number of event loops to apply the function on.
+	 * @param ordered Whether the results must be passed on in the order of the parent's values.
+	 * @param fn      The transformation function to apply.
+	 * @param <V>     The type of the object returned by the given {@link Function}.
+	 * @return The new {@link Stream}.
+	 */
+	public <V> Stream<V> parallel(int n, boolean ordered, final Function<T, V> fn) {
+		Assert.notNull(fn);
+		if (!ordered) {
+			return parallel(n).map(fn);
+		}
+
+		final Reactor[] rails = createRails(n);
+		final Stream<V> c = (Stream<V>) this.<V>assignComposable(getObservable());
+		final ReorderBuffer<V> reorderBuffer = new ReorderBuffer<V>(c);
+		final AtomicLong next = new AtomicLong();
+		final Consumer<Tuple2<Long, T>> apply = new Consumer<Tuple2<Long, T>>() {
+			@Override
+			public void accept(Tuple2<Long, T> sequencedValue) {
+				Object result;
+				try {
+					result = fn.apply(sequencedValue.getT2());
+				} catch (Throwable t) {
+					result = new ReorderBuffer.Failure(t);
+				}
+				reorderBuffer.put(sequencedValue.getT1(), result);
+			}
+		};
+
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				long sequence = next.getAndIncrement();
+				Functions.schedule(apply, Tuple.of(sequence, value), rails[(int) (sequence % rails.length)]);
+			}
+		});
+
+		return c;
+	}
+
+	@Override
+	public Stream<T> cancelWith(Registration<?> registration) {
+		return (Stream<T>) super.cancelWith(registration);
+	}
+
+	@Override
+	public <E extends Throwable> Stream<T> when(Class<E> exceptionType, Consumer<E> onError) {
+		return (Stream<T>) super.when(exceptionType, onError);
+	}
+
+	@Override
+	public Stream<T> consume(Consumer<T> consumer) {
+		return (Stream<T>) super.consume(consumer);
+	}
+
+	@Override
+	public Stream<T> consume(Object key, Observable observable) {
+		return (Stream<T>) super.consume(key, observable);
+	}
+
+	@Override
+	public Stream<T> consume(Composable<T> composable) {
+		return (Stream<T>) super.consume(composable);
+	}
+
+	@Override
+	public <V> Stream<V> map(Function<T, V> fn) {
+		return (Stream<V>) super.map(fn);
+	}
+
+	@Override
+	public Stream<T> filter(Function<T, Boolean> fn) {
+		return (Stream<T>) super.filter(fn);
+	}
+
+	@Override
+	protected void internalAccept(T value) {
+		Event<T> ev = Event.wrap(value);
+		// the count returned when the value is set decides what this value is, so that values accepted on several
+		// threads are processed concurrently by the stages downstream without being miscounted
+		long count = setValue(value);
+		long expected = getExpectedAcceptCount();
+
+		if (isError() || (expected >= 0 && count >= expected)) {
+			signalWaiters();
+		}
+		if (expected < 0 || count <= expected) {
+			notifyAccept(ev);
+		}
+		// the last value is only signalled by the thread that finishes passing on the last value, whichever value it
+		// is, so that the consumers of the last event have seen every value even when they are passed on concurrently
+		long done = delivered.incrementAndGet();
+		if (isError() || (expected >= 0 && done >= expected)) {
+			notifyLast(ev);
+		}
+		if (count == 1) {
+			notifyFirst(ev);
+		}
+	}
+
+	@Override
+	protected <U> Future<U> createFuture(Observable src) {
+		return new Stream<U>(getEnvironment(), createObservable(src));
+	}
+
+
+	/**
+	 * Create a {@link Stream} that passes on the result of the given {@link Accumulator} once all the values of this
+	 * {@link Stream} have been added to it or, if their number is unknown, after each value.
+	 */
+	private <V> Stream<V> reduceNumbers(final Accumulator<T, V> accumulator) {
+		final Stream<V> c = (Stream<V>) this.<V>assignComposable(getObservable());
+		final long _expectedAcceptCount = getExpectedAcceptCount();
+
+		c.setExpectedAcceptCount(_expectedAcceptCount < 0 ? _expectedAcceptCount : 1);
+		if (_expectedAcceptCount >= 0) {
+			c.upstreamDemand = Demand.UNBOUNDED;
+			when(lastSelector, new Consumer<T>() {
+				@Override
+				public void accept(T t) {
+					c.accept(accumulator.result());
+				}
+			});
+		}
+
+		consume(new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				try {
+					accumulator.add(value);
+					if (_expectedAcceptCount < 0) {
+						c.accept(accumulator.result());
+					}
+				} catch (Throwable t) {
+					handleError(c, t);
+				}
+			}
+		});
+		forwardError(c);
+		return c;
+	}
+
+	private <V> Stream<V> createBatchStream() {
+		final Stream<V> c = (Stream<V>) this.<V>assignComposable(getObservable());
+		c.doSetExpectedAcceptCount(-1);
+		c.upstreamDemand = Demand.UNBOUNDED;
+		return c;
+	}
+
+	private static <T> Consumer<List<T>> batchConsumer(final Stream<List<T>> c) {
+		return new Consumer<List<T>>() {
+			@Override
+			public void accept(List<T> values) {
+				c.accept(values);
+			}
+		};
+	}
+
+	private void batch(final Stream<List<T>> c, final Batcher<T> batcher, final ScheduledFuture<?> ticks) {
+		link(c, new Consumer<T>() {
+			@Override
+			public void accept(T value) {
+				batcher.add(value);
+			}
+		});
+		c.cancelWith(when(lastSelector, new Consumer<T>() {
+			@Override
+			public void accept(T t) {
+				if (null != ticks) {
+					ticks.cancel(false);
+				}
+				batcher.flush();
+				c.setExpectedAcceptCount(batcher.getEmittedCount());
+			}
+		}));
+		forwardError(c);
+	}
+
+	/*
+	 * Runs task every period on the shared timer until the returned future is cancelled or c is cancelled, so that a
+	 * Stream nobody listens to any more stops ticking.
+	 */
+	private ScheduledFuture<?> scheduleTicks(Stream<?> c, Runnable task, long period, TimeUnit unit) {
+		ScheduledFuture<?> ticks = getTimer().scheduleAtFixedRate(task, period, period, unit);
+		c.cancelWith(new TimerRegistration(ticks));
+		return ticks;
+	}
+
+	private Reactor[] createRails(int n) {
+		Assert.isTrue(n > 0, "The number of event loops must be greater than zero.");
+		Assert.notNull(getEnvironment(), "Cannot run in parallel without a properly-configured Environment.");
+		List<Dispatcher> dispatchers = getEnvironment().getParallelDispatchers(n);
+		Reactor[] rails = new Reactor[n];
+		for (int i = 0; i < n; i++) {
+			rails[i] = Reactors.reactor().using(getEnvironment()).using(dispatchers.get(i)).get();
+		}
+		return rails;
+	}
+
+	@Override
+	protected boolean hasConsumers() {
+		return super.hasConsumers() || getObservable().respondsToKey(firstKey) || getObservable().respondsToKey(lastKey);
+	}
+
+	protected final void notifyFirst(Event<?> event) {
+		getObservable().notify(firstKey, event);
+	}
+
+	protected final void notifyLast(Event<?> event) {
+		getObservable().notify(lastKey, event);
+	}
+
+	@Override
+	protected void valueDropped() {
+		request(1);
+	}
+
+	/**
+	 * Pass on values made of the values of the given streams, as described by the {@code mode}. Each stream puts its
+	 * values in a queue of its own and a single drain loop, run by whichever thread finds it idle, takes them from the
+	 * queues and passes them on, so that values are passed on one at a time and with no lock.
+	 *
+	 * @param streams       The streams to join.
+	 * @param mode          How their values are joined.
+	 * @param zipBufferSize The number of values each stream can have waiting when zipped, that it is {@link
+	 *                      #request(long) asked} for up front.
+	 * @param zipOverflow   What to do with a value of a zipped stream that pushes its values regardless of demand,
+	 *                      accepted while {@code zipBufferSize} of them are waiting.
+	 * @return {@literal this}
+	 */
+	@SuppressWarnings("unchecked")
+	protected Stream<T> join(Collection<? extends Stream<?>> streams, JoinMode mode, int zipBufferSize,
+	                         Overflow zipOverflow) {
+		Assert.isTrue(zipBufferSize > 0, "Buffer size must be greater than zero.");
+		Assert.notNull(zipOverflow, "Overflow cannot be null.");
+		final Junction junction;
+		switch (mode) {
+			case ZIP:
+				junction = new Zip((Stream<Object>) this, streams.size(), zipBufferSize, zipOverflow);
+				break;
+			case COMBINE_LATEST:
+				junction = new CombineLatest((Stream<Object>) this, streams.size());
+				break;
+			default:
+				junction = new Merge((Stream<Object>) this, streams.size());
+		}
+		int index = 0;
+		for (Stream<?> s : streams) {
+			junction.connect(index++, (Stream<Object>) s);
+		}
+		return this;
+	}
+
+	/**
+	 * What a {@link Stream} built with {@link Spec#backpressure(int, Overflow) backpressure} does with a value accepted
+	 * while its buffer is full.
+	 */
+	public static enum Overflow {
+		/**
+		 * The {@link Stream} fails with an {@link IllegalStateException}.
+		 */
+		FAIL,
+		/**
+		 * The value is dropped.
+		 */
+		DROP_LATEST,
+		/**
+		 * The oldest buffered value is dropped to make room for it.
+		 */
+		DROP_OLDEST
+	}
+
+	/**
+	 * Build a {@link Stream} based on the given values, {@link Dispatcher dispatcher}, and {@link Reactor reactor}.
+	 *
+	 * @param <T> The type of the values.
+	 */
+	public static class Spec<T> extends ComponentSpec<Spec<T>, Stream<T>> {
+
+		protected final Iterable<T>                     values;
+		protected final Collection<? extends Stream<?>> joinWith;
+		protected final JoinMode                        joinMode;
+		protected       boolean                         fused;
+		protected       int                             bufferSize;
+		protected       Overflow                        overflow;
+		protected       int                             chunkSize;
+
+		public Spec(Iterable<T> values) {
+			this.values = values;
+			this.joinWith = null;
+			this.joinMode = null;
+		}
+
+		Spec(Collection<? extends Stream<?>> streams, JoinMode joinMode) {
+			Assert.notEmpty(streams, "There must be at least one Stream to join.");
+			this.values = null;
+			this.joinWith = streams;
+			this.joinMode = joinMode;
+		}
+
+		/**
+		 * Fuse the operators applied to the {@link Stream}: values are dispatched once, by the {@link Stream} being built,
+		 * and then pass through every derived {@link Stream} by direct calls on the same thread rather than through a
+		 * {@link Reactor} per operator. Long chains of operators therefore use the stack of that thread.
+		 *
+		 * @return {@literal this}
+		 */
+		public Spec<T> fused() {
+			this.fused = true;
+			return this;
+		}
+
+		/**
+		 * Make the {@link Stream} being built emit values only as they are {@link Stream#request(long) requested}, starting
+		 * with no demand at all. Values given to {@link Stream#accept(Object)} before they have been requested are held in
+		 * a buffer of {@code bufferSize} values. {@link Stream#accept(Object)} never blocks: a value accepted while the
+		 * buffer is full makes the {@link Stream} fail with an {@link IllegalStateException}, so a producer that does not
+		 * keep to the demand finds out rather than stalling the thread it runs on.
+		 *
+		 * @param bufferSize The number of accepted values that can wait for demand.
+		 * @return {@literal this}
+		 * @see #backpressure(int, Overflow)
+		 */
+		public Spec<T> backpressure(int bufferSize) {
+			return backpressure(bufferSize, Overflow.FAIL);
+		}
+
+		/**
+		 * Make the {@link Stream} being built emit values only as they are {@link Stream#request(long) requested}, starting
+		 * with no demand at all. Values given to {@link Stream#accept(Object)} before they have been requested are held in
+		 * a buffer of {@code bufferSize} values, and {@code overflow} decides what happens to a value accepted while it is
+		 * full.
+		 *
+		 * @param bufferSize The number of accepted values that can wait for demand.
+		 * @param overflow   What to do with a value accepted while the buffer is full.
+		 * @return {@literal this}
+		 */
+		public Spec<T> backpressure(int bufferSize, Overflow overflow) {
+			Assert.isTrue(bufferSize > 0, "Buffer size must be greater than zero.");
+			Assert.notNull(overflow, "Overflow cannot be null.");
+			this.bufferSize = bufferSize;
+			this.overflow = overflow;
+			return this;
+		}
+
+		/**
+		 * Make the {@link Stream} being built pull its values from their {@link Iterator} {@code chunkSize} at a time,
+		 * handing the rest of the iteration back to its {@link Dispatcher} between chunks rather than emitting every value
+		 * from the thread that triggered it. Iteration stops once the {@link Stream} is {@link Stream#cancel() cancelled}
+		 * and, with {@link #backpressure(int)}, whenever there is no outstanding demand, so large or generated {@link
+		 * Iterable Iterables} are only read as fast as they are consumed.
+		 *
+		 * @param chunkSize The number of values to emit before yielding to the {@link Dispatcher}.
+		 * @return {@literal this}
+		 */
+		public Spec<T> chunked(int chunkSize) {
+			Assert.isTrue(chunkSize > 0, "Chunk size must be greater than zero.");
+			this.chunkSize = chunkSize;
+			return this;
+		}
+
+		@Override
+		protected Stream<T> configure(final Reactor reactor) {
+
+			final DeferredStream<T> comp;
+			if (values != null) {
+				comp = new DeferredStream<T>(env, reactor, values);
+			} else if (joinWith != null) {
+				comp = new DeferredStream<T>(env, reactor, -1) {
+					@Override
+					protected void delayedAccept() {
+						// like a derived Stream, the joined one makes the values of its sources available when asked for its own
+						for (Stream<?> s : joinWith) {
+							if (s instanceof DeferredStream) {
+								((DeferredStream<?>) s).delayedAccept();
+							}
+						}
+					}
+				};
+				int zipBufferSize = (null != env ? env.getProperty("reactor.zip.bufferSize", Integer.class, 256) : 256);
+				Overflow zipOverflow = Overflow.valueOf(null != env ? env.getProperty("reactor.zip.overflow", "FAIL") : "FAIL");
+				comp.join(joinWith, joinMode, zipBufferSize, zipOverflow);
+			} else {
+				comp = new DeferredStream<T>(env, reactor, -1);
+			}
+			if (fused) {
+				comp.fuse();
+			}
+			if (bufferSize > 0) {
+				comp.enableBackpressure(bufferSize, overflow);
+			}
+			if (chunkSize > 0) {
+				comp.enableChunking(chunkSize);
+			}
+			return comp;
+		}
+	}
+
+	protected static class DeferredStream<T> extends Stream<T> {
+		private final Object        stateMonitor = new Object();
+		private final AtomicInteger draining     = new AtomicInteger();
+		protected final Iterable<T> values;
+		protected AcceptState acceptState = AcceptState.DELAYED;
+
+		private          AtomicLong        requested;
+		private          BlockingQueue<T>  buffer;
+		private          int               bufferSize;
+		private          Overflow          overflow;
+		private          int               chunkSize;
+		private          Consumer<Void>    nextChunk;
+		private volatile Iterator<T>       pending;
+		private          DeferredStream<?> errorSource;
+
+		protected DeferredStream(Environment env, Observable src, Iterable<T> values) {
+			super(env, src);
+			this.values = values;
+			if (values instanceof Collection) {
+				setExpectedAcceptCount((((Collection<?>) values).size()));
+			}
+		}
+
+		protected DeferredStream(Environment env, Observable src, long length) {
+			super(env, src);
+			this.values = null;
+			setExpectedAcceptCount(length);
+		}
+
+		@Override
+		public void accept(Throwable error) {
+			setError(error);
+			notifyError(error);
+		}
+
+		private void acceptValues(Iterable<T> values) {
+			if (null != requested || chunkSize > 0) {
+				pending = values.iterator();
+				drain();
+				return;
+			}
+			Iterator<T> it = values.iterator();
+			while (!isCancelled() && it.hasNext()) {
+				internalAccept(it.next());
+			}
+		}
+
+		private void acceptValue(T value) {
+			if (null == requested) {
+				internalAccept(value);
+				return;
+			}
+			if (!buffer.offer(value)) {
+				switch (overflow) {
+					case DROP_LATEST:
+						return;
+					case DROP_OLDEST:
+						while (!buffer.offer(value)) {
+							buffer.poll();
+						}
+						break;
+					default:
+						accept(new IllegalStateException("Backpressure buffer of " + bufferSize + " values is full."));
+						return;
+				}
+			}
+			drain();
+		}
+
+		@Override
+		protected boolean honoursDemand() {
+			return null != requested || super.honoursDemand();
+		}
+
+		@Override
+		protected void iterateOnRequest() {
+			if (null == values) {
+				super.iterateOnRequest();
+				return;
+			}
+			synchronized (stateMonitor) {
+				// values that are being, or have been, emitted already went out regardless of demand
+				if (acceptState == AcceptState.DELAYED && null == requested) {
+					requested = new AtomicLong();
+				}
+			}
+		}
+
+		protected final void enableBackpressure(int bufferSize, Overflow overflow) {
+			this.requested = new AtomicLong();
+			this.buffer = new ArrayBlockingQueue<T>(bufferSize);
+			this.bufferSize = bufferSize;
+			this.overflow = overflow;
+		}
+
+		protected final void enableChunking(int chunkSize) {
+			this.chunkSize = chunkSize;
+			this.nextChunk = new Consumer<Void>() {
+				@Override
+				public void accept(Void v) {
+					drain();
+				}
+			};
+		}
+
+		@Override
+		public Stream<T> request(long n) {
+			if (null == requested) {
+				return super.request(n);
+			}
+			Assert.isTrue(n > 0, "Demand must be greater than zero.");
+			for (; ; ) {
+				long current = requested.get();
+				long next = current + n;
+				if (next < 0 || current == Long.MAX_VALUE) {
+					next = Long.MAX_VALUE;
+				}
+				if (requested.compareAndSet(current, next)) {
+					break;
+				}
+			}
+			drain();
+			return this;
+		}
+
+		/*
+		 * Emits pending values for as long as there is demand, which is unbounded without backpressure. Only one thread
+		 * drains at a time; a thread that finds another one draining leaves it a note to have another go before it stops.
+		 * When chunked, the draining thread stops after a chunk and leaves the rest to a task on the dispatcher. Draining
+		 * stops once this stream is cancelled, which it also is when the streams taking its values downstream are.
+		 */
+		private void drain() {
+			if (draining.getAndIncrement() != 0) {
+				return;
+			}
+			boolean yielding = chunkSize > 0 && !isSynchronous();
+			do {
+				long r;
+				int emitted = 0;
+				while ((r = (null == requested ? Long.MAX_VALUE : requested.get())) > 0 && !isCancelled()) {
+					T next;
+					Iterator<T> it = pending;
+					if (null != it && it.hasNext()) {
+						next = it.next();
+					} else if (null == buffer || null == (next = buffer.poll())) {
+						break;
+					}
+					if (r != Long.MAX_VALUE) {
+						requested.decrementAndGet();
+					}
+					internalAccept(next);
+					if (yielding && ++emitted == chunkSize) {
+						// notes left while this chunk was emitted are covered by the next one
+						draining.set(0);
+						if (!isCancelled()) {
+							Functions.schedule(nextChunk, null, getObservable());
+						}
+						return;
+					}
+				}
+			} while (draining.decrementAndGet() != 0);
+		}
+
+		/*
+		 * A synchronous dispatcher would run the next chunk on this thread's stack, so it is simply emitted in turn.
+		 */
+		private boolean isSynchronous() {
+			Observable observable = getObservable();
+			return !(observable instanceof Reactor)
+					|| ((Reactor) observable).getDispatcher() instanceof SynchronousDispatcher;
+		}
+
+		@Override
+		public void accept(T value) {
+			boolean init = false;
+
+			synchronized (this.stateMonitor) {
+				if (acceptState == AcceptState.DELAYED) {
+					acceptState = AcceptState.ACCEPTING;
+					init = true;
+				}
+			}
+
+			if (values != null) {
+				if (init) {
+					acceptValues(values);
+				}
+			} else {
+				acceptValue(value);
+			}
+
+			synchronized (this.stateMonitor) {
+				acceptState = AcceptState.ACCEPTED;
 			}
 
 		}
@@ -423,16 +1836,26 @@ public class Stream<T> extends Composable<T> {
 		protected <U> Stream<U> createFuture(Observable src) {
 			final DeferredStream<T> self = this;
 			final DeferredStream<U> c =
-					new DeferredStream<U>(getEnvironment(), createReactor(src), self.getExpectedAcceptCount()) {
+					new DeferredStream<U>(getEnvironment(), createObservable(src), self.getExpectedAcceptCount()) {
 						@Override
 						protected void delayedAccept() {
 							self.delayedAccept();
 						}
 					};
 			forwardError(c);
+			c.errorSource = self;
 			return c;
 		}
 
+		@Override
+		protected Composable<T> forwardError(Composable<?> composable) {
+			// a stream created by this one already has its errors, and operators that forward them too would repeat them
+			if (composable instanceof DeferredStream && ((DeferredStream<?>) composable).errorSource == this) {
+				return this;
+			}
+			return super.forwardError(composable);
+		}
+
 		protected void delayedAccept() {
 			doAccept(null, null, null);
 		}
@@ -446,11 +1869,9 @@ public class Stream<T> extends Composable<T> {
 					return;
 				} else if (acceptState == AcceptState.DELAYED) {
 					if (localError == null && localValue == null && localValues == null) {
-						synchronized (this.monitor) {
-							localError = getError();
-							localValue = getValue();
-							localValues = values;
-						}
+						localError = getError();
+						localValue = getValue();
+						localValues = values;
 					}
 					if (localError != null || localValue != null || localValues != null) {
 						acceptState = AcceptState.ACCEPTING;
@@ -488,4 +1909,814 @@ public class Stream<T> extends Composable<T> {
 		}
 	}
 
+	/**
+	 * Accumulates the values of a {@link Stream} into primitive state, so that adding a value allocates nothing. Values
+	 * may be added concurrently.
+	 */
+	private static abstract class Accumulator<T, V> {
+		abstract void add(T value);
+
+		abstract V result();
+	}
+
+	/**
+	 * Keeps the value that compares lowest or highest, comparing the values themselves so that neither fractions nor
+	 * large numbers are lost to a conversion.
+	 */
+	private static abstract class Extremum<T> extends Accumulator<T, T> {
+		private final AtomicReference<T> current = new AtomicReference<T>();
+
+		abstract boolean replaces(int comparison);
+
+		@Override
+		@SuppressWarnings("unchecked") // the values are documented to be comparable with each other
+		void add(T value) {
+			Comparable<Object> x = (Comparable<Object>) value;
+			for (; ; ) {
+				T c = current.get();
+				if ((null != c && !replaces(x.compareTo(c))) || current.compareAndSet(c, value)) {
+					break;
+				}
+			}
+		}
+
+		@Override
+		T result() {
+			return current.get();
+		}
+	}
+
+	/**
+	 * The single value a time-based operator holds until it is passed on. Newer values replace it without locking, and
+	 * it is taken on the timer thread then passed on by the {@link Dispatcher} of the source {@link Stream}.
+	 */
+	private static final class Latest<T> {
+		private static final Object EMPTY = new Object();
+
+		private final AtomicReference<Object> pending = new AtomicReference<Object>(EMPTY);
+		private final AtomicLong              emitted = new AtomicLong();
+		private final Stream<T>   target;
+		private final Observable  observable;
+		private final Consumer<T> emit;
+		private final Consumer<Object> last;
+
+		private Latest(final Stream<T> target, Observable observable) {
+			this.target = target;
+			this.observable = observable;
+			this.emit = new Consumer<T>() {
+				@Override
+				public void accept(T value) {
+					target.accept(value);
+				}
+			};
+			this.last = new Consumer<Object>() {
+				@SuppressWarnings("unchecked")
+				@Override
+				public void accept(Object value) {
+					if (value != EMPTY) {
+						target.accept((T) value);
+					}
+					target.setExpectedAcceptCount(emitted.get());
+				}
+			};
+		}
+
+		private void set(T value) {
+			pending.set(value);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void flush() {
+			if (pending.get() == EMPTY) {
+				return;
+			}
+			Object value = pending.getAndSet(EMPTY);
+			if (value != EMPTY) {
+				// counted when taken, so that a completion that follows counts it even before it is passed on
+				emitted.incrementAndGet();
+				Functions.schedule(emit, (T) value, observable);
+			}
+		}
+
+		/*
+		 * Passed on through the observable like the flushed values, so that it follows those still on their way.
+		 */
+		private void complete() {
+			Object value = pending.getAndSet(EMPTY);
+			if (value != EMPTY) {
+				emitted.incrementAndGet();
+			}
+			Functions.schedule(last, value, observable);
+		}
+	}
+
+	/**
+	 * A task on the shared timer, given to {@link Stream#cancelWith(Registration)} so that it stops when the {@link
+	 * Stream} it works for is cancelled. It is never selected, paused or resumed.
+	 */
+	private static final class TimerRegistration implements Registration<ScheduledFuture<?>> {
+		private final ScheduledFuture<?> task;
+
+		private TimerRegistration(ScheduledFuture<?> task) {
+			this.task = task;
+		}
+
+		@Override
+		public Selector getSelector() {
+			return null;
+		}
+
+		@Override
+		public ScheduledFuture<?> getObject() {
+			return task;
+		}
+
+		@Override
+		public Registration<ScheduledFuture<?>> cancelAfterUse() {
+			return this;
+		}
+
+		@Override
+		public boolean isCancelAfterUse() {
+			return false;
+		}
+
+		@Override
+		public Registration<ScheduledFuture<?>> cancel() {
+			task.cancel(false);
+			return this;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return task.isCancelled();
+		}
+
+		@Override
+		public Registration<ScheduledFuture<?>> pause() {
+			return this;
+		}
+
+		@Override
+		public boolean isPaused() {
+			return false;
+		}
+
+		@Override
+		public Registration<ScheduledFuture<?>> resume() {
+			return this;
+		}
+	}
+
+	/**
+	 * How the values of several streams are joined into those of a single {@link Stream}.
+	 */
+	enum JoinMode {
+		/**
+		 * Every value of each of them, as they come.
+		 */
+		MERGE,
+		/**
+		 * A tuple of the next value of each of them, until one of them is complete.
+		 */
+		ZIP,
+		/**
+		 * A tuple of the latest value of each of them, whenever one of them has a new value and they all have one.
+		 */
+		COMBINE_LATEST
+	}
+
+	/**
+	 * The values one of the streams joined by a {@link Junction} has passed on and that have not been drained yet. Any
+	 * number of threads can add values, and only the thread draining the {@link Junction} takes them. A value added while
+	 * the queue is full is rejected, or dropped as told by the {@link Overflow} of the queue.
+	 */
+	private static final class JoinQueue {
+		private final ConcurrentLinkedQueue<Object> values = new ConcurrentLinkedQueue<Object>();
+		private final AtomicInteger                 size   = new AtomicInteger();
+		private final int                           capacity;
+		private final Overflow                      overflow;
+
+		/*
+		 * The value at the head of the queue, taken out by the draining thread so that it cannot be dropped while it is
+		 * being paired.
+		 */
+		private Object head;
+
+		private JoinQueue(int capacity, Overflow overflow) {
+			this.capacity = capacity;
+			this.overflow = overflow;
+		}
+
+		/*
+		 * Returns false when the value has been rejected, and true when it has been queued or dropped.
+		 */
+		private boolean offer(Object value) {
+			if (capacity != Integer.MAX_VALUE) {
+				while (size.incrementAndGet() > capacity) {
+					size.decrementAndGet();
+					switch (overflow) {
+						case DROP_LATEST:
+							return true;
+						case DROP_OLDEST:
+							if (null != values.poll()) {
+								size.decrementAndGet();
+							}
+							break;
+						default:
+							return false;
+					}
+				}
+			}
+			values.offer(null == value ? Junction.NULL : value);
+			return true;
+		}
+
+		/*
+		 * Returns Junction.NULL for a null value and null when the queue is empty.
+		 */
+		private Object poll() {
+			Object value = head;
+			if (null != value) {
+				head = null;
+				return value;
+			}
+			value = values.poll();
+			if (null != value && capacity != Integer.MAX_VALUE) {
+				size.decrementAndGet();
+			}
+			return value;
+		}
+
+		/*
+		 * Returns the value the next poll() returns, without taking it.
+		 */
+		private Object peek() {
+			if (null == head) {
+				head = poll();
+			}
+			return head;
+		}
+
+		private boolean isEmpty() {
+			return null == head && values.isEmpty();
+		}
+	}
+
+	/**
+	 * Joins the values of several streams into those of a target {@link Stream}.
+	 */
+	private static abstract class Junction {
+		static final Object NULL = new Object();
+
+		final Stream<Object>     target;
+		final Stream<Object>[]   inputs;
+		final JoinQueue[]        queues;
+		final AtomicIntegerArray done;
+		final AtomicInteger      draining = new AtomicInteger();
+
+		/*
+		 * Only read and written by the thread draining the junction.
+		 */
+		private long    emitted;
+		private boolean completed;
+
+		@SuppressWarnings("unchecked")
+		Junction(Stream<Object> target, int size, int capacity, Overflow overflow) {
+			this.target = target;
+			this.inputs = (Stream<Object>[]) new Stream<?>[size];
+			this.queues = new JoinQueue[size];
+			this.done = new AtomicIntegerArray(size);
+			for (int i = 0; i < size; i++) {
+				queues[i] = new JoinQueue(capacity, overflow);
+			}
+		}
+
+		void connect(final int index, final Stream<Object> input) {
+			inputs[index] = input;
+			input.link(target, new Consumer<Object>() {
+				@Override
+				public void accept(Object value) {
+					if (queues[index].offer(value)) {
+						signal();
+					} else {
+						target.accept(new IllegalStateException(
+								"A joined Stream has more than " + queues[index].capacity + " values waiting."));
+						target.cancel();
+					}
+				}
+			});
+			target.cancelWith(input.when(input.lastSelector, new Consumer<Object>() {
+				@Override
+				public void accept(Object value) {
+					// set after the last value has been queued, so once it is seen the queue only shrinks
+					done.set(index, 1);
+					signal();
+				}
+			}));
+			input.forwardError(target);
+		}
+
+		/*
+		 * Only one thread drains at a time; a thread that finds another one draining leaves it a note to have another go
+		 * before it stops.
+		 */
+		final void signal() {
+			if (draining.getAndIncrement() != 0) {
+				return;
+			}
+			do {
+				if (!completed) {
+					drain();
+					if (isDone()) {
+						completed = true;
+						target.setExpectedAcceptCount(emitted);
+						target.cancel();
+					}
+				}
+			} while (draining.decrementAndGet() != 0);
+		}
+
+		/**
+		 * Pass on every value that can be made of those in the queues.
+		 */
+		abstract void drain();
+
+		/**
+		 * Whether no more values can be passed on.
+		 */
+		abstract boolean isDone();
+
+		final void emit(Object value) {
+			emitted++;
+			target.accept(value);
+		}
+
+		final boolean isDrained(int index) {
+			// the flag is read first: once set, an empty queue stays empty
+			return done.get(index) != 0 && queues[index].isEmpty();
+		}
+
+		final boolean allDrained() {
+			for (int i = 0; i < queues.length; i++) {
+				if (!isDrained(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		static Object unwrap(Object value) {
+			return value == NULL ? null : value;
+		}
+
+		static Tuple tuple(Object[] v) {
+			switch (v.length) {
+				case 1:
+					return Tuple.of(v[0]);
+				case 2:
+					return Tuple.of(v[0], v[1]);
+				case 3:
+					return Tuple.of(v[0], v[1], v[2]);
+				case 4:
+					return Tuple.of(v[0], v[1], v[2], v[3]);
+				case 5:
+					return Tuple.of(v[0], v[1], v[2], v[3], v[4]);
+				case 6:
+					return Tuple.of(v[0], v[1], v[2], v[3], v[4], v[5]);
+				case 7:
+					return Tuple.of(v[0], v[1], v[2], v[3], v[4], v[5], v[6]);
+				case 8:
+					return Tuple.of(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7]);
+				default:
+					return Tuple.of(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], Arrays.copyOfRange(v, 8, v.length));
+			}
+		}
+	}
+
+	private static final class Merge extends Junction {
+		private Merge(Stream<Object> target, int size) {
+			super(target, size, Integer.MAX_VALUE, Overflow.FAIL);
+		}
+
+		@Override
+		void drain() {
+			boolean progress;
+			do {
+				progress = false;
+				// one value from each queue in turn, so that a busy stream does not hold back the others
+				for (JoinQueue queue : queues) {
+					Object value = queue.poll();
+					if (null != value) {
+						progress = true;
+						emit(unwrap(value));
+					}
+				}
+			} while (progress);
+		}
+
+		@Override
+		boolean isDone() {
+			return allDrained();
+		}
+	}
+
+	private static final class Zip extends Junction {
+		private Zip(Stream<Object> target, int size, int capacity, Overflow overflow) {
+			super(target, size, capacity, overflow);
+		}
+
+		@Override
+		void connect(int index, Stream<Object> input) {
+			// known values are iterated as they are paired rather than all at once; other inputs that push their values
+			// regardless of demand are held to the capacity of their queue by its overflow policy
+			input.iterateOnRequest();
+			super.connect(index, input);
+			input.request(queues[index].capacity);
+		}
+
+		@Override
+		void drain() {
+			for (; ; ) {
+				for (JoinQueue queue : queues) {
+					if (queue.isEmpty()) {
+						return;
+					}
+				}
+				// the heads are only taken out once there is a tuple to make, as a dropped value may have made a queue empty
+				for (JoinQueue queue : queues) {
+					if (null == queue.peek()) {
+						return;
+					}
+				}
+				Object[] values = new Object[queues.length];
+				for (int i = 0; i < queues.length; i++) {
+					values[i] = unwrap(queues[i].poll());
+				}
+				emit(tuple(values));
+				for (Stream<Object> input : inputs) {
+					input.request(1);
+				}
+			}
+		}
+
+		@Override
+		boolean isDone() {
+			for (int i = 0; i < queues.length; i++) {
+				if (isDrained(i)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static final class CombineLatest extends Junction {
+		/*
+		 * Only read and written by the thread draining the junction.
+		 */
+		private final Object[]  latest;
+		private final boolean[] seen;
+		private       int       seenCount;
+
+		private CombineLatest(Stream<Object> target, int size) {
+			super(target, size, Integer.MAX_VALUE, Overflow.FAIL);
+			this.latest = new Object[size];
+			this.seen = new boolean[size];
+		}
+
+		@Override
+		void drain() {
+			boolean progress;
+			do {
+				progress = false;
+				for (int i = 0; i < queues.length; i++) {
+					Object value = queues[i].poll();
+					if (null == value) {
+						continue;
+					}
+					progress = true;
+					latest[i] = unwrap(value);
+					if (!seen[i]) {
+						seen[i] = true;
+						seenCount++;
+					}
+					if (seenCount == latest.length) {
+						emit(tuple(latest.clone()));
+					}
+				}
+			} while (progress);
+		}
+
+		@Override
+		boolean isDone() {
+			return allDrained();
+		}
+	}
+
+	/**
+	 * The state of a {@link Stream#flatMap(Function, int) flatMap}: the values waiting for a free slot and the number of
+	 * composables still running. Slots are claimed with a CAS, so values can be offered and composables can complete on
+	 * any thread.
+	 */
+	private static final class FlatMap<T, V> {
+		private static final Object NULL = new Object();
+
+		private final Stream<T>                            source;
+		private final Stream<V>                            target;
+		private final Function<T, ? extends Composable<V>> fn;
+		private final int                                  maxConcurrency;
+		private final ConcurrentLinkedQueue<Object>        pending = new ConcurrentLinkedQueue<Object>();
+		private final AtomicInteger                        active  = new AtomicInteger();
+		private final AtomicLong                           emitted = new AtomicLong();
+		private final AtomicBoolean                        done    = new AtomicBoolean();
+		private final Consumer<V>                          forward;
+		private volatile boolean                           sourceComplete;
+
+		private FlatMap(Stream<T> source, final Stream<V> target, Function<T, ? extends Composable<V>> fn,
+		                int maxConcurrency) {
+			this.source = source;
+			this.target = target;
+			this.fn = fn;
+			this.maxConcurrency = maxConcurrency;
+			this.forward = new Consumer<V>() {
+				@Override
+				public void accept(V value) {
+					emitted.incrementAndGet();
+					target.accept(value);
+				}
+			};
+		}
+
+		private void offer(T value) {
+			pending.offer(null == value ? NULL : value);
+			drain();
+		}
+
+		private void complete() {
+			sourceComplete = true;
+			checkComplete();
+		}
+
+		@SuppressWarnings("unchecked")
+		private void drain() {
+			for (; ; ) {
+				int a = active.get();
+				if (a >= maxConcurrency) {
+					return;
+				}
+				if (!active.compareAndSet(a, a + 1)) {
+					continue;
+				}
+				Object next = pending.poll();
+				if (null == next) {
+					active.decrementAndGet();
+					// a value offered after the poll but before the slot was given back may have found no free slot
+					if (pending.isEmpty()) {
+						checkComplete();
+						return;
+					}
+					continue;
+				}
+				start(next == NULL ? null : (T) next);
+			}
+		}
+
+		private void start(T value) {
+			Composable<V> inner;
+			try {
+				inner = fn.apply(value);
+			} catch (Throwable t) {
+				target.notifyError(t);
+				finished();
+				return;
+			}
+			if (null == inner) {
+				finished();
+				return;
+			}
+
+			final AtomicBoolean finished = new AtomicBoolean();
+			final Consumer<V> onComplete = new Consumer<V>() {
+				@Override
+				public void accept(V v) {
+					if (finished.compareAndSet(false, true)) {
+						finished();
+					}
+				}
+			};
+			inner.when(Throwable.class, new Consumer<Throwable>() {
+				@Override
+				public void accept(Throwable t) {
+					target.notifyError(t);
+					onComplete.accept(null);
+				}
+			});
+			inner.consume(forward);
+			if (inner instanceof Stream) {
+				Stream<V> s = (Stream<V>) inner;
+				s.when(s.lastSelector, onComplete);
+			} else {
+				inner.consume(onComplete);
+			}
+			if (inner instanceof DeferredStream) {
+				((DeferredStream<V>) inner).delayedAccept();
+			}
+		}
+
+		private void finished() {
+			active.decrementAndGet();
+			if (!sourceComplete) {
+				source.request(1);
+			}
+			drain();
+			checkComplete();
+		}
+
+		private void checkComplete() {
+			if (sourceComplete && active.get() == 0 && pending.isEmpty() && done.compareAndSet(false, true)) {
+				target.setExpectedAcceptCount(emitted.get());
+			}
+		}
+	}
+
+	/**
+	 * The groups of a {@link Stream#groupBy(Function, long, TimeUnit) groupBy}. The key of a value decides the event loop,
+	 * or lane, that it is handed to; a group is only ever created, fed, expired and completed on that lane, so the map of
+	 * groups has a single writer per key and the groups themselves need no locking.
+	 */
+	private static final class GroupBy<K, T> {
+		private static final Object NULL_KEY = new Object();
+
+		private final Environment                                     env;
+		private final Stream<GroupedStream<K, T>>                     target;
+		private final Reactor[]                                       lanes;
+		private final long                                            idleNanos;
+		private final NonBlockingHashMap<Object, GroupedStream<K, T>> groups  =
+				new NonBlockingHashMap<Object, GroupedStream<K, T>>();
+		private final AtomicLong                                      emitted = new AtomicLong();
+		private final AtomicInteger                                   lanesToComplete;
+		private final Consumer<Tuple2<K, T>>                          deliver;
+		private volatile ScheduledFuture<?>                           sweeper;
+
+		private GroupBy(Environment env, Stream<GroupedStream<K, T>> target, Reactor[] lanes, long idleNanos) {
+			this.env = env;
+			this.target = target;
+			this.lanes = lanes;
+			this.idleNanos = idleNanos;
+			this.lanesToComplete = new AtomicInteger(lanes.length);
+			this.deliver = new Consumer<Tuple2<K, T>>() {
+				@Override
+				public void accept(Tuple2<K, T> keyAndValue) {
+					deliver(keyAndValue.getT1(), keyAndValue.getT2());
+				}
+			};
+		}
+
+		private void route(K key, T value) {
+			Functions.schedule(deliver, Tuple.of(key, value), lanes[laneOf(key)]);
+		}
+
+		private int laneOf(K key) {
+			return ((null == key ? 0 : key.hashCode()) & Integer.MAX_VALUE) % lanes.length;
+		}
+
+		/*
+		 * Runs on the lane of the key.
+		 */
+		private void deliver(K key, T value) {
+			Object mapKey = (null == key ? NULL_KEY : key);
+			GroupedStream<K, T> group = groups.get(mapKey);
+			if (null == group) {
+				group = new GroupedStream<K, T>(env, Reactors.reactor().using(env).sync().get(), key, laneOf(key));
+				groups.put(mapKey, group);
+				emitted.incrementAndGet();
+				target.accept(group);
+			}
+			if (idleNanos > 0) {
+				group.lastValue = System.nanoTime();
+			}
+			group.accepted++;
+			group.accept(value);
+		}
+
+		/*
+		 * Runs on the timer: the groups that look idle are handed to their lane, which checks again before closing them
+		 * as a value may have arrived in the meantime.
+		 */
+		private void expireIdleGroups() {
+			long now = System.nanoTime();
+			for (final Map.Entry<Object, GroupedStream<K, T>> entry : groups.entrySet()) {
+				if (now - entry.getValue().lastValue < idleNanos) {
+					continue;
+				}
+				Functions.schedule(new Consumer<Object>() {
+					@Override
+					public void accept(Object o) {
+						GroupedStream<K, T> group = entry.getValue();
+						if (System.nanoTime() - group.lastValue >= idleNanos && groups.remove(entry.getKey(), group)) {
+							group.close();
+						}
+					}
+				}, null, lanes[entry.getValue().getLane()]);
+			}
+		}
+
+		/*
+		 * Closes the groups of each lane on that lane, after the values it has been handed already, and completes the
+		 * stream of groups once every lane has done so.
+		 */
+		private void complete() {
+			for (int i = 0; i < lanes.length; i++) {
+				final int lane = i;
+				Functions.schedule(new Consumer<Object>() {
+					@Override
+					public void accept(Object o) {
+						for (Map.Entry<Object, GroupedStream<K, T>> entry : groups.entrySet()) {
+							GroupedStream<K, T> group = entry.getValue();
+							if (group.getLane() == lane && groups.remove(entry.getKey(), group)) {
+								group.close();
+							}
+						}
+						if (lanesToComplete.decrementAndGet() == 0) {
+							ScheduledFuture<?> s = sweeper;
+							if (null != s) {
+								s.cancel(false);
+							}
+							target.setExpectedAcceptCount(emitted.get());
+						}
+					}
+				}, null, lanes[lane]);
+			}
+		}
+	}
+
+	/**
+	 * Passes on results, that may be put in any order, in the order of their sequence numbers. Whoever puts a result
+	 * becomes the one passing results on, unless another thread already is, in which case that thread picks it up.
+	 *
+	 * @param <V> The type of the results.
+	 */
+	private static final class ReorderBuffer<V> {
+		private static final Object NULL = new Object();
+
+		private final NonBlockingHashMapLong<Object> results  = new NonBlockingHashMapLong<Object>();
+		private final AtomicInteger                  draining = new AtomicInteger();
+		private final Stream<V>                      target;
+		private       long                           next     = 0;
+
+		private ReorderBuffer(Stream<V> target) {
+			this.target = target;
+		}
+
+		private void put(long sequence, Object result) {
+			results.put(sequence, null == result ? NULL : result);
+			drain();
+		}
+
+		@SuppressWarnings("unchecked")
+		private void drain() {
+			if (draining.getAndIncrement() != 0) {
+				return;
+			}
+			do {
+				Object result;
+				while (null != (result = results.remove(next))) {
+					next++;
+					if (result instanceof Failure) {
+						target.handleError(target, ((Failure) result).error);
+					} else {
+						target.accept(result == NULL ? null : (V) result);
+					}
+				}
+			} while (draining.decrementAndGet() != 0);
+		}
+
+		private static final class Failure {
+			private final Throwable error;
+
+			private Failure(Throwable error) {
+				this.error = error;
+			}
+		}
+	}
+
+	/**
+	 * How the demand signalled to a {@link Stream} is passed on to the {@link Stream} it has been derived from.
+	 */
+	private static enum Demand {
+		/**
+		 * Pass on the demand as it is.
+		 */
+		AS_REQUESTED,
+		/**
+		 * Request every value, as the {@link Stream} needs all of them to produce its own.
+		 */
+		UNBOUNDED,
+		/**
+		 * Keep the demand, the {@link Stream} requests values itself as it makes room for them.
+		 */
+		PREFETCHED
+	}
+
 }
\ No newline at end of file
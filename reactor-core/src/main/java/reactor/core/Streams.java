@@ -16,7 +16,10 @@
 
 package reactor.core;
 
+import reactor.fn.tuples.*;
+
 import java.util.Arrays;
+import java.util.Collection;
 
 /**
  * A public factory to build {@link Stream}
@@ -53,4 +56,287 @@ public abstract class Streams {
 	public static <T> Stream.Spec<T> each(Iterable<T> values) {
 		return new Stream.Spec<T>(values);
 	}
+
+	/**
+	 * Create a {@link Stream} of the values of all the given streams, which completes when they all have. Values of the
+	 * same stream keep their order.
+	 *
+	 * @param streams The streams to merge.
+	 * @param <T>     The type of the values.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	public static <T> Stream.Spec<T> merge(Stream<? extends T>... streams) {
+		return merge(Arrays.asList(streams));
+	}
+
+	/**
+	 * Create a {@link Stream} of the values of all the given streams, which completes when they all have. Values of the
+	 * same stream keep their order.
+	 *
+	 * @param streams The streams to merge.
+	 * @param <T>     The type of the values.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	public static <T> Stream.Spec<T> merge(Collection<? extends Stream<? extends T>> streams) {
+		return new Stream.Spec<T>(streams, Stream.JoinMode.MERGE);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the next value of each of the given streams, which completes once one of them
+	 * has completed and its values have all been paired. Each stream can have up to {@code reactor.zip.bufferSize} values
+	 * (256 by default) waiting to be paired. A stream built with {@link Stream.Spec#backpressure(int) backpressure} is
+	 * asked for that many up front and for another one with each tuple, and a stream of known values is iterated at that
+	 * pace. A value pushed regardless of demand while the buffer of its stream is full is handled as {@code
+	 * reactor.zip.overflow} says: by default ({@code FAIL}) the zipped stream fails, and {@code DROP_LATEST} or {@code
+	 * DROP_OLDEST} drop a value instead, as a {@link Stream.Overflow} does.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2> Stream.Spec<Tuple2<T1, T2>> zip(Stream<T1> s1, Stream<T2> s2) {
+		return new Stream.Spec<Tuple2<T1, T2>>(Arrays.asList(s1, s2), Stream.JoinMode.ZIP);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the next value of each of the given streams, which completes once one of them
+	 * has completed and its values have all been paired. Each stream can have up to {@code reactor.zip.bufferSize} values
+	 * (256 by default) waiting to be paired. A stream built with {@link Stream.Spec#backpressure(int) backpressure} is
+	 * asked for that many up front and for another one with each tuple, and a stream of known values is iterated at that
+	 * pace. A value pushed regardless of demand while the buffer of its stream is full is handled as {@code
+	 * reactor.zip.overflow} says: by default ({@code FAIL}) the zipped stream fails, and {@code DROP_LATEST} or {@code
+	 * DROP_OLDEST} drop a value instead, as a {@link Stream.Overflow} does.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3> Stream.Spec<Tuple3<T1, T2, T3>> zip(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3) {
+		return new Stream.Spec<Tuple3<T1, T2, T3>>(Arrays.asList(s1, s2, s3), Stream.JoinMode.ZIP);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the next value of each of the given streams, which completes once one of them
+	 * has completed and its values have all been paired. Each stream can have up to {@code reactor.zip.bufferSize} values
+	 * (256 by default) waiting to be paired. A stream built with {@link Stream.Spec#backpressure(int) backpressure} is
+	 * asked for that many up front and for another one with each tuple, and a stream of known values is iterated at that
+	 * pace. A value pushed regardless of demand while the buffer of its stream is full is handled as {@code
+	 * reactor.zip.overflow} says: by default ({@code FAIL}) the zipped stream fails, and {@code DROP_LATEST} or {@code
+	 * DROP_OLDEST} drop a value instead, as a {@link Stream.Overflow} does.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @param s4 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3, T4> Stream.Spec<Tuple4<T1, T2, T3, T4>> zip(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3, Stream<T4> s4) {
+		return new Stream.Spec<Tuple4<T1, T2, T3, T4>>(Arrays.asList(s1, s2, s3, s4), Stream.JoinMode.ZIP);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the next value of each of the given streams, which completes once one of them
+	 * has completed and its values have all been paired. Each stream can have up to {@code reactor.zip.bufferSize} values
+	 * (256 by default) waiting to be paired. A stream built with {@link Stream.Spec#backpressure(int) backpressure} is
+	 * asked for that many up front and for another one with each tuple, and a stream of known values is iterated at that
+	 * pace. A value pushed regardless of demand while the buffer of its stream is full is handled as {@code
+	 * reactor.zip.overflow} says: by default ({@code FAIL}) the zipped stream fails, and {@code DROP_LATEST} or {@code
+	 * DROP_OLDEST} drop a value instead, as a {@link Stream.Overflow} does.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @param s4 The next stream.
+	 * @param s5 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3, T4, T5> Stream.Spec<Tuple5<T1, T2, T3, T4, T5>> zip(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3, Stream<T4> s4, Stream<T5> s5) {
+		return new Stream.Spec<Tuple5<T1, T2, T3, T4, T5>>(Arrays.asList(s1, s2, s3, s4, s5), Stream.JoinMode.ZIP);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the next value of each of the given streams, which completes once one of them
+	 * has completed and its values have all been paired. Each stream can have up to {@code reactor.zip.bufferSize} values
+	 * (256 by default) waiting to be paired. A stream built with {@link Stream.Spec#backpressure(int) backpressure} is
+	 * asked for that many up front and for another one with each tuple, and a stream of known values is iterated at that
+	 * pace. A value pushed regardless of demand while the buffer of its stream is full is handled as {@code
+	 * reactor.zip.overflow} says: by default ({@code FAIL}) the zipped stream fails, and {@code DROP_LATEST} or {@code
+	 * DROP_OLDEST} drop a value instead, as a {@link Stream.Overflow} does.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @param s4 The next stream.
+	 * @param s5 The next stream.
+	 * @param s6 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3, T4, T5, T6> Stream.Spec<Tuple6<T1, T2, T3, T4, T5, T6>> zip(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3, Stream<T4> s4, Stream<T5> s5, Stream<T6> s6) {
+		return new Stream.Spec<Tuple6<T1, T2, T3, T4, T5, T6>>(Arrays.asList(s1, s2, s3, s4, s5, s6), Stream.JoinMode.ZIP);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the next value of each of the given streams, which completes once one of them
+	 * has completed and its values have all been paired. Each stream can have up to {@code reactor.zip.bufferSize} values
+	 * (256 by default) waiting to be paired. A stream built with {@link Stream.Spec#backpressure(int) backpressure} is
+	 * asked for that many up front and for another one with each tuple, and a stream of known values is iterated at that
+	 * pace. A value pushed regardless of demand while the buffer of its stream is full is handled as {@code
+	 * reactor.zip.overflow} says: by default ({@code FAIL}) the zipped stream fails, and {@code DROP_LATEST} or {@code
+	 * DROP_OLDEST} drop a value instead, as a {@link Stream.Overflow} does.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @param s4 The next stream.
+	 * @param s5 The next stream.
+	 * @param s6 The next stream.
+	 * @param s7 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3, T4, T5, T6, T7> Stream.Spec<Tuple7<T1, T2, T3, T4, T5, T6, T7>> zip(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3, Stream<T4> s4, Stream<T5> s5, Stream<T6> s6, Stream<T7> s7) {
+		return new Stream.Spec<Tuple7<T1, T2, T3, T4, T5, T6, T7>>(Arrays.asList(s1, s2, s3, s4, s5, s6, s7), Stream.JoinMode.ZIP);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the next value of each of the given streams, which completes once one of them
+	 * has completed and its values have all been paired. Each stream can have up to {@code reactor.zip.bufferSize} values
+	 * (256 by default) waiting to be paired. A stream built with {@link Stream.Spec#backpressure(int) backpressure} is
+	 * asked for that many up front and for another one with each tuple, and a stream of known values is iterated at that
+	 * pace. A value pushed regardless of demand while the buffer of its stream is full is handled as {@code
+	 * reactor.zip.overflow} says: by default ({@code FAIL}) the zipped stream fails, and {@code DROP_LATEST} or {@code
+	 * DROP_OLDEST} drop a value instead, as a {@link Stream.Overflow} does.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @param s4 The next stream.
+	 * @param s5 The next stream.
+	 * @param s6 The next stream.
+	 * @param s7 The next stream.
+	 * @param s8 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3, T4, T5, T6, T7, T8> Stream.Spec<Tuple8<T1, T2, T3, T4, T5, T6, T7, T8>> zip(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3, Stream<T4> s4, Stream<T5> s5, Stream<T6> s6, Stream<T7> s7, Stream<T8> s8) {
+		return new Stream.Spec<Tuple8<T1, T2, T3, T4, T5, T6, T7, T8>>(Arrays.asList(s1, s2, s3, s4, s5, s6, s7, s8), Stream.JoinMode.ZIP);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the latest value of each of the given streams, passed on whenever one of them
+	 * has a new value once they all have one, and which completes when they all have.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2> Stream.Spec<Tuple2<T1, T2>> combineLatest(Stream<T1> s1, Stream<T2> s2) {
+		return new Stream.Spec<Tuple2<T1, T2>>(Arrays.asList(s1, s2), Stream.JoinMode.COMBINE_LATEST);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the latest value of each of the given streams, passed on whenever one of them
+	 * has a new value once they all have one, and which completes when they all have.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3> Stream.Spec<Tuple3<T1, T2, T3>> combineLatest(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3) {
+		return new Stream.Spec<Tuple3<T1, T2, T3>>(Arrays.asList(s1, s2, s3), Stream.JoinMode.COMBINE_LATEST);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the latest value of each of the given streams, passed on whenever one of them
+	 * has a new value once they all have one, and which completes when they all have.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @param s4 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3, T4> Stream.Spec<Tuple4<T1, T2, T3, T4>> combineLatest(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3, Stream<T4> s4) {
+		return new Stream.Spec<Tuple4<T1, T2, T3, T4>>(Arrays.asList(s1, s2, s3, s4), Stream.JoinMode.COMBINE_LATEST);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the latest value of each of the given streams, passed on whenever one of them
+	 * has a new value once they all have one, and which completes when they all have.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @param s4 The next stream.
+	 * @param s5 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3, T4, T5> Stream.Spec<Tuple5<T1, T2, T3, T4, T5>> combineLatest(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3, Stream<T4> s4, Stream<T5> s5) {
+		return new Stream.Spec<Tuple5<T1, T2, T3, T4, T5>>(Arrays.asList(s1, s2, s3, s4, s5), Stream.JoinMode.COMBINE_LATEST);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the latest value of each of the given streams, passed on whenever one of them
+	 * has a new value once they all have one, and which completes when they all have.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @param s4 The next stream.
+	 * @param s5 The next stream.
+	 * @param s6 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3, T4, T5, T6> Stream.Spec<Tuple6<T1, T2, T3, T4, T5, T6>> combineLatest(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3, Stream<T4> s4, Stream<T5> s5, Stream<T6> s6) {
+		return new Stream.Spec<Tuple6<T1, T2, T3, T4, T5, T6>>(Arrays.asList(s1, s2, s3, s4, s5, s6), Stream.JoinMode.COMBINE_LATEST);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the latest value of each of the given streams, passed on whenever one of them
+	 * has a new value once they all have one, and which completes when they all have.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @param s4 The next stream.
+	 * @param s5 The next stream.
+	 * @param s6 The next stream.
+	 * @param s7 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3, T4, T5, T6, T7> Stream.Spec<Tuple7<T1, T2, T3, T4, T5, T6, T7>> combineLatest(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3, Stream<T4> s4, Stream<T5> s5, Stream<T6> s6, Stream<T7> s7) {
+		return new Stream.Spec<Tuple7<T1, T2, T3, T4, T5, T6, T7>>(Arrays.asList(s1, s2, s3, s4, s5, s6, s7), Stream.JoinMode.COMBINE_LATEST);
+	}
+
+	/**
+	 * Create a {@link Stream} of tuples of the latest value of each of the given streams, passed on whenever one of them
+	 * has a new value once they all have one, and which completes when they all have.
+	 *
+	 * @param s1 The first stream.
+	 * @param s2 The next stream.
+	 * @param s3 The next stream.
+	 * @param s4 The next stream.
+	 * @param s5 The next stream.
+	 * @param s6 The next stream.
+	 * @param s7 The next stream.
+	 * @param s8 The next stream.
+	 * @return A {@link Stream.Spec} to further refine the {@link Stream} and then build it.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T1, T2, T3, T4, T5, T6, T7, T8> Stream.Spec<Tuple8<T1, T2, T3, T4, T5, T6, T7, T8>> combineLatest(Stream<T1> s1, Stream<T2> s2, Stream<T3> s3, Stream<T4> s4, Stream<T5> s5, Stream<T6> s6, Stream<T7> s7, Stream<T8> s8) {
+		return new Stream.Spec<Tuple8<T1, T2, T3, T4, T5, T6, T7, T8>>(Arrays.asList(s1, s2, s3, s4, s5, s6, s7, s8), Stream.JoinMode.COMBINE_LATEST);
+	}
 }
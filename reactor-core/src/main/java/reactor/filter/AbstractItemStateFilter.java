@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.filter;
+
+import java.util.List;
+
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
+
+/**
+ * Base class for filters that derive some state, such as a hash ring, from the items being
+ * filtered. The state is cached, without locking, by the contents of the list of items it was
+ * derived from, so that every list of the same items, such as the lists of registrations a
+ * registry returns for different keys that match the same selectors, shares it. It is only
+ * recreated when a list of different items is filtered. The number of cached states is bounded;
+ * once the bound is reached the cache is cleared and states are recreated as they're needed.
+ *
+ * @param <S> The type of the state
+ */
+abstract class AbstractItemStateFilter<S extends AbstractItemStateFilter.ItemState> extends AbstractFilter {
+
+	private static final int MAX_CACHED_STATES = 256;
+
+	private final NonBlockingHashMapLong<S> states = new NonBlockingHashMapLong<S>();
+
+	/**
+	 * Returns the state for the given {@code items}, creating it if it has not been created yet or
+	 * if the items have changed since it was.
+	 *
+	 * @param items The items
+	 *
+	 * @return The state for the items
+	 */
+	protected final S getState(List<?> items) {
+		long hash = hash(items);
+		S state = states.get(hash);
+		if (null == state || !state.isFor(items)) {
+			if (null == state && states.size() >= MAX_CACHED_STATES) {
+				states.clear();
+			}
+			state = createState(items);
+			// two lists of different items with the same hash replace each other's state, which stays correct
+			states.put(hash, state);
+		}
+		return state;
+	}
+
+	private static long hash(List<?> items) {
+		long hash = items.size();
+		for (int i = 0; i < items.size(); i++) {
+			hash = 31 * hash + System.identityHashCode(items.get(i));
+		}
+		return hash;
+	}
+
+	/**
+	 * Creates the state for the given {@code items}.
+	 *
+	 * @param items The items
+	 *
+	 * @return The new state
+	 */
+	protected abstract S createState(List<?> items);
+
+	/**
+	 * State derived from a list of items, which remembers the items it was derived from.
+	 */
+	static class ItemState {
+
+		private final Object[] items;
+
+		protected ItemState(List<?> items) {
+			this.items = items.toArray();
+		}
+
+		final boolean isFor(List<?> items) {
+			if (items.size() != this.items.length) {
+				return false;
+			}
+			for (int i = 0; i < this.items.length; i++) {
+				if (items.get(i) != this.items[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
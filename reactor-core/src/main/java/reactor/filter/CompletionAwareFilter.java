@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.filter;
+
+/**
+ * A {@link Filter} that needs to know when the items it returned have finished being used, for
+ * example to keep track of how many events each consumer is still handling. Event routers call
+ * {@link #complete(Object)} once for every item returned by {@link #filter(java.util.List, Object)},
+ * whether handling succeeded or not.
+ */
+public interface CompletionAwareFilter extends Filter {
+
+	/**
+	 * Signals that an item previously returned by {@link #filter(java.util.List, Object)} is no
+	 * longer in use.
+	 *
+	 * @param item The item
+	 */
+	void complete(Object item);
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.filter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import reactor.util.Assert;
+
+/**
+ * A {@link Filter} implementation that returns a single item, selected by consistent hashing of the
+ * {@code key}. The same key is always routed to the same item for as long as that item remains in the
+ * list. Each item is placed on a hash ring at a number of virtual nodes so that keys are spread evenly
+ * and, when an item is added or removed, only the keys that hash to its nodes move.
+ * <p>
+ * Items are placed on the ring by their identity. The ring is built once for a list of items and is
+ * reused, without locking, until the list changes.
+ */
+public final class ConsistentHashFilter extends AbstractItemStateFilter<ConsistentHashFilter.Ring> {
+
+	private static final int DEFAULT_VIRTUAL_NODES = 128;
+
+	private final int virtualNodes;
+
+	/**
+	 * Create a new {@code ConsistentHashFilter} that places each item at 128 virtual nodes.
+	 */
+	public ConsistentHashFilter() {
+		this(DEFAULT_VIRTUAL_NODES);
+	}
+
+	/**
+	 * Create a new {@code ConsistentHashFilter} that places each item at {@code virtualNodes}
+	 * virtual nodes.
+	 *
+	 * @param virtualNodes the number of virtual nodes per item
+	 */
+	public ConsistentHashFilter(int virtualNodes) {
+		Assert.isTrue(virtualNodes > 0, "'virtualNodes' must be greater than zero");
+		this.virtualNodes = virtualNodes;
+	}
+
+	@Override
+	public <T> List<T> doFilter(List<T> items, Object key) {
+		Assert.notNull(key, "'key' must not be null");
+		if (items.size() < 2) {
+			return items;
+		} else {
+			int index = getState(items).indexOf(mix(key.hashCode()));
+			return Collections.singletonList(items.get(index));
+		}
+	}
+
+	@Override
+	protected Ring createState(List<?> items) {
+		return new Ring(items, virtualNodes);
+	}
+
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	static final class Ring extends AbstractItemStateFilter.ItemState {
+
+		private final int[] points;
+
+		private final int[] owners;
+
+		private Ring(List<?> items, int virtualNodes) {
+			super(items);
+			int size = items.size();
+			long[] nodes = new long[size * virtualNodes];
+			for (int i = 0; i < size; i++) {
+				int itemHash = mix(System.identityHashCode(items.get(i)));
+				for (int v = 0; v < virtualNodes; v++) {
+					int point = mix(itemHash + v * 0x9e3779b9);
+					nodes[i * virtualNodes + v] = ((long) point << 32) | i;
+				}
+			}
+			Arrays.sort(nodes);
+
+			this.points = new int[nodes.length];
+			this.owners = new int[nodes.length];
+			for (int i = 0; i < nodes.length; i++) {
+				this.points[i] = (int) (nodes[i] >> 32);
+				this.owners[i] = (int) nodes[i];
+			}
+		}
+
+		private int indexOf(int hash) {
+			int i = Arrays.binarySearch(points, hash);
+			if (i < 0) {
+				i = -i - 1;
+				if (i == points.length) {
+					i = 0;
+				}
+			}
+			return owners[i];
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.filter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cliffc.high_scale_lib.NonBlockingIdentityHashMap;
+
+import reactor.util.Assert;
+
+/**
+ * A {@link Filter} implementation that returns the single item that is currently in use the
+ * fewest times, as tracked by {@link #complete(Object) completion} callbacks from the event router.
+ * Ties are broken by starting the search at a random item.
+ * <p>
+ * By default every item is considered, which costs {@code O(n)} per event. In power-of-two-choices
+ * mode only two randomly chosen items are compared, which keeps the cost constant while still
+ * steering work away from slow items.
+ * <p>
+ * In-flight counts are held per item identity in a lock-free map whose size is bounded: once
+ * {@code maxItems} items are being tracked the counts are discarded and start again.
+ * <p>
+ * An item is in use from the moment it is selected until the router has invoked it, so the counts
+ * only say something about load when several events are routed at the same time, as they are by a
+ * {@link reactor.fn.dispatch.ThreadPoolExecutorDispatcher}. A single-threaded dispatcher, such as
+ * an event loop or a ring buffer, routes one event at a time: every count is zero whenever an item
+ * is selected and the choice is effectively random. Work that a consumer hands off to another
+ * thread is not counted either.
+ */
+public final class LeastLoadedFilter extends AbstractFilter implements CompletionAwareFilter {
+
+	private static final int DEFAULT_MAX_ITEMS = 1024;
+
+	private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+		@Override
+		protected Random initialValue() {
+			return new Random();
+		}
+	};
+
+	private final NonBlockingIdentityHashMap<Object, AtomicInteger> inFlight = new NonBlockingIdentityHashMap<Object, AtomicInteger>();
+
+	private final boolean powerOfTwoChoices;
+
+	private final int maxItems;
+
+	/**
+	 * Create a new {@code LeastLoadedFilter} that considers every item.
+	 */
+	public LeastLoadedFilter() {
+		this(false);
+	}
+
+	/**
+	 * Create a new {@code LeastLoadedFilter}.
+	 *
+	 * @param powerOfTwoChoices {@code true} to only compare two randomly chosen items, {@code false}
+	 * to compare every item
+	 */
+	public LeastLoadedFilter(boolean powerOfTwoChoices) {
+		this(powerOfTwoChoices, DEFAULT_MAX_ITEMS);
+	}
+
+	/**
+	 * Create a new {@code LeastLoadedFilter}.
+	 *
+	 * @param powerOfTwoChoices {@code true} to only compare two randomly chosen items, {@code false}
+	 * to compare every item
+	 * @param maxItems the maximum number of items whose in-flight count is held at any one time
+	 */
+	public LeastLoadedFilter(boolean powerOfTwoChoices, int maxItems) {
+		Assert.isTrue(maxItems > 0, "'maxItems' must be greater than zero");
+		this.powerOfTwoChoices = powerOfTwoChoices;
+		this.maxItems = maxItems;
+	}
+
+	@Override
+	public <T> List<T> doFilter(List<T> items, Object key) {
+		int size = items.size();
+		if (size == 0) {
+			return items;
+		}
+
+		T selected;
+		AtomicInteger selectedCount;
+		if (size == 1) {
+			selected = items.get(0);
+			selectedCount = getOrCreateCount(selected);
+		} else if (powerOfTwoChoices) {
+			Random random = RANDOM.get();
+			int first = random.nextInt(size);
+			int second = random.nextInt(size - 1);
+			if (second >= first) {
+				second++;
+			}
+			T firstItem = items.get(first);
+			T secondItem = items.get(second);
+			AtomicInteger firstCount = getOrCreateCount(firstItem);
+			AtomicInteger secondCount = getOrCreateCount(secondItem);
+			if (secondCount.get() < firstCount.get()) {
+				selected = secondItem;
+				selectedCount = secondCount;
+			} else {
+				selected = firstItem;
+				selectedCount = firstCount;
+			}
+		} else {
+			int start = RANDOM.get().nextInt(size);
+			selected = null;
+			selectedCount = null;
+			for (int i = 0; i < size; i++) {
+				T item = items.get((start + i) % size);
+				AtomicInteger count = getOrCreateCount(item);
+				if (null == selectedCount || count.get() < selectedCount.get()) {
+					selected = item;
+					selectedCount = count;
+					if (count.get() == 0) {
+						break;
+					}
+				}
+			}
+		}
+
+		selectedCount.incrementAndGet();
+		return Collections.singletonList(selected);
+	}
+
+	@Override
+	public void complete(Object item) {
+		AtomicInteger count = inFlight.get(item);
+		if (null != count) {
+			// the count may have been discarded and recreated while the item was in use, so never go below zero
+			int current;
+			while ((current = count.get()) > 0 && !count.compareAndSet(current, current - 1)) {
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of times that the given item has been returned by this filter without
+	 * having been completed yet.
+	 *
+	 * @param item The item
+	 *
+	 * @return The item's in-flight count
+	 */
+	public int getInFlightCount(Object item) {
+		AtomicInteger count = inFlight.get(item);
+		return (null == count ? 0 : count.get());
+	}
+
+	private AtomicInteger getOrCreateCount(Object item) {
+		AtomicInteger count = inFlight.get(item);
+		if (null == count) {
+			if (inFlight.size() >= maxItems) {
+				inFlight.clear();
+			}
+			AtomicInteger newCount = new AtomicInteger();
+			count = inFlight.putIfAbsent(item, newCount);
+			if (null == count) {
+				count = newCount;
+			}
+		}
+		return count;
+	}
+
+}
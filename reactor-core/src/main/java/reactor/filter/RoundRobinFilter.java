@@ -17,12 +17,8 @@
 package reactor.filter;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import reactor.util.Assert;
 
@@ -30,19 +26,46 @@ import reactor.util.Assert;
  * A {@link Filter} implementation that returns a single item. The item is selected
  * using a round-robin algorithm based on the number of times the {@code key} has been
  * passed into the filter.
+ * <p>
+ * The usage counts are held in a fixed array of counters, indexed by the hash of the
+ * {@code key}, so that the filter takes no locks and its memory does not grow with the
+ * number of keys. Keys whose hashes share a counter share their rotation, which still
+ * spreads each key across the items.
  *
  * @author Andy Wilkinson
  *
  */
 public final class RoundRobinFilter extends AbstractFilter {
 
-	private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+	private static final int DEFAULT_COUNTERS = 1024;
 
-	private final Lock readLock = readWriteLock.readLock();
+	private final AtomicLongArray usageCounts;
 
-	private final Lock writeLock = readWriteLock.writeLock();
+	private final int mask;
 
-	private final Map<Object, AtomicLong> usageCounts = new HashMap<Object, AtomicLong>();
+	/**
+	 * Create a new {@code RoundRobinFilter} that spreads the keys across 1024 usage
+	 * counters.
+	 */
+	public RoundRobinFilter() {
+		this(DEFAULT_COUNTERS);
+	}
+
+	/**
+	 * Create a new {@code RoundRobinFilter} that spreads the keys across {@code counters}
+	 * usage counters, rounded up to a power of two.
+	 *
+	 * @param counters the number of usage counters that the keys are spread across
+	 */
+	public RoundRobinFilter(int counters) {
+		Assert.isTrue(counters > 0 && counters <= 1 << 30, "'counters' must be between 1 and 2^30");
+		int size = Integer.highestOneBit(counters);
+		if (size < counters) {
+			size <<= 1;
+		}
+		this.usageCounts = new AtomicLongArray(size);
+		this.mask = size - 1;
+	}
 
 	@Override
 	public <T> List<T> doFilter(List<T> items, Object key) {
@@ -50,32 +73,18 @@ public final class RoundRobinFilter extends AbstractFilter {
 		if (items.isEmpty()) {
 			return items;
 		} else {
-			int index = (int)(getUsageCount(key).getAndIncrement() % (items.size()));
+			long usageCount = this.usageCounts.getAndIncrement(indexOf(key));
+			int index = (int)((usageCount & Long.MAX_VALUE) % (items.size()));
 			return Collections.singletonList(items.get(index));
 		}
 	}
 
-	private AtomicLong getUsageCount(Object key) {
-		readLock.lock();
-		try {
-			AtomicLong usageCount = this.usageCounts.get(key);
-			if (usageCount == null) {
-				readLock.unlock();
-				writeLock.lock();
-				try {
-					if (usageCount == null) {
-						usageCount = new AtomicLong();
-						this.usageCounts.put(key, usageCount);
-					}
-				} finally {
-					writeLock.unlock();
-					readLock.lock();
-				}
-			}
-			return usageCount;
-		} finally {
-			readLock.unlock();
-		}
+	private int indexOf(Object key) {
+		int h = key.hashCode();
+		// spread the high bits of the hash into the low bits that the mask keeps
+		h ^= (h >>> 20) ^ (h >>> 12);
+		h ^= (h >>> 7) ^ (h >>> 4);
+		return h & this.mask;
 	}
 
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.filter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reactor.fn.registry.Registration;
+import reactor.fn.selector.Taggable;
+
+/**
+ * A {@link Filter} implementation that returns a single item, selected using a weighted
+ * round-robin algorithm. An item's weight is taken from a {@code weight=<n>} tag: on the
+ * item's {@link reactor.fn.selector.Selector} when the item is a {@link Registration}, or on
+ * the item itself when it is {@link Taggable}. Items without a weight tag have a weight of
+ * {@code 1} and items with a weight of {@code 0} are never selected, unless all of them have one.
+ * <p>
+ * Weights are read once for a list of items and reused, without locking, until the list
+ * changes.
+ */
+public final class WeightedFilter extends AbstractItemStateFilter<WeightedFilter.Weights> {
+
+	/**
+	 * The prefix of the tag that holds an item's weight
+	 */
+	public static final String WEIGHT_TAG_PREFIX = "weight=";
+
+	private final AtomicLong usageCount = new AtomicLong();
+
+	@Override
+	public <T> List<T> doFilter(List<T> items, Object key) {
+		if (items.size() < 2) {
+			return items;
+		} else {
+			int index = getState(items).indexOf(usageCount.getAndIncrement() & Long.MAX_VALUE);
+			return Collections.singletonList(items.get(index));
+		}
+	}
+
+	@Override
+	protected Weights createState(List<?> items) {
+		return new Weights(items);
+	}
+
+	private static int weightOf(Object item) {
+		Object tagged = (item instanceof Registration ? ((Registration<?>) item).getSelector() : item);
+		if (tagged instanceof Taggable) {
+			for (String tag : ((Taggable<?>) tagged).getTags()) {
+				if (tag.startsWith(WEIGHT_TAG_PREFIX)) {
+					try {
+						return Math.max(0, Integer.parseInt(tag.substring(WEIGHT_TAG_PREFIX.length()).trim()));
+					} catch (NumberFormatException e) {
+						throw new IllegalArgumentException("Invalid weight tag '" + tag + "'", e);
+					}
+				}
+			}
+		}
+		return 1;
+	}
+
+	static final class Weights extends AbstractItemStateFilter.ItemState {
+
+		private final long[] cumulativeWeights;
+
+		private Weights(List<?> items) {
+			super(items);
+			long[] cumulativeWeights = new long[items.size()];
+			long total = 0;
+			for (int i = 0; i < cumulativeWeights.length; i++) {
+				total += weightOf(items.get(i));
+				cumulativeWeights[i] = total;
+			}
+			if (total == 0) {
+				for (int i = 0; i < cumulativeWeights.length; i++) {
+					cumulativeWeights[i] = i + 1;
+				}
+			}
+			this.cumulativeWeights = cumulativeWeights;
+		}
+
+		private int indexOf(long count) {
+			long position = count % cumulativeWeights[cumulativeWeights.length - 1];
+			int low = 0;
+			int high = cumulativeWeights.length - 1;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (cumulativeWeights[mid] <= position) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+
+}
@@ -17,13 +17,18 @@
 package reactor.fn;
 
 import com.eaio.uuid.UUID;
+import reactor.support.IdGenerator;
+import reactor.support.StripedIdGenerator;
 import reactor.util.Assert;
 
 import java.io.Serializable;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Wrapper for an object that needs to be processed by {@link Consumer}s.
@@ -36,20 +41,47 @@ public class Event<T> {
 
 	public static final Event<Void> NULL_EVENT = new Event<Void>(null);
 
-	private UUID    id;
-	private Headers headers;
-	private Object  replyTo;
-	private T       data;
+	// updaters are made from Event.class, so they are typed with the raw Event
+	@SuppressWarnings("rawtypes")
+	private static final AtomicLongFieldUpdater<Event>               ID_UPDATER      = AtomicLongFieldUpdater.newUpdater(Event.class, "id");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Event, UUID>    UUID_UPDATER    = AtomicReferenceFieldUpdater.newUpdater(Event.class, UUID.class, "uuid");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Event, Headers> HEADERS_UPDATER = AtomicReferenceFieldUpdater.newUpdater(Event.class, Headers.class, "headers");
+
+	private static volatile IdGenerator idGenerator = new StripedIdGenerator();
+
+	private final    Event<T> idSource;
+	private volatile long     id;
+	private volatile UUID     uuid;
+	private volatile Headers  headers;
+	private          Object   replyTo;
+	private          T        data;
 
 	public Event(Headers headers, T data) {
+		this.idSource = null;
 		this.headers = headers;
 		this.data = data;
 	}
 
 	public Event(T data) {
+		this.idSource = null;
 		this.data = data;
 	}
 
+	/**
+	 * Create a copy of the given event that uses the given headers.
+	 *
+	 * @param source  The event to copy.
+	 * @param headers The headers of the copy.
+	 */
+	protected Event(Event<T> source, Headers headers) {
+		this.idSource = (null != source.idSource ? source.idSource : source);
+		this.headers = headers;
+		this.replyTo = source.replyTo;
+		this.data = source.data;
+	}
+
 	/**
 	 * Wrap the given object with an {@link Event}.
 	 *
@@ -73,29 +105,89 @@ public class Event<T> {
 	}
 
 	/**
-	 * Get the globally-unique id of this event.
+	 * Set the {@link IdGenerator} used to issue the ids returned by {@link #getNumericId()}. Defaults to a {@link
+	 * StripedIdGenerator}.
 	 *
-	 * @return Unique {@link UUID} of this event.
+	 * @param idGenerator The generator to use.
+	 */
+	public static void setIdGenerator(IdGenerator idGenerator) {
+		Assert.notNull(idGenerator, "IdGenerator cannot be null.");
+		Event.idGenerator = idGenerator;
+	}
+
+	/**
+	 * Get the id of this event, which is issued by the configured {@link IdGenerator} the first time it is requested.
+	 * This is much cheaper to create than the {@link UUID} returned by {@link #getId()}.
+	 *
+	 * @return The id of this event.
 	 */
-	public synchronized UUID getId() {
-		if (null == id) {
-			id = new UUID();
+	public long getNumericId() {
+		if (null != idSource) {
+			return idSource.getNumericId();
+		}
+		long id = this.id;
+		if (0 == id) {
+			long newId = idGenerator.generateId();
+			id = (ID_UPDATER.compareAndSet(this, 0, newId) ? newId : this.id);
 		}
 		return id;
 	}
 
+	/**
+	 * Get the globally-unique id of this event. The {@link UUID} is only created the first time it is requested; use
+	 * {@link #getNumericId()} when a cheaper id will do.
+	 *
+	 * @return Unique {@link UUID} of this event.
+	 */
+	public UUID getId() {
+		if (null != idSource) {
+			return idSource.getId();
+		}
+		UUID uuid = this.uuid;
+		if (null == uuid) {
+			UUID_UPDATER.compareAndSet(this, null, new UUID());
+			uuid = this.uuid;
+		}
+		return uuid;
+	}
+
 	/**
 	 * Get the {@link Headers} attached to this event.
 	 *
 	 * @return
 	 */
-	public synchronized Headers getHeaders() {
+	public Headers getHeaders() {
+		Headers headers = this.headers;
 		if (null == headers) {
-			headers = new Headers();
+			HEADERS_UPDATER.compareAndSet(this, null, new Headers());
+			headers = this.headers;
 		}
 		return headers;
 	}
 
+	/**
+	 * Create a copy of this event whose {@link Headers} are a view of this event's headers overlaid with the given
+	 * values. Neither this event nor its headers are modified, so each consumer can be given its own view of the same
+	 * event.
+	 *
+	 * @param headers The values to overlay, such as the headers resolved from a notification key.
+	 * @return A new {@link Event} sharing this event's ids, data and replyTo.
+	 */
+	public Event<T> overlayHeaders(Map<String, String> headers) {
+		return copy(new Headers(this.headers, headers));
+	}
+
+	/**
+	 * Create a copy of this event that uses the given headers. Subclasses carrying additional state should override this
+	 * so that the state is carried over to the copy.
+	 *
+	 * @param headers The headers of the copy.
+	 * @return A new {@link Event} sharing this event's ids, data and replyTo.
+	 */
+	protected Event<T> copy(Headers headers) {
+		return new Event<T>(this, headers);
+	}
+
 	/**
 	 * Get the key to send replies to.
 	 *
@@ -138,20 +230,38 @@ public class Event<T> {
 	}
 
 	/**
-	 * Headers are backed by a {@code Map&lt;String, String&gt;} and provide a little extra sugar for creating read-only
-	 * versions and the like.
+	 * Headers provide a little extra sugar for creating read-only versions and the like. Most events carry no more than a
+	 * handful of headers, so these are kept in a small array of name/value pairs that is appended to under a lock but
+	 * read without one, and whose names are compared case-insensitively rather than being lower-cased up front. Only
+	 * headers created from an existing {@link Map}, or that grow beyond {@value #MAX_INLINE_HEADERS} values, are backed by
+	 * a map. Headers can also be a layered view:
+	 * values are then looked up in the view's own values first, then in an overlay (for instance values resolved from a
+	 * notification key), then in the parent headers. Writes to a view never reach the overlay or the parent.
 	 */
 	public static class Headers implements Serializable, Iterable<Map.Entry<String, String>> {
 		public static final  String ORIGIN           = "x-reactor-origin";
 		private static final long   serialVersionUID = 4984692586458514948L;
-		private final Map<String, String> headers;
 
-		private Headers(boolean sealed, Map<String, String> headers) {
-			if (sealed) {
-				this.headers = Collections.unmodifiableMap(headers);
-			} else {
-				this.headers = headers;
-			}
+		private static final int      MAX_INLINE_HEADERS = 8;
+		private static final String[] NO_ENTRIES         = new String[0];
+		private static final String[] WELL_KNOWN_NAMES   = {ORIGIN};
+
+		private final    boolean             sealed;
+		private final    Headers             parent;
+		private final    Map<String, String> overlay;
+		private volatile String[]            entries = NO_ENTRIES;
+		private volatile int                 size;
+		private volatile Map<String, String> headers;
+
+		private Headers(boolean sealed, Headers parent, Map<String, String> overlay, Map<String, String> headers) {
+			this.sealed = sealed;
+			this.parent = parent;
+			this.overlay = overlay;
+			this.headers = headers;
+		}
+
+		private Headers(Headers parent, Map<String, String> overlay) {
+			this(false, parent, overlay, null);
 		}
 
 		/**
@@ -160,14 +270,14 @@ public class Event<T> {
 		 * @param headers The map to use as the headers.
 		 */
 		public Headers(Map<String, String> headers) {
-			this(false, headers);
+			this(false, null, null, headers);
 		}
 
 		/**
-		 * Create headers using a new, empty map.
+		 * Create new, empty headers.
 		 */
 		public Headers() {
-			this(false, new ConcurrentHashMap<String, String>());
+			this(false, null, null, null);
 		}
 
 		/**
@@ -176,11 +286,13 @@ public class Event<T> {
 		 * @param headers The map to use as the headers.
 		 * @return
 		 */
-		public Headers setAll(Map<String, String> headers) {
+		public synchronized Headers setAll(Map<String, String> headers) {
 			if (null == headers || headers.isEmpty()) {
 				return this;
 			}
-			this.headers.putAll(headers);
+			for (Map.Entry<String, String> header : headers.entrySet()) {
+				put(header.getKey(), header.getValue());
+			}
 			return this;
 		}
 
@@ -192,7 +304,7 @@ public class Event<T> {
 		 * @return {@literal this}
 		 */
 		public Headers set(String name, String value) {
-			headers.put(name.toLowerCase(), value);
+			put(name, value);
 			return this;
 		}
 
@@ -215,7 +327,7 @@ public class Event<T> {
 		 * @return {@literal this}
 		 */
 		public Headers setOrigin(String id) {
-			headers.put(ORIGIN, id);
+			put(ORIGIN, id);
 			return this;
 		}
 
@@ -225,7 +337,7 @@ public class Event<T> {
 		 * @return The unique id of the component in which this event originated.
 		 */
 		public String getOrigin() {
-			return headers.get(ORIGIN);
+			return doGet(ORIGIN);
 		}
 
 		/**
@@ -235,7 +347,7 @@ public class Event<T> {
 		 * @return The value of the header, or {@literal null} if none exists.
 		 */
 		public String get(String name) {
-			return headers.get(name.toLowerCase());
+			return doGet(name);
 		}
 
 		/**
@@ -245,7 +357,7 @@ public class Event<T> {
 		 * @return {@literal true} if a value exists, {@literal false} otherwise.
 		 */
 		public boolean contains(String name) {
-			return headers.containsKey(name.toLowerCase());
+			return doContains(name);
 		}
 
 		/**
@@ -254,7 +366,11 @@ public class Event<T> {
 		 * @return The headers as a map.
 		 */
 		public Map<String, String> asMap() {
-			return Collections.unmodifiableMap(headers);
+			Map<String, String> headers = this.headers;
+			if (null != headers && null == parent && null == overlay) {
+				return Collections.unmodifiableMap(headers);
+			}
+			return Collections.unmodifiableMap(merge());
 		}
 
 		/**
@@ -263,12 +379,150 @@ public class Event<T> {
 		 * @return A read-only version of the headers.
 		 */
 		public Headers readOnly() {
-			return new Headers(true, headers);
+			return new Headers(true, this, null, null);
 		}
 
 		@Override
 		public Iterator<Map.Entry<String, String>> iterator() {
-			return headers.entrySet().iterator();
+			return asMap().entrySet().iterator();
+		}
+
+		private synchronized void put(String name, String value) {
+			if (sealed) {
+				throw new UnsupportedOperationException("Read-only headers cannot be modified");
+			}
+			Assert.notNull(value, "Header value cannot be null.");
+
+			Map<String, String> headers = this.headers;
+			if (null != headers) {
+				headers.put(normalize(name), value);
+				return;
+			}
+
+			String[] entries = this.entries;
+			int size = this.size;
+			for (int i = 0; i < size; i += 2) {
+				if (matches(entries[i], name)) {
+					// replace rather than update in place so that readers never see a value without a happens-before edge
+					String[] newEntries = entries.clone();
+					newEntries[i + 1] = value;
+					this.entries = newEntries;
+					return;
+				}
+			}
+
+			if (size == MAX_INLINE_HEADERS * 2) {
+				headers = new ConcurrentHashMap<String, String>();
+				for (int i = 0; i < size; i += 2) {
+					headers.put(normalize(entries[i]), entries[i + 1]);
+				}
+				headers.put(normalize(name), value);
+				// publish the map before dropping the entries so that a concurrent reader always finds the values
+				this.headers = headers;
+				this.entries = NO_ENTRIES;
+				this.size = 0;
+				return;
+			}
+
+			if (size == entries.length) {
+				String[] newEntries = new String[Math.max(4, size * 2)];
+				System.arraycopy(entries, 0, newEntries, 0, size);
+				this.entries = entries = newEntries;
+			}
+			entries[size] = name;
+			entries[size + 1] = value;
+			// publishing the new size makes the appended pair visible to readers
+			this.size = size + 2;
+		}
+
+		private String doGet(String name) {
+			// the entries may have been replaced by a larger array, or dropped in favour of a map, since reading the size
+			int size = this.size;
+			String[] entries = this.entries;
+			for (int i = 0; i < size && i < entries.length; i += 2) {
+				if (matches(entries[i], name)) {
+					return entries[i + 1];
+				}
+			}
+			String value = null;
+			Map<String, String> headers = this.headers;
+			if (null != headers) {
+				value = headers.get(normalize(name));
+			}
+			if (null == value && null != overlay) {
+				value = getIgnoringCase(overlay, name);
+			}
+			if (null == value && null != parent) {
+				value = parent.doGet(name);
+			}
+			return value;
+		}
+
+		private boolean doContains(String name) {
+			int size = this.size;
+			String[] entries = this.entries;
+			for (int i = 0; i < size && i < entries.length; i += 2) {
+				if (matches(entries[i], name)) {
+					return true;
+				}
+			}
+			Map<String, String> headers = this.headers;
+			return (null != headers && headers.containsKey(normalize(name)))
+					|| (null != overlay && null != getIgnoringCase(overlay, name))
+					|| (null != parent && parent.doContains(name));
+		}
+
+		private Map<String, String> merge() {
+			Map<String, String> merged = (null != parent ? parent.merge() : new HashMap<String, String>());
+			if (null != overlay) {
+				merged.putAll(overlay);
+			}
+			Map<String, String> headers = this.headers;
+			if (null != headers) {
+				merged.putAll(headers);
+			}
+			int size = this.size;
+			String[] entries = this.entries;
+			for (int i = 0; i < size && i < entries.length; i += 2) {
+				merged.put(normalize(entries[i]), entries[i + 1]);
+			}
+			return merged;
+		}
+
+		private static boolean matches(String storedName, String name) {
+			return storedName == name || storedName.equalsIgnoreCase(name);
+		}
+
+		private static String getIgnoringCase(Map<String, String> map, String name) {
+			String value = map.get(name);
+			if (null == value) {
+				for (Map.Entry<String, String> entry : map.entrySet()) {
+					if (entry.getKey().equalsIgnoreCase(name)) {
+						return entry.getValue();
+					}
+				}
+			}
+			return value;
+		}
+
+		/*
+		 * Lower-case the given name, only allocating when it actually contains upper-case characters, and substitute the
+		 * constant for well-known names so that later lookups using the constant match by identity.
+		 */
+		private static String normalize(String name) {
+			for (int i = 0; i < name.length(); i++) {
+				char c = name.charAt(i);
+				if (Character.toLowerCase(c) != c) {
+					name = name.toLowerCase();
+					break;
+				}
+			}
+			for (String wellKnown : WELL_KNOWN_NAMES) {
+				if (wellKnown.equals(name)) {
+					return wellKnown;
+				}
+			}
+			return name;
 		}
 	}
 
@@ -16,8 +16,12 @@
 
 package reactor.fn.dispatch;
 
+import java.util.Collections;
+import java.util.List;
+
 import reactor.fn.Consumer;
 import reactor.fn.Event;
+import reactor.fn.registry.Registration;
 import reactor.fn.registry.Registry;
 import reactor.fn.routing.EventRouter;
 
@@ -93,7 +97,10 @@ abstract class BaseDispatcher implements Dispatcher {
 		public abstract void submit();
 
 		protected void execute() {
-			eventRouter.route(key, event, consumerRegistry.select(key), completionConsumer, errorConsumer);
+			List<Registration<? extends Consumer<? extends Event<?>>>> consumers = (null == consumerRegistry
+					? Collections.<Registration<? extends Consumer<? extends Event<?>>>>emptyList()
+					: consumerRegistry.select(key));
+			eventRouter.route(key, event, consumers, completionConsumer, errorConsumer);
 		}
 	}
 }
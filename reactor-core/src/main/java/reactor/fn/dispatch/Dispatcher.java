@@ -60,7 +60,8 @@ public interface Dispatcher {
 	 *
 	 * @param key The key associated with the event
 	 * @param event The event
-	 * @param consumerRegistry The registry from which consumer's are selected
+	 * @param consumerRegistry The registry from which consumer's are selected, or {@literal null} when the {@code
+	 *                         eventRouter} does not route to consumers
 	 * @param errorConsumer The consumer that is driven if dispatch fails
 	 * @param eventRouter Used to route the event to the selected consumers
 	 * @param completionConsumer The consumer that is driven if dispatch succeeds
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.fn.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.fn.Event;
+
+/**
+ * A {@link Dispatcher} implementation that executes a {@link Task} in the calling thread, like the {@link
+ * SynchronousDispatcher}, but without growing the stack when dispatching is reentrant. The outermost dispatch on a
+ * thread executes its task immediately; any dispatch made while that task is running is queued in a thread-local
+ * trampoline and executed, in submission order, once the current task returns. A task that fails is logged and the
+ * tasks queued behind it still run. Tasks are recycled from the thread-local queue so that no allocation happens per
+ * dispatch once the queue has warmed up.
+ */
+public class TrampolineDispatcher extends BaseDispatcher {
+
+	public static final Dispatcher INSTANCE = new TrampolineDispatcher();
+
+	private final ThreadLocal<Trampoline> trampolines = new ThreadLocal<Trampoline>() {
+		@Override
+		protected Trampoline initialValue() {
+			return new Trampoline();
+		}
+	};
+
+	@Override
+	public boolean alive() {
+		return true;
+	}
+
+	@Override
+	public void shutdown() {
+	}
+
+	@Override
+	public void halt() {
+	}
+
+	@SuppressWarnings({"unchecked"})
+	@Override
+	protected <E extends Event<?>> Task<E> createTask() {
+		return (Task<E>) trampolines.get().allocate();
+	}
+
+	private final class TrampolineTask extends Task<Event<?>> {
+		private final Trampoline trampoline;
+
+		private TrampolineTask(Trampoline trampoline) {
+			this.trampoline = trampoline;
+		}
+
+		@Override
+		public void submit() {
+			trampoline.submit();
+		}
+	}
+
+	/**
+	 * A per-thread FIFO of reusable tasks. Only ever touched by its owning thread.
+	 */
+	private final class Trampoline {
+		private TrampolineTask[] tasks = new TrampolineTask[16];
+		private int     mask = tasks.length - 1;
+		private long    head = 0;
+		private long    tail = 0;
+		private boolean running;
+
+		private Trampoline() {
+			for (int i = 0; i < tasks.length; i++) {
+				tasks[i] = new TrampolineTask(this);
+			}
+		}
+
+		private TrampolineTask allocate() {
+			if (tail - head == tasks.length) {
+				grow();
+			}
+			return tasks[(int) tail & mask];
+		}
+
+		private void submit() {
+			tail++;
+			if (running) {
+				// a task is already executing further up the stack and will drain the queue when it returns
+				return;
+			}
+
+			running = true;
+			try {
+				while (head != tail) {
+					TrampolineTask t = tasks[(int) head & mask];
+					try {
+						t.execute();
+					} catch (Exception e) {
+						Logger log = LoggerFactory.getLogger(TrampolineDispatcher.class);
+						if (log.isErrorEnabled()) {
+							log.error(e.getMessage(), e);
+						}
+					} finally {
+						t.reset();
+						head++;
+					}
+				}
+			} finally {
+				running = false;
+				// only reached with pending tasks when a task threw an Error; drop them as unwinding a nested dispatch would
+				while (head != tail) {
+					tasks[(int) head++ & mask].reset();
+				}
+			}
+		}
+
+		private void grow() {
+			int size = (int) (tail - head);
+			TrampolineTask[] newTasks = new TrampolineTask[tasks.length << 1];
+			for (int i = 0; i < size; i++) {
+				newTasks[i] = tasks[(int) (head + i) & mask];
+			}
+			for (int i = size; i < newTasks.length; i++) {
+				newTasks[i] = new TrampolineTask(this);
+			}
+			tasks = newTasks;
+			mask = newTasks.length - 1;
+			head = 0;
+			tail = size;
+		}
+	}
+
+}
@@ -16,21 +16,31 @@
 
 package reactor.fn.routing;
 
+import org.cliffc.high_scale_lib.NonBlockingHashMap;
 import reactor.convert.Converter;
 import reactor.fn.Consumer;
 import reactor.fn.Event;
 import reactor.fn.support.ConsumerUtils;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 /**
- * This implementation of a {@link reactor.fn.routing.ConsumerInvoker} will attempt to invoke a {@link
- * reactor.fn.Consumer} as-is and, if that fails with a {@link ClassCastException} because the argument declared in the
- * {@literal Consumer} isn't of the correct type, it tries to find an object of that type in the array of {@literal
- * possibleArgs} passed to the invoker. If that fails, it will attempt to use the given {@link Converter} to convert the
- * argument into a form acceptable to the {@literal Consumer}. If the argument is of type {@link reactor.fn.Event} and
- * the data inside that event is of a compatible type with the argument to the consumer, this invoker will unwrap that
- * {@literal Event} and try to invoke the consumer using the data itself.
+ * This implementation of a {@link reactor.fn.routing.ConsumerInvoker} will invoke a {@link reactor.fn.Consumer} with
+ * an argument of the type it declares. If the first of the {@literal possibleArgs} passed to the invoker is an instance
+ * of that type, it is passed as-is. Otherwise it tries to find an object of that type in the rest of the array of
+ * {@literal possibleArgs}, using the given {@link Converter} to convert an argument into a form acceptable to the
+ * {@literal Consumer} if needed. If the argument is of type {@link reactor.fn.Event} and the data inside that event is of
+ * a compatible type with the argument to the consumer (or can be converted to it), this invoker will unwrap that
+ * {@literal Event} and invoke the consumer using the data itself.
+ * <p/>
+ * The decision is made up front rather than by catching a {@link ClassCastException}: the first time a {@literal
+ * Consumer} type sees a given argument type, an {@link InvocationPlan} is computed and cached, and subsequent
+ * invocations with that argument type dispatch straight through it. The cache only holds the classes weakly, so that it
+ * does not keep the class loaders of the consumers and their arguments alive.
  * <p/>
  * Finally, if the {@literal Consumer} also implements {@link Callable}, then it will invoke the {@link
  * java.util.concurrent.Callable#call()} method to obtain a return value and return that. Otherwise it will return
@@ -43,7 +53,9 @@ public final class ArgumentConvertingConsumerInvoker implements ConsumerInvoker
 
 	public static final ArgumentConvertingConsumerInvoker DEFAULT = new ArgumentConvertingConsumerInvoker(null);
 
-	private final Converter converter;
+	private final Map<PlanKey, InvocationPlan> plans     = new NonBlockingHashMap<PlanKey, InvocationPlan>();
+	private final ReferenceQueue<Class<?>>     collected = new ReferenceQueue<Class<?>>();
+	private final Converter                    converter;
 
 	public ArgumentConvertingConsumerInvoker(Converter converter) {
 		this.converter = converter;
@@ -54,41 +66,13 @@ public final class ArgumentConvertingConsumerInvoker implements ConsumerInvoker
 	public <T> T invoke(Consumer<?> consumer,
 											Class<? extends T> returnType,
 											Object... possibleArgs) throws Exception {
-		try {
-			((Consumer) consumer).accept((possibleArgs.length > 0 ? possibleArgs[0] : null));
-		} catch (ClassCastException e) {
-			Class<?> argType = ConsumerUtils.resolveArgType(consumer);
-			if (argType == Object.class) {
-				throw e;
-			}
-
-			// Try and find an argument when the list of possible arguments past the 1st
-			for (int i = 1; i < possibleArgs.length; i++) {
-				Object o = possibleArgs[i];
-				if (null == o) {
-					continue;
-				}
-				if (argType.isInstance(o)) {
-					// arg type matches a possible arg
-					return invoke(consumer, returnType, o);
-				} else if (null != converter && converter.canConvert(o.getClass(), argType)) {
-					// arg is convertible
-					return invoke(consumer, returnType, converter.convert(o, argType));
-				} else if (Event.class.isInstance(o)
-						&& null != ((Event<?>) o).getData()
-						&& argType.isInstance(((Event<?>) o).getData())) {
-					// Try unwrapping the Event data
-					return invoke(consumer, returnType, ((Event<?>) o).getData());
-				}
-			}
-
-			// Try unwrapping the Event data
-			if (possibleArgs.length == 1 && Event.class.isInstance(possibleArgs[0])) {
-				return invoke(consumer, returnType, ((Event) possibleArgs[0]).getData());
-			}
-
-			throw e;
+		Object arg = (possibleArgs.length > 0 ? possibleArgs[0] : null);
+		if (possibleArgs.length > 1) {
+			arg = resolveArgument(ConsumerUtils.resolveArgType(consumer), possibleArgs);
+		} else if (null != arg) {
+			arg = getPlan(consumer, arg).apply(arg, converter);
 		}
+		((Consumer) consumer).accept(arg);
 
 		if (Void.TYPE == returnType) {
 			return null;
@@ -117,4 +101,214 @@ public final class ArgumentConvertingConsumerInvoker implements ConsumerInvoker
 		return true;
 	}
 
+	private InvocationPlan getPlan(Consumer<?> consumer, Object arg) {
+		Class<?> consumerType = consumer.getClass();
+		Class<?> argType = arg.getClass();
+		Class<?> dataType = (arg instanceof Event && null != ((Event<?>) arg).getData()
+				? ((Event<?>) arg).getData().getClass()
+				: null);
+
+		InvocationPlan plan = plans.get(new LookupKey(consumerType, argType, dataType));
+		if (null == plan) {
+			expungeCollected();
+			plan = InvocationPlan.create(ConsumerUtils.resolveArgType(consumer), argType, dataType, converter);
+			plans.put(new WeakKey(consumerType, argType, dataType, collected), plan);
+		}
+		return plan;
+	}
+
+	private void expungeCollected() {
+		Reference<? extends Class<?>> ref;
+		while (null != (ref = collected.poll())) {
+			plans.remove(((ClassReference) ref).key);
+		}
+	}
+
+	private Object resolveArgument(Class<?> argType, Object[] possibleArgs) {
+		if (argType == Object.class || argType.isInstance(possibleArgs[0])) {
+			return possibleArgs[0];
+		}
+
+		// Try and find an argument when the list of possible arguments past the 1st
+		for (int i = 1; i < possibleArgs.length; i++) {
+			Object o = possibleArgs[i];
+			if (null == o) {
+				continue;
+			}
+			if (argType.isInstance(o)) {
+				// arg type matches a possible arg
+				return o;
+			} else if (null != converter && converter.canConvert(o.getClass(), argType)) {
+				// arg is convertible
+				return converter.convert(o, argType);
+			} else if (Event.class.isInstance(o)
+					&& null != ((Event<?>) o).getData()
+					&& argType.isInstance(((Event<?>) o).getData())) {
+				// Try unwrapping the Event data
+				return ((Event<?>) o).getData();
+			}
+		}
+
+		return possibleArgs[0];
+	}
+
+	private static enum Strategy {
+		PASS, UNWRAP, CONVERT
+	}
+
+	/**
+	 * The types of {@link Consumer}, argument and {@link Event} data an {@link InvocationPlan} has been computed for.
+	 * Keys compare their classes by identity, whether they hold them weakly, as stored keys do, or not, as the keys
+	 * that plans are looked up with do.
+	 */
+	private static abstract class PlanKey {
+		private final int hash;
+
+		PlanKey(Class<?> consumerType, Class<?> argType, Class<?> dataType) {
+			this.hash = 31 * (31 * consumerType.hashCode() + argType.hashCode())
+					+ (null == dataType ? 0 : dataType.hashCode());
+		}
+
+		abstract Class<?> consumerType();
+
+		abstract Class<?> argType();
+
+		abstract Class<?> dataType();
+
+		@Override
+		public final int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public final boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof PlanKey)) {
+				return false;
+			}
+			PlanKey other = (PlanKey) o;
+			Class<?> consumerType = consumerType();
+			// a key whose classes have been collected only equals itself
+			return null != consumerType
+					&& hash == other.hash
+					&& consumerType == other.consumerType()
+					&& argType() == other.argType()
+					&& dataType() == other.dataType();
+		}
+	}
+
+	private static final class LookupKey extends PlanKey {
+		private final Class<?> consumerType;
+		private final Class<?> argType;
+		private final Class<?> dataType;
+
+		private LookupKey(Class<?> consumerType, Class<?> argType, Class<?> dataType) {
+			super(consumerType, argType, dataType);
+			this.consumerType = consumerType;
+			this.argType = argType;
+			this.dataType = dataType;
+		}
+
+		@Override
+		Class<?> consumerType() {
+			return consumerType;
+		}
+
+		@Override
+		Class<?> argType() {
+			return argType;
+		}
+
+		@Override
+		Class<?> dataType() {
+			return dataType;
+		}
+	}
+
+	private static final class WeakKey extends PlanKey {
+		private final ClassReference consumerType;
+		private final ClassReference argType;
+		private final ClassReference dataType;
+
+		private WeakKey(Class<?> consumerType, Class<?> argType, Class<?> dataType, ReferenceQueue<Class<?>> queue) {
+			super(consumerType, argType, dataType);
+			this.consumerType = new ClassReference(consumerType, this, queue);
+			this.argType = new ClassReference(argType, this, queue);
+			this.dataType = (null == dataType ? null : new ClassReference(dataType, this, queue));
+		}
+
+		@Override
+		Class<?> consumerType() {
+			return consumerType.get();
+		}
+
+		@Override
+		Class<?> argType() {
+			return argType.get();
+		}
+
+		@Override
+		Class<?> dataType() {
+			return (null == dataType ? null : dataType.get());
+		}
+	}
+
+	/**
+	 * A class held by a {@link WeakKey}, which knows the key to remove once the class has been collected.
+	 */
+	private static final class ClassReference extends WeakReference<Class<?>> {
+		private final WeakKey key;
+
+		private ClassReference(Class<?> type, WeakKey key, ReferenceQueue<Class<?>> queue) {
+			super(type, queue);
+			this.key = key;
+		}
+	}
+
+	/**
+	 * How to turn an argument of a given type into the argument a particular type of {@link Consumer} declares. The
+	 * declared type is held weakly like the keys, and cannot be collected while a {@link Consumer} that declares it is
+	 * being invoked.
+	 */
+	private static final class InvocationPlan {
+		private final WeakReference<Class<?>> declaredType;
+		private final Strategy                strategy;
+
+		private InvocationPlan(Class<?> declaredType, Strategy strategy) {
+			this.declaredType = new WeakReference<Class<?>>(declaredType);
+			this.strategy = strategy;
+		}
+
+		private static InvocationPlan create(Class<?> declaredType,
+		                                     Class<?> argType,
+		                                     Class<?> dataType,
+		                                     Converter converter) {
+			Strategy strategy;
+			if (declaredType == Object.class || declaredType.isAssignableFrom(argType) || !Event.class.isAssignableFrom(argType)) {
+				strategy = Strategy.PASS;
+			} else if (null != dataType
+					&& !declaredType.isAssignableFrom(dataType)
+					&& null != converter
+					&& converter.canConvert(dataType, declaredType)) {
+				strategy = Strategy.CONVERT;
+			} else {
+				strategy = Strategy.UNWRAP;
+			}
+			return new InvocationPlan(declaredType, strategy);
+		}
+
+		private Object apply(Object arg, Converter converter) {
+			switch (strategy) {
+				case UNWRAP:
+					return ((Event<?>) arg).getData();
+				case CONVERT:
+					return converter.convert(((Event<?>) arg).getData(), declaredType.get());
+				default:
+					return arg;
+			}
+		}
+	}
+
 }
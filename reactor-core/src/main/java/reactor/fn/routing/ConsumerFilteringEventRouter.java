@@ -17,19 +17,24 @@
 package reactor.fn.routing;
 
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import reactor.filter.CompletionAwareFilter;
 import reactor.filter.Filter;
 import reactor.filter.PassThroughFilter;
 import reactor.fn.Consumer;
 import reactor.fn.Event;
 import reactor.fn.registry.Registration;
+import reactor.fn.selector.HeaderResolver;
 import reactor.util.Assert;
 
 /**
  * An {@link reactor.fn.routing.EventRouter} that {@link Filter#filter filters} consumers before routing events to them.
+ * When the filter is a {@link CompletionAwareFilter} it is told as soon as each of the consumers it selected has been
+ * invoked, so that it can keep track of the events that each consumer is still handling.
  *
  * @author Andy Wilkinson
  * @author Stephane Maldini
@@ -45,6 +50,8 @@ public final class ConsumerFilteringEventRouter implements EventRouter {
 
 	private final Filter filter;
 
+	private final boolean completionAware;
+
 	private final ConsumerInvoker consumerInvoker;
 
 	/**
@@ -59,16 +66,31 @@ public final class ConsumerFilteringEventRouter implements EventRouter {
 		Assert.notNull(consumerInvoker, "'consumerInvoker' must not be null");
 
 		this.filter = filter;
+		this.completionAware = filter instanceof CompletionAwareFilter;
 		this.consumerInvoker = consumerInvoker;
 	}
 
 	@Override
 	public void route(Object key, Event<?> event, List<Registration<? extends Consumer<? extends Event<?>>>> consumers, Consumer<?> completionConsumer, Consumer<Throwable> errorConsumer) {
 		try {
-			for (Registration<? extends Consumer<? extends Event<?>>> consumer : filter.filter(consumers, key)) {
-				invokeConsumer(key, event, consumer);
-				if (null != completionConsumer) {
-					consumerInvoker.invoke(completionConsumer, Void.TYPE, event);
+			List<Registration<? extends Consumer<? extends Event<?>>>> filteredConsumers = filter.filter(consumers, key);
+			int completed = 0;
+			try {
+				for (Registration<? extends Consumer<? extends Event<?>>> consumer : filteredConsumers) {
+					try {
+						invokeConsumer(key, event, consumer);
+					} finally {
+						// the consumer is done with the event before anyone waiting on the completion consumer hears of it
+						complete(consumer);
+						completed++;
+					}
+					if (null != completionConsumer) {
+						consumerInvoker.invoke(completionConsumer, Void.TYPE, event);
+					}
+				}
+			} finally {
+				for (int i = completed; i < filteredConsumers.size(); i++) {
+					complete(filteredConsumers.get(i));
 				}
 			}
 		} catch (Exception e) {
@@ -81,8 +103,13 @@ public final class ConsumerFilteringEventRouter implements EventRouter {
 
 	protected void invokeConsumer(Object key, Event<?> event, Registration<? extends Consumer<? extends Event<?>>> registeredConsumer) throws Exception {
 		if (isRegistrationActive(registeredConsumer)) {
-			if (null != registeredConsumer.getSelector().getHeaderResolver()) {
-				event.getHeaders().setAll(registeredConsumer.getSelector().getHeaderResolver().resolve(key));
+			HeaderResolver headerResolver = registeredConsumer.getSelector().getHeaderResolver();
+			if (null != headerResolver) {
+				Map<String, String> headers = headerResolver.resolve(key);
+				if (null != headers && !headers.isEmpty()) {
+					// give this consumer its own view rather than writing into the shared event
+					event = event.overlayHeaders(headers);
+				}
 			}
 			consumerInvoker.invoke(registeredConsumer.getObject(), Void.TYPE, event);
 			if (registeredConsumer.isCancelAfterUse()) {
@@ -91,6 +118,12 @@ public final class ConsumerFilteringEventRouter implements EventRouter {
 		}
 	}
 
+	private void complete(Registration<? extends Consumer<? extends Event<?>>> consumer) {
+		if (completionAware) {
+			((CompletionAwareFilter) filter).complete(consumer);
+		}
+	}
+
 	private boolean isRegistrationActive(Registration<?> registration) {
 		return (!registration.isCancelled() && !registration.isPaused());
 	}
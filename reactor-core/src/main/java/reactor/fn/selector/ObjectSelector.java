@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * {@link Selector} implementation that uses the {@link #hashCode()} and {@link #equals(Object)} methods of the internal
@@ -32,9 +33,13 @@ import java.util.TreeSet;
  */
 public class ObjectSelector<T> implements Selector {
 
-	private final UUID   uuid    = new UUID();
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<ObjectSelector, UUID> UUID_UPDATER = AtomicReferenceFieldUpdater.newUpdater(ObjectSelector.class, UUID.class, "uuid");
+
 	private final Object monitor = new Object();
 
+	private volatile UUID uuid;
+
 	private final T                 object;
 	private       SortedSet<String> tags;
 
@@ -60,6 +65,12 @@ public class ObjectSelector<T> implements Selector {
 
 	@Override
 	public UUID getId() {
+		UUID uuid = this.uuid;
+		if (null == uuid) {
+			// most selectors are never asked for their id, so only pay for a UUID when one is
+			UUID_UPDATER.compareAndSet(this, null, new UUID());
+			uuid = this.uuid;
+		}
 		return uuid;
 	}
 
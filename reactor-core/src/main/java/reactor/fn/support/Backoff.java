@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package reactor.fn.support;
+
+import reactor.util.Assert;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How a failed stage of a {@link reactor.core.Stream} or the {@link reactor.fn.Supplier} of a {@link
+ * reactor.core.Promise} is retried: how many times, and how long to wait before each retry. The delay doubles with
+ * every retry up to a maximum, and a random part of up to half of it is taken off so that stages that failed together
+ * do not all retry at the same time.
+ */
+public class Backoff {
+
+	private static final Random JITTER = new Random();
+
+	private final int  maxRetries;
+	private final long initialDelay;
+	private final long maxDelay;
+
+	protected Backoff(int maxRetries, long initialDelay, long maxDelay, TimeUnit unit) {
+		Assert.isTrue(maxRetries >= 0, "Number of retries cannot be negative.");
+		Assert.isTrue(initialDelay >= 0 && maxDelay >= initialDelay,
+		              "Delays cannot be negative and the maximum delay cannot be less than the initial one.");
+		this.maxRetries = maxRetries;
+		this.initialDelay = unit.toMillis(initialDelay);
+		this.maxDelay = unit.toMillis(maxDelay);
+	}
+
+	/**
+	 * Retry up to {@code maxRetries} times, waiting {@code initialDelay} before the first retry and twice as long before
+	 * each of the following ones, but never longer than {@code maxDelay}.
+	 *
+	 * @param maxRetries   The maximum number of retries.
+	 * @param initialDelay The delay before the first retry.
+	 * @param maxDelay     The longest delay before a retry.
+	 * @param unit         The unit of the delays.
+	 * @return The new {@link Backoff}.
+	 */
+	public static Backoff exponential(int maxRetries, long initialDelay, long maxDelay, TimeUnit unit) {
+		return new Backoff(maxRetries, initialDelay, maxDelay, unit);
+	}
+
+	/**
+	 * Retry up to {@code maxRetries} times, waiting around {@code delay} before each retry.
+	 *
+	 * @param maxRetries The maximum number of retries.
+	 * @param delay      The delay before each retry.
+	 * @param unit       The unit of {@code delay}.
+	 * @return The new {@link Backoff}.
+	 */
+	public static Backoff fixed(int maxRetries, long delay, TimeUnit unit) {
+		return new Backoff(maxRetries, delay, delay, unit);
+	}
+
+	/**
+	 * Whether a stage that has already been retried {@code retries} times may be retried again after failing with the
+	 * given error.
+	 *
+	 * @param retries The number of times the stage has been retried so far.
+	 * @param error   The error it failed with.
+	 * @return {@literal true} if it can be retried, {@literal false} if it should fail with {@code error}.
+	 */
+	public boolean canRetry(int retries, Throwable error) {
+		return retries < maxRetries;
+	}
+
+	/**
+	 * The time to wait before a retry.
+	 *
+	 * @param retry The number of the retry, starting from 1.
+	 * @return The delay, in milliseconds.
+	 */
+	public long getDelay(int retry) {
+		long delay = initialDelay << Math.min(retry - 1, 30);
+		if (delay > maxDelay || delay < initialDelay) {
+			delay = maxDelay;
+		}
+		long jitter = delay / 2;
+		if (jitter > 0) {
+			delay -= (long) (JITTER.nextDouble() * jitter);
+		}
+		return delay;
+	}
+
+}
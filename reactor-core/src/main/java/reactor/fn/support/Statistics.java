@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.fn.support;
+
+/**
+ * A snapshot of the count, minimum, maximum, mean and variance of the numeric values of a {@link
+ * reactor.core.Stream#statistics() Stream}.
+ */
+public final class Statistics {
+
+	private final long   count;
+	private final double min;
+	private final double max;
+	private final double mean;
+	private final double variance;
+
+	public Statistics(long count, double min, double max, double mean, double variance) {
+		this.count = count;
+		this.min = min;
+		this.max = max;
+		this.mean = mean;
+		this.variance = variance;
+	}
+
+	/**
+	 * Get the number of values.
+	 *
+	 * @return the number of values
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the smallest value.
+	 *
+	 * @return the smallest value, or {@link Double#NaN} if there are no values
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * Get the largest value.
+	 *
+	 * @return the largest value, or {@link Double#NaN} if there are no values
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Get the arithmetic mean of the values.
+	 *
+	 * @return the mean, or {@link Double#NaN} if there are no values
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Get the population variance of the values.
+	 *
+	 * @return the variance, or {@link Double#NaN} if there are no values
+	 */
+	public double getVariance() {
+		return variance;
+	}
+
+	/**
+	 * Get the population standard deviation of the values.
+	 *
+	 * @return the standard deviation, or {@link Double#NaN} if there are no values
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(variance);
+	}
+
+	@Override
+	public String toString() {
+		return "Statistics{" +
+				"count=" + count +
+				", min=" + min +
+				", max=" + max +
+				", mean=" + mean +
+				", variance=" + variance +
+				'}';
+	}
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.support;
+
+/**
+ * Implementations of this interface issue cheap, unique {@literal long} ids, such as those used to tag {@link
+ * reactor.fn.Event Events}.
+ */
+public interface IdGenerator {
+
+	/**
+	 * Generate a new id. Implementations must be thread-safe and must never return {@literal 0}, which is used to
+	 * indicate that no id has been assigned yet.
+	 *
+	 * @return A new, non-zero id.
+	 */
+	long generateId();
+
+}
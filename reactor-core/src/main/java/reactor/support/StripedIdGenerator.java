@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.support;
+
+import com.eaio.uuid.UUIDGen;
+import reactor.util.Assert;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An {@link IdGenerator} that issues node-prefixed, monotonic 64-bit ids. An id is made up of a 16-bit node prefix, the
+ * index of the counter stripe that issued it, and that stripe's counter. Threads are spread over the stripes by their
+ * id so that generating ids from many threads doesn't contend on a single counter; ids issued by any one stripe are
+ * monotonically increasing.
+ */
+public class StripedIdGenerator implements IdGenerator {
+
+	private static final int NODE_BITS = 16;
+	// counters are spaced a cache line apart so that stripes don't share one
+	private static final int PADDING   = 8;
+
+	private final long            prefix;
+	private final int             stripeMask;
+	private final int             counterBits;
+	private final long            counterMask;
+	private final AtomicLongArray counters;
+
+	/**
+	 * Create a new generator whose node prefix is derived from the clock sequence and node of this JVM's time-based
+	 * UUIDs, using one stripe per available processor.
+	 */
+	public StripedIdGenerator() {
+		this(defaultNode(), Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a new generator.
+	 *
+	 * @param node    The node prefix, only the lower 16 bits of which are used.
+	 * @param stripes The number of counter stripes, which is rounded up to a power of two.
+	 */
+	public StripedIdGenerator(int node, int stripes) {
+		Assert.isTrue(stripes > 0 && stripes <= 1024, "Number of stripes must be between 1 and 1024.");
+		int stripeCount = Integer.highestOneBit(stripes);
+		if (stripeCount < stripes) {
+			stripeCount <<= 1;
+		}
+		int stripeBits = Integer.numberOfTrailingZeros(stripeCount);
+
+		this.stripeMask = stripeCount - 1;
+		this.counterBits = 64 - NODE_BITS - stripeBits;
+		this.counterMask = (1L << counterBits) - 1;
+		this.prefix = ((long) (node & 0xffff)) << (64 - NODE_BITS);
+		this.counters = new AtomicLongArray(stripeCount * PADDING);
+	}
+
+	@Override
+	public long generateId() {
+		int stripe = (int) Thread.currentThread().getId() & stripeMask;
+		long count = counters.incrementAndGet(stripe * PADDING) & counterMask;
+		if (count == 0) {
+			// the counter wrapped, skip the value that would make the id zero for stripe 0 of node 0
+			count = counters.incrementAndGet(stripe * PADDING) & counterMask;
+		}
+		return prefix | ((long) stripe << counterBits) | count;
+	}
+
+	private static int defaultNode() {
+		long clockSeqAndNode = UUIDGen.getClockSeqAndNode();
+		return (int) (clockSeqAndNode ^ (clockSeqAndNode >>> 16) ^ (clockSeqAndNode >>> 32) ^ (clockSeqAndNode >>> 48));
+	}
+
+}
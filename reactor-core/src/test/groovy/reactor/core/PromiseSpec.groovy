@@ -22,9 +22,12 @@ import static reactor.GroovyTestUtils.*
 
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
 
 import reactor.P
 import reactor.fn.Observable;
+import reactor.fn.support.Backoff
 import spock.lang.Specification
 
 /**
@@ -491,6 +494,132 @@ class PromiseSpec extends Specification {
 		combined.get() == [1]
 	}
 
+	def "A combined promise keeps the order of its component promises whatever order they complete in"() {
+		given: "three unfulfilled promises and a combined promise"
+		def promise1 = Promises.defer().sync().get()
+		def promise2 = Promises.defer().sync().get()
+		def promise3 = Promises.defer().sync().get()
+		def combined = Promises.when(promise1, promise2, promise3).sync().get()
+
+		when: "the promises are fulfilled in reverse order"
+		promise3.set 3
+		promise2.set 2
+
+		then: "the combined promise is pending"
+		combined.pending
+
+		when: "the last promise is fulfilled"
+		promise1.set 1
+
+		then: "the values are in the order of the promises"
+		combined.success
+		combined.get() == [1, 2, 3]
+	}
+
+	def "An 'any' promise is fulfilled by the first component to be fulfilled and ignores earlier failures"() {
+		given: "two unfulfilled promises and an 'any' promise"
+		def promise1 = Promises.defer().sync().get()
+		def promise2 = Promises.defer().sync().get()
+		def any = Promises.any(promise1, promise2).sync().get()
+
+		when: "the first promise is rejected"
+		promise1.set(new Exception())
+
+		then: "the 'any' promise is pending"
+		any.pending
+
+		when: "the second promise is fulfilled"
+		promise2.set 2
+
+		then: "the 'any' promise is fulfilled with its value"
+		any.success
+		any.get() == 2
+	}
+
+	def "An 'any' promise is rejected once all of its components are rejected"() {
+		given: "two unfulfilled promises and an 'any' promise"
+		def promise1 = Promises.defer().sync().get()
+		def promise2 = Promises.defer().sync().get()
+		def any = Promises.any(promise1, promise2).sync().get()
+
+		when: "both promises are rejected"
+		promise1.set(new Exception())
+		promise2.set(new IllegalArgumentException())
+
+		then: "the 'any' promise is rejected"
+		any.error
+
+		when: "its value is requested"
+		any.get()
+
+		then: "the last error is thrown"
+		def e = thrown(IllegalStateException)
+		e.cause instanceof IllegalArgumentException
+	}
+
+	def "A raced promise completes like its first component to complete"() {
+		given: "unfulfilled promises and raced promises"
+		def promise1 = Promises.defer().sync().get()
+		def promise2 = Promises.defer().sync().get()
+		def race = Promises.race(promise1, promise2).sync().get()
+		def promise3 = Promises.defer().sync().get()
+		def promise4 = Promises.defer().sync().get()
+		def failedRace = Promises.race(promise3, promise4).sync().get()
+
+		when: "a promise of each race completes"
+		promise2.set 2
+		promise3.set(new Exception())
+
+		then: "the raced promises complete the same way"
+		race.success
+		race.get() == 2
+		failedRace.error
+
+		when: "the other promises complete"
+		promise1.set 1
+		promise4.set 4
+
+		then: "the raced promises are unchanged"
+		race.get() == 2
+		failedRace.error
+	}
+
+	def "A promise with a timeout is rejected if it is not fulfilled in time"() {
+		given: "an unfulfilled promise with a timeout"
+		def promise = Promises.defer().using(new Environment()).sync().get()
+		def latch = new CountDownLatch(1)
+		def error
+		def timed = promise.timeout(100, TimeUnit.MILLISECONDS)
+		timed.onError(consumer { error = it; latch.countDown() })
+
+		when: "the timeout elapses"
+		latch.await(5, TimeUnit.SECONDS)
+
+		then: "the timed promise is rejected with a timeout error"
+		timed.error
+		error instanceof TimeoutException
+
+		when: "the promise is fulfilled afterwards"
+		promise.set 1
+
+		then: "the timed promise is unchanged"
+		timed.error
+	}
+
+	def "A promise with a timeout is fulfilled if its value is set in time"() {
+		given: "an unfulfilled promise with a timeout"
+		def promise = Promises.defer().using(new Environment()).sync().get()
+		def timed = promise.timeout(200, TimeUnit.MILLISECONDS)
+
+		when: "the promise is fulfilled"
+		promise.set 1
+		Thread.sleep(300)
+
+		then: "the timed promise is fulfilled with its value"
+		timed.success
+		timed.get() == 1
+	}
+
 	def "A promise can be fulfilled with a Supplier"() {
 		when: "A promise configured with a supplier"
 		def promise = Promises.task(supplier { 1 }).sync().get()
@@ -508,6 +637,41 @@ class PromiseSpec extends Specification {
 		promise.error
 	}
 
+	def "A promise with a Supplier that fails is retried as its Backoff allows"() {
+		given: "a supplier that fails twice before returning a value"
+		def calls = new AtomicInteger()
+		def s = supplier {
+			if (calls.incrementAndGet() < 3) {
+				throw new IllegalStateException("not yet")
+			}
+			'done'
+		}
+
+		when: "a promise is configured with that supplier and up to 3 retries"
+		def promise = Promises.task(s).using(new Environment()).sync().
+				retryWhen(Backoff.fixed(3, 10, TimeUnit.MILLISECONDS)).get()
+
+		then: "it is fulfilled once the supplier succeeds"
+		promise.await(1, TimeUnit.SECONDS) == 'done'
+		calls.get() == 3
+	}
+
+	def "A promise with a Supplier that keeps failing is rejected once its retries are exhausted"() {
+		given: "a supplier that always fails"
+		def calls = new AtomicInteger()
+		def s = supplier { calls.incrementAndGet(); throw new IllegalStateException("never") }
+
+		when: "a promise is configured with that supplier and up to 2 retries"
+		def promise = Promises.task(s).using(new Environment()).sync().
+				retryWhen(Backoff.fixed(2, 10, TimeUnit.MILLISECONDS)).get()
+		promise.await(1, TimeUnit.SECONDS)
+
+		then: "it is rejected after the first attempt and 2 retries"
+		thrown(IllegalStateException)
+		promise.error
+		calls.get() == 3
+	}
+
 	def "A filtered promise is rejected if the filter does not allow the value to pass through"() {
 		given: "a promise with a filter that only accepts even values"
 		def promise = Promises.defer().sync().get()
@@ -588,5 +752,80 @@ class PromiseSpec extends Specification {
 		thrown(IllegalStateException)
 	}
 
-}
+	def "A Promise completed concurrently with consumers being added invokes each consumer once"() {
+		given: "a pending promise"
+		def promise = Promises.<Integer>defer().sync().get()
+		def invocations = new AtomicInteger()
+		def start = new CountDownLatch(1)
+		def done = new CountDownLatch(4)
+		def failures = new AtomicInteger()
+
+		when: "consumers are added while several threads try to set the promise"
+		4.times {
+			Thread.start {
+				start.await()
+				try {
+					promise.set(1)
+				} catch (IllegalStateException e) {
+					failures.incrementAndGet()
+				}
+				done.countDown()
+			}
+		}
+		start.countDown()
+		100.times { promise.onSuccess(consumer { invocations.incrementAndGet() }) }
+		done.await(5, TimeUnit.SECONDS)
+
+		then: "the promise has been set once and every consumer has been invoked once"
+		failures.get() == 3
+		promise.get() == 1
+		invocations.get() == 100
+	}
+
+	def "A lightweight Promise invokes its callbacks without a Reactor"() {
+		given: "a lightweight promise with callbacks"
+		def promise = Promises.<Integer>defer().sync().lightweight().get()
+		def values = []
+		def errors = []
+		promise.onSuccess(consumer { values << it })
+		promise.onError(consumer { errors << it })
+		def mapped = promise.map(function { it * 2 })
+		def filtered = promise.filter(function { it > 10 })
+
+		when: "the promise is set"
+		promise.set(2)
+
+		then: "the success callbacks have been invoked and the derived promises completed"
+		promise instanceof LightweightPromise
+		values == [2]
+		errors == []
+		mapped.get() == 4
+		filtered.error
+
+		when: "a callback is added after completion"
+		promise.onComplete(consumer { values << it.get() })
+
+		then: "it is invoked too"
+		values == [2, 2]
+	}
+
+	def "A lightweight Promise passes its error on to the matching callbacks and derived promises"() {
+		given: "a lightweight promise on an event loop"
+		def promise = Promises.<Integer>defer().using(new Environment()).dispatcher('eventLoop').lightweight().get()
+		def latch = new CountDownLatch(2)
+		def errors = []
+		promise.when(IllegalArgumentException, consumer { errors << it; latch.countDown() })
+		promise.when(NumberFormatException, consumer { errors << it; latch.countDown() })
+		def mapped = promise.map(function { it * 2 })
+		mapped.onError(consumer { latch.countDown() })
+
+		when: "the promise is set with an error"
+		promise.set(new IllegalArgumentException())
+
+		then: "only the matching callbacks are invoked and the error is passed on"
+		latch.await(5, TimeUnit.SECONDS)
+		errors.size() == 1
+		mapped.error
+	}
 
+}
@@ -17,11 +17,15 @@ package reactor.core
 
 import reactor.Fn
 import reactor.R
+import reactor.filter.ConsistentHashFilter
+import reactor.filter.LeastLoadedFilter
 import reactor.filter.RoundRobinFilter
+import reactor.filter.WeightedFilter
 import reactor.fn.Consumer
 import reactor.fn.Event
 import reactor.fn.Function
 import reactor.fn.dispatch.SynchronousDispatcher
+import reactor.fn.dispatch.ThreadPoolExecutorDispatcher
 import reactor.fn.routing.ConsumerFilteringEventRouter
 import reactor.fn.support.SingleUseConsumer
 import reactor.fn.tuples.Tuple2
@@ -64,6 +68,24 @@ class ReactorSpec extends Specification {
 		then: "EventRouter has been correctly set"
 		reactor.eventRouter instanceof ConsumerFilteringEventRouter
 		((ConsumerFilteringEventRouter) reactor.eventRouter).filter instanceof RoundRobinFilter
+
+		when: "Building a consistent hash Reactor"
+		reactor = R.reactor().consistentHashEventRouting().get()
+
+		then: "EventRouter has been correctly set"
+		((ConsumerFilteringEventRouter) reactor.eventRouter).filter instanceof ConsistentHashFilter
+
+		when: "Building a weighted Reactor"
+		reactor = R.reactor().weightedEventRouting().get()
+
+		then: "EventRouter has been correctly set"
+		((ConsumerFilteringEventRouter) reactor.eventRouter).filter instanceof WeightedFilter
+
+		when: "Building a least loaded Reactor"
+		reactor = R.reactor().leastLoadedEventRouting().get()
+
+		then: "EventRouter has been correctly set"
+		((ConsumerFilteringEventRouter) reactor.eventRouter).filter instanceof LeastLoadedFilter
 	}
 
 
@@ -410,6 +432,48 @@ class ReactorSpec extends Specification {
 		d1 && d2
 	}
 
+	def "A least loaded Reactor on a thread pool routes around a consumer that is still busy"() {
+
+		given: "a least loaded reactor dispatching on a pool of two threads"
+		def dispatcher = new ThreadPoolExecutorDispatcher(2, 64)
+		def r = R.reactor().using(dispatcher).leastLoadedEventRouting().get()
+		def selector = $("test")
+		def busy = new CountDownLatch(1)
+		def release = new CountDownLatch(1)
+		def handledBy = [].asSynchronized()
+		def first = null
+
+		when: "two consumers are registered and the first event keeps the consumer it reaches busy"
+		['a', 'b'].each { name ->
+			r.on(selector, consumer {
+				if (null == first) {
+					first = name
+					busy.countDown()
+					release.await(5, TimeUnit.SECONDS)
+				} else {
+					handledBy << name
+				}
+			})
+		}
+		r.notify 'test', new Event('first')
+		busy.await(5, TimeUnit.SECONDS)
+
+		and: "more events are notified one at a time"
+		10.times {
+			def handled = new CountDownLatch(1)
+			r.notify('test', new Event(it), consumer { handled.countDown() })
+			handled.await(5, TimeUnit.SECONDS)
+		}
+
+		then: "every one of them has gone to the other consumer"
+		handledBy.size() == 10
+		handledBy.every { it != first }
+
+		cleanup:
+		release.countDown()
+		dispatcher.shutdown()
+	}
+
 	def "A Reactor can be linked to another Reactor"() {
 
 		given: "normal reactors on the same thread"
@@ -2,10 +2,17 @@ package reactor.core
 
 import static reactor.GroovyTestUtils.*
 
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
+import reactor.fn.Event
 import reactor.fn.Function
+import reactor.fn.Functions
+import reactor.fn.dispatch.BlockingQueueDispatcher
 import reactor.fn.Observable;
+import reactor.fn.support.Backoff
 import reactor.fn.support.Reduce
 import spock.lang.Specification
 
@@ -47,8 +54,9 @@ class StreamSpec extends Specification {
 	}
 
 	def 'A Stream with a known set of values makes those values available immediately'() {
-		given: 'a composable with values 1 to 5 inclusive'
+		given: 'a composable with values 1 to 5 inclusive, whose last value is wanted too'
 		Stream composable = Streams.each([1, 2, 3, 4, 5]).sync().get()
+		Stream last = composable.last()
 
 		when: 'the first value is retrieved'
 		def value = composable.first().get()
@@ -57,7 +65,7 @@ class StreamSpec extends Specification {
 		value == 1
 
 		when: 'the last value is retrieved'
-		value = composable.last().get()
+		value = last.get()
 
 		then: 'it is 5'
 		value == 5
@@ -238,6 +246,1157 @@ class StreamSpec extends Specification {
 		mapped.get() == 2
 	}
 
+	def "A long chain of mapped Streams does not grow the stack with each stage"() {
+		given: 'a source composable with a long chain of mapping functions'
+		Stream source = Streams.defer().get()
+		Stream mapped = source
+		2000.times {
+			mapped = mapped.map(function { it + 1 })
+		}
+
+		when: 'the source accepts a value'
+		source.accept(0)
+
+		then: 'the value has been passed through every stage'
+		mapped.get() == 2000
+	}
+
+	def "A fused Stream's operators are invoked directly without a Reactor per stage"() {
+		given: 'a fused source composable with mapping, filtering and reducing stages'
+		Stream source = Streams.defer().sync().fused().get()
+		source.expectedAcceptCount = 5
+		Stream mapped = source.map(function { it * 2 })
+		Stream filtered = mapped.filter(function { it > 2 })
+		Stream reduced = filtered.reduce(new Reduction())
+		Stream first = mapped.first()
+		Stream last = mapped.last()
+
+		when: 'the source accepts the expected values'
+		(1..5).each { source.accept(it) }
+
+		then: 'every stage has seen the values'
+		mapped.get() == 10
+		filtered.get() == 10
+		reduced.get() == 4 * 6 * 8 * 10
+		first.get() == 2
+		last.get() == 10
+
+		and: 'no stage uses a Reactor of its own'
+		[mapped, filtered, reduced, first, last].every { it.observable instanceof FusedObservable }
+	}
+
+	def "Errors are forwarded through the stages of a fused Stream"() {
+		given: 'a fused source composable with a mapping function that throws an exception'
+		Stream source = Streams.defer().sync().fused().get()
+		Stream mapped = source.map(function { if (it == 2) throw new IllegalArgumentException(); it })
+		Stream downstream = mapped.map(function { it * 10 })
+		def values = []
+		def errors = []
+		downstream.consume(consumer { values << it })
+		downstream.when(IllegalArgumentException, consumer { errors << it })
+
+		when: 'the source accepts values, one of which fails'
+		source.accept(1)
+		source.accept(2)
+		source.accept(3)
+
+		then: 'the values that could be mapped reach the end and the error is passed on'
+		values == [10, 30]
+		errors.size() == 1
+	}
+
+	def "A Stream built with backpressure emits only the values that have been requested"() {
+		given: 'a demand-driven composable with a known set of values'
+		Stream source = Streams.each([1, 2, 3, 4, 5]).sync().backpressure(2).get()
+		Stream mapped = source.map(function { it * 2 })
+		def values = []
+		mapped.consume(consumer { values << it })
+
+		when: 'the values are made available and two are requested'
+		source.get()
+		mapped.request(2)
+
+		then: 'only two values have been emitted'
+		values == [2, 4]
+
+		when: 'the rest are requested'
+		mapped.request(10)
+
+		then: 'every value has been emitted'
+		values == [2, 4, 6, 8, 10]
+		mapped.get() == 10
+	}
+
+	def "A filtered Stream requests a replacement for every value it drops"() {
+		given: 'a demand-driven composable with a filtering stage'
+		Stream source = Streams.each([1, 2, 3, 4, 5, 6]).sync().backpressure(2).get()
+		Stream filtered = source.filter(function { it % 2 == 0 })
+		def values = []
+		filtered.consume(consumer { values << it })
+
+		when: 'two values are requested from the filtered composable'
+		source.get()
+		filtered.request(2)
+
+		then: 'two values that passed the filter have been emitted'
+		values == [2, 4]
+	}
+
+	def "Values accepted ahead of demand are buffered up to the buffer size"() {
+		given: 'a demand-driven composable with a buffer of 2 values'
+		Stream source = Streams.defer().sync().backpressure(2).get()
+		def values = []
+		source.consume(consumer { values << it })
+
+		when: 'the buffer is filled'
+		(1..2).each { source.accept(it) }
+
+		then: 'nothing is emitted until there is demand'
+		values == []
+
+		when: 'values are requested'
+		source.request(3)
+
+		then: 'the buffered values are emitted in order'
+		values == [1, 2]
+	}
+
+	def "A Stream built with backpressure fails when a value is accepted while its buffer is full"() {
+		given: 'a demand-driven composable with a buffer of 2 values'
+		Stream source = Streams.defer().sync().backpressure(2).get()
+		def errors = []
+		source.when(IllegalStateException, consumer { errors << it })
+
+		when: 'more values are accepted than the buffer can hold'
+		(1..3).each { source.accept(it) }
+
+		then: 'the composable has failed rather than blocking the producer'
+		errors.size() == 1
+		source.error
+	}
+
+	def "A Stream built with backpressure can drop values accepted while its buffer is full"() {
+		given: 'demand-driven composables with buffers of 2 values that drop the latest or the oldest values'
+		Stream latest = Streams.defer().sync().backpressure(2, Stream.Overflow.DROP_LATEST).get()
+		Stream oldest = Streams.defer().sync().backpressure(2, Stream.Overflow.DROP_OLDEST).get()
+		def latestValues = []
+		def oldestValues = []
+		latest.consume(consumer { latestValues << it })
+		oldest.consume(consumer { oldestValues << it })
+
+		when: 'more values are accepted than the buffers can hold and then requested'
+		(1..4).each { latest.accept(it); oldest.accept(it) }
+		latest.request(4)
+		oldest.request(4)
+
+		then: 'the values that did not fit have been dropped'
+		latestValues == [1, 2]
+		oldestValues == [3, 4]
+		!latest.error
+		!oldest.error
+	}
+
+	def "A Stream dispatched on another Dispatcher keeps a bounded number of values in flight"() {
+		given: 'a demand-driven composable handed off to a slow consumer on another dispatcher'
+		def dispatcher = new BlockingQueueDispatcher("backpressure", 128)
+		def produced = new AtomicInteger()
+		def iterable = { [hasNext: { produced.get() < 20 }, next: { produced.incrementAndGet() }, remove: {}] as Iterator } as Iterable
+		Stream source = Streams.each(iterable).sync().backpressure(4).get()
+		def maxInFlight = 0
+		def latch = new CountDownLatch(20)
+		def values = []
+		source.dispatchOn(dispatcher, 2).consume(consumer {
+			maxInFlight = Math.max(maxInFlight, produced.get() - values.size())
+			values << it
+			Thread.sleep(5)
+			latch.countDown()
+		})
+
+		when: 'the values are made available'
+		source.get()
+		latch.await(5, TimeUnit.SECONDS)
+
+		then: 'every value is consumed in order without getting far ahead of the consumer'
+		values == (1..20).toList()
+		maxInFlight <= 2 + 1
+
+		cleanup:
+		dispatcher.shutdown()
+	}
+
+	def "A Stream that ignores demand is never blocked by the Dispatcher it is dispatched on"() {
+		given: 'composables that push values regardless of demand to stalled consumers on other dispatchers'
+		def failingDispatcher = new BlockingQueueDispatcher("backpressure", 128)
+		def droppingDispatcher = new BlockingQueueDispatcher("backpressure", 128)
+		def started = new CountDownLatch(2)
+		def gate = new CountDownLatch(1)
+		def done = new CountDownLatch(6)
+		Stream failing = Streams.defer().sync().get()
+		Stream dropping = Streams.defer().sync().get()
+		def failed = failing.dispatchOn(failingDispatcher, 2)
+		def dropped = dropping.dispatchOn(droppingDispatcher, 2, Stream.Overflow.DROP_OLDEST)
+		def errors = []
+		failed.when(Exception, consumer { errors << it })
+		def values = []
+		def stall = consumer {
+			started.countDown()
+			gate.await(5, TimeUnit.SECONDS)
+			done.countDown()
+		}
+		failed.consume(stall)
+		dropped.consume(consumer { values << it })
+		dropped.consume(stall)
+
+		when: 'more values are pushed than the consumers can keep up with'
+		failing.accept(1)
+		dropping.accept(1)
+		started.await(5, TimeUnit.SECONDS)
+		(2..5).each { failing.accept(it); dropping.accept(it) }
+		gate.countDown()
+		done.await(5, TimeUnit.SECONDS)
+
+		then: 'the values that did not fit have failed the stream or made room for the latest ones'
+		errors.size() == 2
+		errors[0] instanceof IllegalStateException
+		values == [1, 4, 5]
+
+		cleanup:
+		failingDispatcher.shutdown()
+		droppingDispatcher.shutdown()
+	}
+
+	def "A sampled Stream passes on only the latest value of each period"() {
+		given: 'a composable sampled every 100 milliseconds'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def values = []
+		def latch = new CountDownLatch(1)
+		def sampled = source.sample(100, TimeUnit.MILLISECONDS)
+		sampled.consume(consumer { values << it; latch.countDown() })
+
+		when: 'a burst of values is accepted'
+		(1..5).each { source.accept(it) }
+		latch.await(1, TimeUnit.SECONDS)
+
+		then: 'only the last of them has been passed on'
+		values == [5]
+
+		when: 'more values are accepted and the composable completes'
+		source.accept(6)
+		source.accept(7)
+		source.setExpectedAcceptCount(7)
+
+		then: 'the latest value is passed on at completion'
+		values == [5, 7]
+		sampled.isComplete()
+	}
+
+	def "A sampled Stream stops sampling once it is cancelled"() {
+		given: 'a composable sampled every 50 milliseconds'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def values = []
+		def sampled = source.sample(50, TimeUnit.MILLISECONDS)
+		sampled.consume(consumer { values << it })
+
+		when: 'a value is accepted while the sampled composable is cancelled'
+		source.accept(1)
+		sampled.cancel()
+		source.accept(2)
+		Thread.sleep(200)
+
+		then: 'it no longer listens to its source and nothing has been passed on'
+		!source.hasConsumers()
+		values == []
+	}
+
+	def "A throttled Stream drops the values that follow a value within the period"() {
+		given: 'a composable throttled to a value every 200 milliseconds'
+		Stream source = Streams.defer().sync().get()
+		def values = []
+		def throttled = source.throttleFirst(200, TimeUnit.MILLISECONDS)
+		throttled.consume(consumer { values << it })
+
+		when: 'a burst of values is accepted'
+		(1..5).each { source.accept(it) }
+
+		then: 'only the first of them has been passed on'
+		values == [1]
+
+		when: 'another value is accepted after the period'
+		Thread.sleep(250)
+		source.accept(6)
+
+		then: 'it is passed on'
+		values == [1, 6]
+	}
+
+	def "A debounced Stream passes on the last value of a burst once it is quiet"() {
+		given: 'a composable debounced by 100 milliseconds'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def values = []
+		def latch = new CountDownLatch(1)
+		def debounced = source.debounce(100, TimeUnit.MILLISECONDS)
+		debounced.consume(consumer { values << it; latch.countDown() })
+
+		when: 'a burst of values is accepted'
+		(1..5).each { source.accept(it) }
+
+		then: 'nothing is passed on while values keep coming'
+		values == []
+
+		when: 'the composable is quiet for longer than 100 milliseconds'
+		latch.await(1, TimeUnit.SECONDS)
+
+		then: 'only the last value of the burst has been passed on'
+		values == [5]
+
+		when: 'another value is accepted and the composable completes'
+		source.accept(6)
+		source.setExpectedAcceptCount(6)
+
+		then: 'the pending value is passed on at completion'
+		values == [5, 6]
+		debounced.isComplete()
+	}
+
+	def "A debounced Stream on another Dispatcher passes on its pending value after those already flushed"() {
+		given: 'a composable debounced by 50 milliseconds, whose dispatcher is held up by its first value'
+		def dispatcher = new BlockingQueueDispatcher("debounce", 128)
+		Stream source = Streams.defer().using(new Environment()).using(dispatcher).get()
+		def gate = new CountDownLatch(1)
+		def done = new CountDownLatch(1)
+		def values = Collections.synchronizedList([])
+		def debounced = source.debounce(50, TimeUnit.MILLISECONDS)
+		debounced.consume(consumer { values << it })
+		debounced.last().consume(consumer { done.countDown() })
+		source.consume(consumer { if (it == 1) { gate.await(5, TimeUnit.SECONDS) } })
+
+		when: 'the first value is flushed while a second one and the completion wait behind it on the dispatcher'
+		source.accept(1)
+		source.accept(2)
+		source.setExpectedAcceptCount(2)
+		Thread.sleep(200)
+		gate.countDown()
+		done.await(5, TimeUnit.SECONDS)
+
+		then: 'the flushed value is passed on first and the stream completes with the pending one'
+		values == [1, 2]
+		debounced.get() == 2
+
+		cleanup:
+		dispatcher.shutdown()
+	}
+
+	def "A mapping function that fails is retried as the Backoff of its Stream allows"() {
+		given: 'a mapped composable whose function fails twice on the value 2'
+		Stream source = Streams.each([1, 2, 3]).using(new Environment()).sync().get()
+		def failures = 0
+		def latch = new CountDownLatch(3)
+		def values = []
+		def mapped = source.map(function {
+			if (it == 2 && failures++ < 2) {
+				throw new IllegalStateException("not yet")
+			}
+			it * 10
+		}).retryWhen(Backoff.fixed(3, 10, TimeUnit.MILLISECONDS))
+		mapped.consume(consumer { values << it; latch.countDown() })
+
+		when: 'the values are made available'
+		source.get()
+		latch.await(1, TimeUnit.SECONDS)
+
+		then: 'the value that failed is passed on after its retries and the composable is complete'
+		values == [10, 30, 20]
+		failures == 3
+		mapped.complete
+	}
+
+	def "A mapping function that keeps failing fails its Stream once its retries are exhausted"() {
+		given: 'a mapped composable whose function always fails'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def attempts = new AtomicInteger()
+		def latch = new CountDownLatch(1)
+		def error
+		def mapped = source.map(function { attempts.incrementAndGet(); throw new IllegalStateException("never") }).
+				retryWhen(Backoff.fixed(2, 10, TimeUnit.MILLISECONDS))
+		mapped.when(IllegalStateException, consumer { error = it; latch.countDown() })
+
+		when: 'a value is accepted'
+		source.accept(1)
+		latch.await(1, TimeUnit.SECONDS)
+
+		then: 'the error is passed on after the first attempt and 2 retries'
+		error instanceof IllegalStateException
+		attempts.get() == 3
+	}
+
+	def "A Multicast passes its history to consumers that join late"() {
+		given: 'a composable shared with a history of 2 values'
+		Stream source = Streams.defer().sync().get()
+		def multicast = source.replay(2, 4, Multicast.Overflow.DROP)
+		def early = []
+		def late = []
+		multicast.consume(consumer { early << it })
+
+		when: 'values are accepted before a second consumer joins'
+		(1..5).each { source.accept(it) }
+		multicast.consume(consumer { late << it })
+		source.accept(6)
+
+		then: 'the first consumer has every value and the second the history and what followed'
+		early == [1, 2, 3, 4, 5, 6]
+		late == [4, 5, 6]
+		multicast.subscriberCount == 2
+	}
+
+	def "A Multicast keeps passing values to its other consumers when one of them fails"() {
+		given: 'a composable shared with a consumer that fails on its second value and another one'
+		Stream source = Streams.defer().sync().get()
+		def multicast = source.publish(4)
+		def failingValues = []
+		def errors = []
+		def values = []
+		def failing = multicast.consume(consumer {
+			failingValues << it
+			if (it == 2) {
+				throw new IllegalStateException('bad')
+			}
+		}).onError(consumer { errors << it })
+		multicast.consume(consumer { values << it })
+
+		when: 'values are accepted'
+		(1..3).each { source.accept(it) }
+
+		then: 'the failing consumer has been cancelled and told why, while the other has every value'
+		failing.cancelled
+		failingValues == [1, 2]
+		errors.size() == 1
+		errors[0] instanceof IllegalStateException
+		values == [1, 2, 3]
+	}
+
+	def "A Multicast tells its consumers when its Stream completes or fails"() {
+		given: 'composables of 3 values shared with consumers that note completion and errors'
+		Stream completing = Streams.defer().sync().get()
+		completing.expectedAcceptCount = 3
+		Stream failing = Streams.defer().sync().get()
+		def events = []
+		def multicast = completing.replay(1, 4, Multicast.Overflow.DROP)
+		multicast.consume(consumer { events << it }).onComplete(consumer { events << 'complete' })
+		def errors = []
+		failing.publish(4).consume(consumer {}).onError(consumer { errors << it })
+
+		when: 'the values are accepted and the other composable fails'
+		(1..3).each { completing.accept(it) }
+		failing.accept(new IllegalStateException('failed'))
+
+		then: 'completion follows the values and the error is passed on'
+		events == [1, 2, 3, 'complete']
+		errors.size() == 1
+		errors[0].message == 'failed'
+
+		when: 'a consumer joins after completion'
+		def late = []
+		multicast.consume(consumer { late << it }).onComplete(consumer { late << 'complete' })
+
+		then: 'it is passed the history and then told of the completion'
+		late == [3, 'complete']
+	}
+
+	def "A Multicast drops a dispatched consumer that falls too far behind"() {
+		given: 'a composable shared with a consumer that blocks on its first value'
+		def dispatcher = new BlockingQueueDispatcher("multicast", 128)
+		Stream source = Streams.defer().sync().get()
+		def multicast = source.publish(4)
+		def release = new CountDownLatch(1)
+		def slowValues = []
+		def fastValues = []
+		def slow = multicast.consume(consumer { slowValues << it; release.await(1, TimeUnit.SECONDS) }, dispatcher)
+		multicast.consume(consumer { fastValues << it })
+
+		when: 'more values are accepted than it can fall behind'
+		(1..10).each { source.accept(it) }
+		release.countDown()
+		Thread.sleep(100)
+
+		then: 'it has been dropped while the other consumer has every value'
+		slow.dropped
+		slow.cancelled
+		fastValues == (1..10).toList()
+		multicast.subscriberCount == 1
+
+		cleanup:
+		dispatcher.shutdown()
+	}
+
+	def "A Multicast lets a dispatched consumer that falls too far behind skip the values it missed"() {
+		given: 'a composable shared with a consumer that blocks on its first value and skips when behind'
+		def dispatcher = new BlockingQueueDispatcher("multicast", 128)
+		Stream source = Streams.defer().sync().get()
+		def multicast = source.replay(0, 4, Multicast.Overflow.SKIP)
+		def release = new CountDownLatch(1)
+		def done = new CountDownLatch(1)
+		def values = []
+		def slow = multicast.consume(consumer {
+			values << it
+			release.await(1, TimeUnit.SECONDS)
+			if (it == 10) {
+				done.countDown()
+			}
+		}, dispatcher)
+
+		when: 'more values are accepted than it can fall behind'
+		(1..10).each { source.accept(it) }
+		release.countDown()
+		done.await(1, TimeUnit.SECONDS)
+
+		then: 'it has skipped the values it missed and caught up with the last 4'
+		!slow.dropped
+		slow.skipped > 0
+		values.size() + slow.skipped == 10
+		values[-4..-1] == [7, 8, 9, 10]
+
+		cleanup:
+		dispatcher.shutdown()
+	}
+
+	def "A merged Stream passes on the values of all its streams and completes with the last of them"() {
+		given: 'two composables merged into one'
+		Stream a = Streams.defer().sync().get()
+		Stream b = Streams.defer().sync().get()
+		Stream merged = Streams.merge(a, b).sync().get()
+		def values = []
+		merged.consume(consumer { values << it })
+
+		when: 'values are accepted by both and the first completes'
+		a.accept(1)
+		b.accept(2)
+		a.accept(3)
+		a.setExpectedAcceptCount(2)
+
+		then: 'every value has been passed on and the merged composable is not complete'
+		values == [1, 2, 3]
+		!merged.complete
+
+		when: 'the second completes'
+		b.accept(4)
+		b.setExpectedAcceptCount(2)
+
+		then: 'the merged composable is complete'
+		values == [1, 2, 3, 4]
+		merged.complete
+	}
+
+	def "A zipped Stream pairs the values of its streams until one of them is complete"() {
+		given: 'composables of a known set of values zipped into one'
+		Stream numbers = Streams.each([1, 2, 3]).sync().get()
+		Stream letters = Streams.each(['a', 'b']).sync().get()
+		Stream zipped = Streams.zip(numbers, letters).sync().get()
+		def values = []
+		zipped.consume(consumer { values << [it.t1, it.t2] })
+
+		when: 'the values are made available'
+		zipped.get()
+
+		then: 'the values have been paired until the shorter composable ran out'
+		values == [[1, 'a'], [2, 'b']]
+		zipped.complete
+	}
+
+	def "A zipped Stream pairs more values than its buffer size from streams of known values"() {
+		given: 'composables of 1000 values each, without backpressure, zipped into one'
+		Stream a = Streams.each((1..1000).toList()).sync().get()
+		Stream b = Streams.each((1..1000).toList()).sync().get()
+		Stream zipped = Streams.zip(a, b).sync().get()
+		def values = []
+		def emitted = 0
+		a.consume(consumer { emitted = Math.max(emitted, it - values.size()) })
+		zipped.consume(consumer { values << it.t1 + it.t2 })
+
+		when: 'the values are made available'
+		zipped.get()
+
+		then: 'every value has been paired, without iterating further ahead than the buffer size'
+		values == (1..1000).collect { it * 2 }
+		emitted <= 256
+		zipped.complete
+	}
+
+	def "A zipped Stream fails when a stream that pushes its values gets further ahead than its buffer size"() {
+		given: 'two composables that push their values regardless of demand, zipped into one'
+		Stream a = Streams.defer().sync().get()
+		Stream b = Streams.defer().sync().get()
+		Stream zipped = Streams.zip(a, b).sync().get()
+		def errors = []
+		zipped.when(Exception, consumer { errors << it })
+
+		when: 'one of them accepts more values than the buffer size while the other accepts none'
+		(1..257).each { a.accept(it) }
+
+		then: 'the zipped composable fails'
+		errors.size() == 1
+		errors[0] instanceof IllegalStateException
+	}
+
+	def "A zipped Stream can drop the values of a stream that pushes them further ahead than its buffer size"() {
+		given: 'two composables that push their values regardless of demand, zipped with a buffer of 2 dropping the oldest'
+		System.setProperty('reactor.zip.bufferSize', '2')
+		System.setProperty('reactor.zip.overflow', 'DROP_OLDEST')
+		Stream a = Streams.defer().sync().get()
+		Stream b = Streams.defer().sync().get()
+		Stream zipped = Streams.zip(a, b).using(new Environment()).sync().get()
+		def values = []
+		def errors = []
+		zipped.consume(consumer { values << [it.t1, it.t2] })
+		zipped.when(Exception, consumer { errors << it })
+
+		when: 'one of them gets 5 values ahead of the other, which then catches up'
+		(1..5).each { a.accept(it) }
+		(1..2).each { b.accept(it) }
+
+		then: 'the oldest values that did not fit have been dropped'
+		values == [[4, 1], [5, 2]]
+		errors == []
+
+		cleanup:
+		System.clearProperty('reactor.zip.bufferSize')
+		System.clearProperty('reactor.zip.overflow')
+	}
+
+	def "A zipped Stream only asks a stream with backpressure for as many values as it can hold"() {
+		given: 'a demand-driven composable of 1000 values zipped with a composable accepting values one at a time'
+		Stream a = Streams.each((1..1000).toList()).sync().backpressure(1).get()
+		Stream b = Streams.defer().sync().get()
+		Stream zipped = Streams.zip(a, b).sync().get()
+		def emitted = 0
+		a.consume(consumer { emitted++ })
+		def values = []
+		zipped.consume(consumer { values << [it.t1, it.t2] })
+
+		when: 'the values are made available and three values are accepted by the other composable'
+		zipped.get()
+		(1..3).each { b.accept(it) }
+
+		then: 'no more than the buffer size plus the values paired have been emitted'
+		values == [[1, 1], [2, 2], [3, 3]]
+		emitted == 256 + 3
+	}
+
+	def "A Stream combining the latest values of its streams passes them on whenever one changes"() {
+		given: 'two composables combined into one'
+		Stream a = Streams.defer().sync().get()
+		Stream b = Streams.defer().sync().get()
+		Stream combined = Streams.combineLatest(a, b).sync().get()
+		def values = []
+		combined.consume(consumer { values << [it.t1, it.t2] })
+
+		when: 'only the first composable has a value'
+		a.accept(1)
+
+		then: 'nothing has been passed on'
+		values == []
+
+		when: 'both have values and they change'
+		b.accept('x')
+		a.accept(2)
+		b.accept('y')
+
+		then: 'the latest values have been passed on with each change'
+		values == [[1, 'x'], [2, 'x'], [2, 'y']]
+	}
+
+	def "A Stream that goes idle for longer than its timeout fails"() {
+		given: 'a composable on its own dispatcher with an idle timeout of 200 milliseconds'
+		def dispatcher = new BlockingQueueDispatcher("timeout", 128)
+		Stream source = Streams.defer().using(new Environment()).using(dispatcher).get()
+		def latch = new CountDownLatch(1)
+		def values = []
+		def error
+		def errorThread
+		def timed = source.timeout(200, TimeUnit.MILLISECONDS)
+		timed.consume(consumer { values << it })
+		timed.when(Exception, consumer { error = it; errorThread = Thread.currentThread().name; latch.countDown() })
+
+		when: 'values are accepted more often than the timeout, then stop'
+		3.times {
+			source.accept(it)
+			Thread.sleep(100)
+		}
+
+		then: 'the values are passed on and the stream fails on the dispatcher once it has been idle for too long'
+		latch.await(5, TimeUnit.SECONDS)
+		values == [0, 1, 2]
+		error instanceof java.util.concurrent.TimeoutException
+		!errorThread.startsWith('reactor-timer')
+
+		and: 'the timed out stream no longer listens to its source'
+		timed.cancelled
+		!source.hasConsumers()
+
+		cleanup:
+		dispatcher.shutdown()
+	}
+
+	def "A flatMapped Stream listens to no more composables at a time than its max concurrency"() {
+		given: 'a composable of 4 values, each mapped to a pending promise, 2 at a time'
+		Stream source = Streams.defer().sync().get()
+		source.expectedAcceptCount = 4
+		def promises = []
+		def values = []
+		def flat = source.flatMap(function { v -> def p = Promises.defer().sync().get(); promises << [v, p]; p }, 2)
+		flat.consume(consumer { values << it })
+		def last = flat.last()
+
+		when: 'all the values are accepted'
+		(1..4).each { source.accept(it) }
+
+		then: 'only two promises have been started'
+		promises.size() == 2
+
+		when: 'the first promise is fulfilled'
+		promises[0][1].set(promises[0][0] * 10)
+
+		then: 'its value is passed on and the next promise is started'
+		values == [10]
+		promises.size() == 3
+
+		when: 'the remaining promises are fulfilled'
+		promises[1][1].set(promises[1][0] * 10)
+		promises[2][1].set(promises[2][0] * 10)
+		promises[3][1].set(promises[3][0] * 10)
+
+		then: 'every value has been passed on and the flatMapped stream is complete'
+		values == [10, 20, 30, 40]
+		last.get() == 40
+	}
+
+	def "A flatMapped Stream passes on the values of inner Streams and the errors of inner composables"() {
+		given: 'a composable whose values are mapped to Streams, or to an error'
+		Stream source = Streams.defer().sync().get()
+		def values = []
+		def errors = []
+		def flat = source.flatMap(function { v ->
+			v < 0 ? Promises.error(new IllegalArgumentException()).sync().get() : Streams.each([v, v]).sync().get()
+		}, 4)
+		flat.consume(consumer { values << it })
+		flat.when(IllegalArgumentException, consumer { errors << it })
+
+		when: 'values are accepted'
+		source.accept(1)
+		source.accept(-1)
+		source.accept(2)
+
+		then: 'the values of the inner Streams are passed on, as are the errors'
+		values == [1, 1, 2, 2]
+		errors.size() == 1
+	}
+
+	def "A taken Stream cancels its registrations upstream once it has all its values"() {
+		given: 'a composable that is mapped, then limited to 2 values'
+		Stream source = Streams.defer().sync().get()
+		def mapped = 0
+		Stream mappedStream = source.map(function { mapped++; it })
+		Stream taken = mappedStream.take(2)
+		def values = []
+		taken.consume(consumer { values << it })
+
+		when: 'more values than are taken are accepted'
+		(1..5).each { source.accept(it) }
+
+		then: 'the mapping function stops being invoked and the source is left without consumers'
+		values == [1, 2]
+		mapped == 2
+		taken.cancelled
+		mappedStream.cancelled
+		!source.hasConsumers()
+	}
+
+	def "A source fed through a registration is cancelled with its last consumer"() {
+		given: 'a composable fed by a Reactor consumer, and its first value'
+		def reactor = Reactors.reactor().sync().get()
+		Stream source = Streams.defer().sync().get()
+		def registration = reactor.on(Functions.$('in'), consumer { source.accept(it.data) })
+		source.cancelWith(registration)
+		Stream first = source.first()
+
+		when: 'values are notified'
+		reactor.notify('in', Event.wrap(1))
+		reactor.notify('in', Event.wrap(2))
+
+		then: 'the source and its registration are cancelled once the first value has been taken'
+		first.get() == 1
+		source.cancelled
+		registration.cancelled
+		!reactor.respondsToKey('in')
+	}
+
+	def "A Stream that still has consumers is not cancelled by a completed downstream stage"() {
+		given: 'a composable with a consumer and the first of its values'
+		Stream source = Streams.defer().sync().get()
+		def values = []
+		source.consume(consumer { values << it })
+		Stream first = source.first()
+
+		when: 'several values are accepted'
+		(1..3).each { source.accept(it) }
+
+		then: 'the first stage is cancelled but the source keeps passing its values on'
+		first.get() == 1
+		first.cancelled
+		!source.cancelled
+		values == [1, 2, 3]
+	}
+
+	def "A chunked Stream hands the rest of its values to its Dispatcher after the first chunk"() {
+		given: 'a composable of 1000 values iterated 10 at a time on another dispatcher'
+		def dispatcher = new BlockingQueueDispatcher("chunked", 128)
+		def caller = Thread.currentThread()
+		def iteratedByCaller = 0
+		def source = (1..1000).iterator()
+		def iterable = { [hasNext: { source.hasNext() }, next: {
+			if (Thread.currentThread() == caller) {
+				iteratedByCaller++
+			}
+			source.next()
+		}, remove: {}] as Iterator } as Iterable
+		Stream s = Streams.each(iterable).using(dispatcher).chunked(10).get()
+		def latch = new CountDownLatch(1000)
+		def values = []
+		s.consume(consumer { values << it; latch.countDown() })
+
+		when: 'the values are made available'
+		s.get()
+		latch.await(5, TimeUnit.SECONDS)
+
+		then: 'only the first chunk was iterated by the caller and every value is emitted in order'
+		iteratedByCaller == 10
+		values == (1..1000).toList()
+
+		cleanup:
+		dispatcher.shutdown()
+	}
+
+	def "A chunked Stream with backpressure only iterates the values that have been requested"() {
+		given: 'a demand-driven composable of an unbounded iterable, iterated 10 at a time'
+		def dispatcher = new BlockingQueueDispatcher("chunked", 128)
+		def iterated = new AtomicInteger()
+		def iterable = { [hasNext: { true }, next: { iterated.incrementAndGet() }, remove: {}] as Iterator } as Iterable
+		Stream s = Streams.each(iterable).using(dispatcher).backpressure(1).chunked(10).get()
+		def latch = new CountDownLatch(25)
+		s.consume(consumer { latch.countDown() })
+
+		when: '25 values are requested'
+		s.get()
+		s.request(25)
+		latch.await(5, TimeUnit.SECONDS)
+		Thread.sleep(100)
+
+		then: 'no more values have been iterated'
+		iterated.get() == 25
+
+		cleanup:
+		dispatcher.shutdown()
+	}
+
+	def "A chunked Stream stops iterating its values when its values are no longer wanted downstream"() {
+		given: 'a composable of an unbounded iterable, iterated 10 at a time, of which only the first 25 are taken'
+		def dispatcher = new BlockingQueueDispatcher("chunked", 128)
+		def iterated = new AtomicInteger()
+		def iterable = { [hasNext: { true }, next: { iterated.incrementAndGet() }, remove: {}] as Iterator } as Iterable
+		Stream s = Streams.each(iterable).using(dispatcher).chunked(10).get()
+		Stream taken = s.take(25)
+		def latch = new CountDownLatch(25)
+		taken.consume(consumer { latch.countDown() })
+
+		when: 'the values are made available'
+		s.get()
+		latch.await(5, TimeUnit.SECONDS)
+		Thread.sleep(100)
+
+		then: 'the source has been cancelled, and no chunk has been iterated after the one that was being taken'
+		s.cancelled
+		iterated.get() == 30
+
+		cleanup:
+		dispatcher.shutdown()
+	}
+
+	def "A deferred Stream stops iterating its values when it is cancelled"() {
+		given: 'a composable of an unbounded iterable of values that is cancelled on its third value'
+		def iterated = 0
+		def iterable = { [hasNext: { true }, next: { ++iterated }, remove: {}] as Iterator } as Iterable
+		Stream source = Streams.each(iterable).sync().get()
+		source.consume(consumer { if (it == 3) { source.cancel() } })
+
+		when: 'the values are requested'
+		def value = source.get()
+
+		then: 'no value has been iterated after the cancellation'
+		value == 3
+		iterated == 3
+	}
+
+	def "A deferred Stream stops iterating its values when its last consumer is cancelled"() {
+		given: 'a composable of an unbounded iterable of values, of which only the first 3 are taken'
+		def iterated = 0
+		def iterable = { [hasNext: { true }, next: { ++iterated }, remove: {}] as Iterator } as Iterable
+		Stream source = Streams.each(iterable).sync().get()
+		Stream taken = source.take(3)
+		def values = []
+		taken.consume(consumer { values << it })
+
+		when: 'the values are requested'
+		taken.get()
+
+		then: 'the source is cancelled once the values have been taken, and iterates no more of them'
+		values == [1, 2, 3]
+		source.cancelled
+		iterated == 3
+
+		when: 'the first value of another unbounded iterable is retrieved'
+		iterated = 0
+		source = Streams.each(iterable).sync().get()
+		def value = source.first().get()
+
+		then: 'the source is cancelled once it has been retrieved'
+		value == 1
+		source.cancelled
+		iterated == 1
+	}
+
+	def "A Stream's values can be collected into lists of a given size"() {
+		given: 'a composable with a known number of values, buffered into lists of 2'
+		Stream source = Streams.defer().sync().get()
+		source.expectedAcceptCount = 5
+		Stream buffered = source.buffer(2)
+		def lists = []
+		buffered.consume(consumer { lists << it })
+
+		when: 'the values are accepted'
+		(1..5).each { source.accept(it) }
+
+		then: 'full lists are passed on, and the remainder once the composable is complete'
+		lists == [[1, 2], [3, 4], [5]]
+		buffered.get() == [5]
+	}
+
+	def "A list that is not filled in time is passed on when its timeout elapses"() {
+		given: 'a composable buffered into lists of 10 with a short timeout'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def latch = new CountDownLatch(1)
+		def lists = []
+		source.buffer(10, 100, TimeUnit.MILLISECONDS).consume(consumer { lists << it; latch.countDown() })
+
+		when: 'fewer values than the size are accepted'
+		(1..3).each { source.accept(it) }
+
+		then: 'they are passed on once the timeout has elapsed'
+		lists == []
+		latch.await(5, TimeUnit.SECONDS)
+		lists == [[1, 2, 3]]
+	}
+
+	def "A Stream's values can be collected into time windows"() {
+		given: 'a composable collected into windows of 200 milliseconds'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def latch = new CountDownLatch(2)
+		def lists = []
+		source.window(200, TimeUnit.MILLISECONDS).consume(consumer { lists << it; latch.countDown() })
+
+		when: 'values are accepted in two periods'
+		(1..3).each { source.accept(it) }
+		Thread.sleep(300)
+		(4..5).each { source.accept(it) }
+
+		then: 'a list is passed on for each window'
+		latch.await(5, TimeUnit.SECONDS)
+		lists.flatten() == [1, 2, 3, 4, 5]
+		lists.size() == 2
+	}
+
+	def "Values are collected into every sliding window that is open"() {
+		given: 'a composable collected into windows of 400 milliseconds opened every 200 milliseconds'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def latch = new CountDownLatch(2)
+		def lists = []
+		source.window(400, 200, TimeUnit.MILLISECONDS).consume(consumer { lists << it; latch.countDown() })
+
+		when: 'a value is accepted before and after the second window opens'
+		source.accept(1)
+		Thread.sleep(300)
+		source.accept(2)
+
+		then: 'the second value is in both windows'
+		latch.await(5, TimeUnit.SECONDS)
+		lists[0] == [1, 2]
+		lists[1] == [2]
+	}
+
+	def "A Stream of sliding windows passes on errors and stops opening windows once cancelled"() {
+		given: 'a composable collected into windows of 50 milliseconds opened every 50 milliseconds'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def windowed = source.window(50, 50, TimeUnit.MILLISECONDS)
+		def lists = []
+		def errors = []
+		windowed.consume(consumer { lists << it })
+		windowed.when(Exception, consumer { errors << it })
+
+		when: 'the source fails'
+		source.accept(new Exception('bad'))
+
+		then: 'the error has been passed on'
+		errors.size() == 1
+
+		when: 'the windowed composable is cancelled and the windows that were open have closed'
+		source.accept(1)
+		windowed.cancel()
+		Thread.sleep(200)
+		def closed = lists.size()
+		source.accept(2)
+		Thread.sleep(200)
+
+		then: 'it no longer listens to its source and passes nothing else on'
+		!source.hasConsumers()
+		lists.size() == closed
+	}
+
+	def "A parallel Stream's operators run concurrently on several event loops"() {
+		given: 'a composable spread across 4 event loops'
+		def env = new Environment()
+		Stream source = Streams.defer().using(env).sync().get()
+		def latch = new CountDownLatch(100)
+		def threads = new ConcurrentHashMap()
+		def values = Collections.synchronizedList([])
+		source.parallel(4).map(function { threads[Thread.currentThread()] = true; it * 2 }).consume(consumer {
+			values << it
+			latch.countDown()
+		})
+
+		when: 'values are accepted'
+		(1..100).each { source.accept(it) }
+
+		then: 'every value has been mapped, on more than one thread'
+		latch.await(5, TimeUnit.SECONDS)
+		values.sort() == (1..100).collect { it * 2 }
+		threads.size() > 1
+	}
+
+	def "Values reduced and counted after a parallel Stream are all taken into account"() {
+		given: 'a composable of 500 values spread across 4 event loops, mapped, then summed and counted'
+		def env = new Environment()
+		def sums = []
+		def counts = []
+
+		when: 'the values are reduced many times'
+		50.times {
+			Stream source = Streams.each((1..500).toList()).using(env).sync().get()
+			Stream mapped = source.parallel(4).map(function { it * 2 })
+			Stream sum = mapped.reduce(function { it.lastValue + it.nextValue }, 0)
+			Stream count = mapped.count()
+			source.get()
+			sums << sum.await(5, TimeUnit.SECONDS)
+			counts << count.await(5, TimeUnit.SECONDS)
+		}
+
+		then: 'every sum and every count has all the values'
+		sums.every { it == 250500 }
+		counts.every { it == 500 }
+	}
+
+	def "A grouped Stream passes each group's values on the same event loop"() {
+		given: 'a composable of 30 values grouped by their remainder when divided by 3'
+		def env = new Environment()
+		Stream source = Streams.defer().using(env).sync().get()
+		source.expectedAcceptCount = 30
+		def latch = new CountDownLatch(3)
+		def sums = new ConcurrentHashMap()
+		def threads = new ConcurrentHashMap()
+		source.groupBy(function { it % 3 }).consume(consumer { group ->
+			long sum = 0
+			def groupThreads = [] as Set
+			group.consume(consumer { sum += it; groupThreads << Thread.currentThread() })
+			group.last().consume(consumer {
+				sums[group.key] = sum
+				threads[group.key] = groupThreads.size()
+				latch.countDown()
+			})
+		})
+
+		when: 'the values are accepted'
+		(1..30).each { source.accept(it) }
+
+		then: 'each group has summed its values on a single thread, and completed'
+		latch.await(5, TimeUnit.SECONDS)
+		sums == [0: 165L, 1: 145L, 2: 155L]
+		threads.values().every { it == 1 }
+	}
+
+	def "A group that accepts no value for its idle timeout is completed"() {
+		given: 'a composable grouped by value, with groups expiring after 100 milliseconds'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def groups = Collections.synchronizedList([])
+		def created = new CountDownLatch(2)
+		def expired = new CountDownLatch(1)
+		source.groupBy(function { it }, 100, TimeUnit.MILLISECONDS).consume(consumer { group ->
+			groups << group
+			group.last().consume(consumer { expired.countDown() })
+			created.countDown()
+		})
+
+		when: 'a value is accepted and the group goes idle'
+		source.accept('a')
+
+		then: 'the group is completed'
+		expired.await(5, TimeUnit.SECONDS)
+
+		when: 'a value with the same key is accepted'
+		source.accept('a')
+
+		then: 'it starts a new group'
+		created.await(5, TimeUnit.SECONDS)
+		groups*.key == ['a', 'a']
+		!groups[0].is(groups[1])
+	}
+
+	def "A Stream of groups stops expiring idle groups once it is cancelled"() {
+		given: 'a composable grouped by value, with groups expiring after 50 milliseconds'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def created = new CountDownLatch(1)
+		def expired = new CountDownLatch(1)
+		def grouped = source.groupBy(function { it }, 50, TimeUnit.MILLISECONDS)
+		grouped.consume(consumer { group ->
+			group.last().consume(consumer { expired.countDown() })
+			created.countDown()
+		})
+
+		when: 'a value is accepted and the stream of groups is cancelled before the group goes idle'
+		source.accept('a')
+		created.await(5, TimeUnit.SECONDS)
+		grouped.cancel()
+
+		then: 'it no longer listens to its source and the idle group is not swept'
+		!source.hasConsumers()
+		!expired.await(300, TimeUnit.MILLISECONDS)
+	}
+
+	def "An ordered parallel Stream passes results on in the order of the values"() {
+		given: 'a composable mapped in parallel by a function that takes a random time'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def random = new Random()
+		def latch = new CountDownLatch(50)
+		def values = Collections.synchronizedList([])
+		source.parallel(4, true, function { Thread.sleep(random.nextInt(5)); it * 2 }).consume(consumer {
+			values << it
+			latch.countDown()
+		})
+
+		when: 'values are accepted'
+		(1..50).each { source.accept(it) }
+
+		then: 'the results are passed on in order'
+		latch.await(5, TimeUnit.SECONDS)
+		values == (1..50).collect { it * 2 }
+	}
+
 	def "A Stream's values can be filtered"() {
 		given: 'a source composable with a filter that rejects odd values'
 		Stream source = Streams.defer().get()
@@ -350,6 +1509,102 @@ class StreamSpec extends Specification {
 		reduced.get() == 120
 	}
 
+	def "A known set of numbers can be summed, counted and bounded without a reduce function"() {
+		given: 'a composable with a known set of numbers'
+		def numbers = [3, 1, 4, 1, 5, 9, 2, 6]
+
+		expect: 'each primitive reduction holds its result'
+		Streams.each(numbers).sync().get().count().get() == 8
+		Streams.each(numbers).sync().get().sumLong().get() == 31
+		Streams.each(numbers).sync().get().sumDouble().get() == 31d
+		Streams.each(numbers).sync().get().min().get() == 1
+		Streams.each(numbers).sync().get().max().get() == 9
+	}
+
+	def "The bounds of non-integral numbers are found without truncating them"() {
+		given: 'composables of doubles and of big decimals whose integral parts are all the same'
+		def doubles = [1.5d, 1.9d, 1.2d]
+		def decimals = [new BigDecimal('1.25'), new BigDecimal('1.75'), new BigDecimal('1.5')]
+
+		expect: 'the smallest and largest values are found'
+		Streams.each(doubles).sync().get().min().get() == 1.2d
+		Streams.each(doubles).sync().get().max().get() == 1.9d
+		Streams.each(decimals).sync().get().min().get() == new BigDecimal('1.25')
+		Streams.each(decimals).sync().get().max().get() == new BigDecimal('1.75')
+	}
+
+	def "The running sum of a Stream of unknown length is passed on after every value"() {
+		given: 'a composable of unknown length and its sum'
+		Stream source = Streams.defer().sync().get()
+		def sums = []
+		source.sumLong().consume(consumer { sums << it })
+
+		when: 'values are accepted'
+		(1..4).each { source.accept(it) }
+
+		then: 'the running sum is passed on each time'
+		sums == [1, 3, 6, 10]
+	}
+
+	def "The statistics of a known set of numbers can be computed"() {
+		given: 'the statistics of a composable with a known set of numbers'
+		def stats = Streams.each([2, 4, 4, 4, 5, 5, 7, 9]).sync().get().statistics().get()
+
+		expect: 'they describe the numbers'
+		stats.count == 8
+		stats.min == 2d
+		stats.max == 9d
+		stats.mean == 5d
+		stats.variance == 4d
+		stats.standardDeviation == 2d
+	}
+
+	def "Quantiles of a Stream's values are estimated without keeping the values"() {
+		given: 'the median and 99th percentile of a composable of 10000 shuffled numbers'
+		def numbers = (1..10000).toList()
+		Collections.shuffle(numbers, new Random(42))
+		def median = Streams.each(numbers).sync().get().quantile(0.5)
+		def p99 = Streams.each(numbers).sync().get().quantile(0.99)
+
+		expect: 'the estimates are close to the exact quantiles'
+		Math.abs(median.get() - 5000) < 100
+		Math.abs(p99.get() - 9900) < 100
+	}
+
+	def "Quantiles can be estimated over consecutive windows"() {
+		given: 'a composable whose median is estimated every 200 milliseconds'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def latch = new CountDownLatch(2)
+		def medians = []
+		source.quantile(0.5, 200, TimeUnit.MILLISECONDS).consume(consumer { medians << it; latch.countDown() })
+
+		when: 'values are accepted in two windows'
+		(1..5).each { source.accept(it) }
+		Thread.sleep(300)
+		(101..105).each { source.accept(it) }
+
+		then: 'an estimate is passed on for each window'
+		latch.await(5, TimeUnit.SECONDS)
+		medians == [3d, 103d]
+	}
+
+	def "Quantiles stop being estimated over windows once the estimating Stream is cancelled"() {
+		given: 'a composable whose median is estimated every 50 milliseconds'
+		Stream source = Streams.defer().using(new Environment()).sync().get()
+		def medians = []
+		def estimated = source.quantile(0.5, 50, TimeUnit.MILLISECONDS)
+		estimated.consume(consumer { medians << it })
+
+		when: 'a value is accepted while the estimating composable is cancelled'
+		source.accept(1)
+		estimated.cancel()
+		Thread.sleep(200)
+
+		then: 'it no longer listens to its source and no window has been estimated'
+		!source.hasConsumers()
+		medians == []
+	}
+
 	def 'When a known number of values is being reduced, only the final value is made available'() {
 		given: 'a composable that will accept 2 values and a reduce function'
 		Stream source = Streams.defer().sync().get()
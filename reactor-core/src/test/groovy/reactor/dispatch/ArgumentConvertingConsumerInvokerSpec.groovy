@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.dispatch
+
+import reactor.convert.StandardConverters
+import reactor.fn.Consumer
+import reactor.fn.Event
+import reactor.fn.routing.ArgumentConvertingConsumerInvoker
+import spock.lang.Specification
+
+class ArgumentConvertingConsumerInvokerSpec extends Specification {
+
+	def "A Consumer of the Event type is passed the Event"() {
+		given: "an invoker and a Consumer of Events"
+		def invoker = new ArgumentConvertingConsumerInvoker(null)
+		def consumer = new EventConsumer()
+		def event = new Event("data")
+
+		when: "the consumer is invoked"
+		invoker.invoke(consumer, Void.TYPE, event)
+
+		then: "it received the Event itself"
+		consumer.values == [event]
+	}
+
+	def "A Consumer of the payload type is passed the Event's data"() {
+		given: "an invoker and a Consumer of Strings"
+		def invoker = new ArgumentConvertingConsumerInvoker(null)
+		def consumer = new StringConsumer()
+
+		when: "the consumer is invoked several times"
+		invoker.invoke(consumer, Void.TYPE, new Event("first"))
+		invoker.invoke(consumer, Void.TYPE, new Event("second"))
+		invoker.invoke(consumer, Void.TYPE, new Event(null))
+
+		then: "it received the unwrapped data each time"
+		consumer.values == ["first", "second", null]
+	}
+
+	def "An Event's data is converted to the type the Consumer declares"() {
+		given: "an invoker with a converter and a Consumer of Integers"
+		def invoker = new ArgumentConvertingConsumerInvoker(StandardConverters.CONVERTERS)
+		def consumer = new IntegerConsumer()
+
+		when: "the consumer is invoked with Events of Strings and of Integers"
+		invoker.invoke(consumer, Void.TYPE, new Event("42"))
+		invoker.invoke(consumer, Void.TYPE, new Event(7))
+		invoker.invoke(consumer, Void.TYPE, new Event("43"))
+
+		then: "it received Integers"
+		consumer.values == [42, 7, 43]
+	}
+
+	def "A Consumer invoked with alternating argument types keeps a plan for each of them"() {
+		given: "an invoker with a converter and a Consumer of Integers"
+		def invoker = new ArgumentConvertingConsumerInvoker(StandardConverters.CONVERTERS)
+		def consumer = new IntegerConsumer()
+
+		when: "the consumer is invoked with Events of Strings and of Integers in turn"
+		(1..10).each { invoker.invoke(consumer, Void.TYPE, new Event(it % 2 == 0 ? it : "$it".toString())) }
+
+		then: "it received Integers, and a single plan has been kept per argument type"
+		consumer.values == (1..10).toList()
+		invoker.plans.size() == 2
+	}
+
+	def "A ClassCastException raised by the Consumer itself is not swallowed"() {
+		given: "an invoker and a Consumer of Strings that fails"
+		def invoker = new ArgumentConvertingConsumerInvoker(null)
+		def consumer = new FailingConsumer()
+
+		when: "the consumer is invoked"
+		invoker.invoke(consumer, Void.TYPE, new Event("data"))
+
+		then: "the exception is propagated after a single invocation"
+		thrown(ClassCastException)
+		consumer.calls == 1
+	}
+
+	static class EventConsumer implements Consumer<Event<String>> {
+		def values = []
+
+		@Override
+		void accept(Event<String> ev) {
+			values << ev
+		}
+	}
+
+	static class StringConsumer implements Consumer<String> {
+		def values = []
+
+		@Override
+		void accept(String s) {
+			values << s
+		}
+	}
+
+	static class IntegerConsumer implements Consumer<Integer> {
+		def values = []
+
+		@Override
+		void accept(Integer i) {
+			values << i
+		}
+	}
+
+	static class FailingConsumer implements Consumer<String> {
+		def calls = 0
+
+		@Override
+		void accept(String s) {
+			calls++
+			throw new ClassCastException()
+		}
+	}
+}
@@ -18,6 +18,7 @@
 
 package reactor.dispatch
 
+import reactor.filter.CompletionAwareFilter
 import reactor.filter.PassThroughFilter
 import reactor.fn.Consumer
 import reactor.fn.Event
@@ -153,4 +154,34 @@ class ConsumerFilteringEventRouterSpec extends Specification {
 		1 * errorConsumer.accept(_)
 		0 * consumerInvoker.invoke(completionConsumer, _, event)
 	}
+
+	def "A completion-aware filter is told when each selected consumer has been invoked, even if it fails"() {
+		def filter = Mock(CompletionAwareFilter)
+		def consumerInvoker = Mock(ConsumerInvoker)
+		def errorConsumer = Mock(Consumer)
+		def consumer = Mock(Consumer)
+		def event = new Event("data")
+
+		given: "A consumer filtering event router with a completion-aware filter"
+		def eventRouter = new ConsumerFilteringEventRouter(filter, consumerInvoker)
+		Registration registration = Mock(Registration)
+		registration.getObject() >> consumer
+		registration.getSelector() >> Mock(Selector)
+		filter.filter(_, _) >> [registration]
+
+		when: "an event is routed to the consumer"
+		eventRouter.route("key", event, [registration], null, errorConsumer)
+
+		then: "the filter is told that the consumer has been invoked"
+		1 * consumerInvoker.invoke(consumer, _, event)
+		1 * filter.complete(registration)
+
+		when: "the consumer fails"
+		eventRouter.route("key", event, [registration], null, errorConsumer)
+
+		then: "the filter is still told that the consumer has been invoked"
+		1 * consumerInvoker.invoke(consumer, _, event) >> { throw new Exception("failure") }
+		1 * filter.complete(registration)
+		1 * errorConsumer.accept(_)
+	}
 }
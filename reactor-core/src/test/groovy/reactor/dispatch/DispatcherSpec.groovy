@@ -34,9 +34,11 @@ import reactor.fn.Consumer
 import reactor.fn.Event
 import reactor.fn.dispatch.SynchronousDispatcher
 import reactor.fn.dispatch.ThreadPoolExecutorDispatcher
+import reactor.fn.dispatch.TrampolineDispatcher
 import reactor.fn.registry.CachingRegistry
 import reactor.fn.routing.ArgumentConvertingConsumerInvoker;
 import reactor.fn.routing.ConsumerFilteringEventRouter;
+import reactor.fn.routing.EventRouter
 import spock.lang.Specification
 
 /**
@@ -78,4 +80,81 @@ class DispatcherSpec extends Specification {
 
 	}
 
+	def "TrampolineDispatcher executes reentrant tasks in order after the current task"() {
+
+		given:
+		def dispatcher = new TrampolineDispatcher()
+		def registry = new CachingRegistry<Consumer<Event>>(null)
+		def eventRouter = new ConsumerFilteringEventRouter(new PassThroughFilter(), ArgumentConvertingConsumerInvoker
+				.DEFAULT)
+		def currentThread = Thread.currentThread()
+		def threads = [] as Set
+		def log = []
+		registry.register($('outer'), consumer {
+			threads << Thread.currentThread()
+			dispatcher.dispatch('inner', Event.wrap('first'), registry, null, eventRouter, null)
+			dispatcher.dispatch('inner', Event.wrap('second'), registry, null, eventRouter, null)
+			log << 'outer'
+		})
+		registry.register($('inner'), consumer { Event<String> ev ->
+			threads << Thread.currentThread()
+			log << ev.data
+		})
+
+		when: "a task dispatches further tasks while it is running"
+		dispatcher.dispatch('outer', Event.wrap('Hello World!'), registry, null, eventRouter, null)
+
+		then: "the nested tasks run after the current task, in submission order, in the calling thread"
+		log == ['outer', 'first', 'second']
+		threads == [currentThread] as Set
+
+		when: "a task keeps dispatching from within nested tasks"
+		def depth = 0
+		def maxDepth = 0
+		def count = 0
+		registry.register($('deep'), consumer {
+			depth++
+			maxDepth = Math.max(depth, maxDepth)
+			if (++count < 10000) {
+				dispatcher.dispatch('deep', Event.wrap(count), registry, null, eventRouter, null)
+			}
+			depth--
+		})
+		dispatcher.dispatch('deep', Event.wrap(0), registry, null, eventRouter, null)
+
+		then: "the stack never grows beyond a single task"
+		count == 10000
+		maxDepth == 1
+	}
+
+	def "TrampolineDispatcher keeps running queued tasks when one of them fails"() {
+
+		given:
+		def dispatcher = new TrampolineDispatcher()
+		def registry = new CachingRegistry<Consumer<Event>>(null)
+		def log = []
+		EventRouter eventRouter
+		eventRouter = { key, event, consumers, completionConsumer, errorConsumer ->
+			if (key == 'outer') {
+				dispatcher.dispatch('fail', event, registry, null, eventRouter, null)
+				dispatcher.dispatch('inner', event, registry, null, eventRouter, null)
+			} else if (key == 'fail') {
+				throw new IllegalStateException('bad')
+			}
+			log << key
+		} as EventRouter
+
+		when: "a task queues a task that fails and another one after it"
+		dispatcher.dispatch('outer', Event.wrap('Hello World!'), registry, null, eventRouter, null)
+
+		then: "the task after the failing one still runs"
+		log == ['outer', 'inner']
+
+		when: "another task is dispatched on the same thread"
+		dispatcher.dispatch('next', Event.wrap('Hello World!'), registry, null, eventRouter, null)
+
+		then: "it runs straight away"
+		log == ['outer', 'inner', 'next']
+	}
+
 }
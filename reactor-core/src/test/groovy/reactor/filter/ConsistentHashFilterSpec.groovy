@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package reactor.filter
+
+import spock.lang.Specification
+
+class ConsistentHashFilterSpec extends Specification {
+
+	def "When a key is filtered multiple times the same item is returned"() {
+		given: "A consistent hash filter and a list of three items"
+		def filter = new ConsistentHashFilter()
+		def items = ['a', 'b', 'c']
+
+		when: "a key is filtered repeatedly"
+		def filtered = (0..<10).collect { filter.filter(items, "key") }
+
+		then: "a single item is returned and it is always the same one"
+		filtered.every { it.size() == 1 }
+		filtered*.get(0).unique().size() == 1
+	}
+
+	def "When keys are filtered they are spread over all of the items"() {
+		given: "A consistent hash filter and a list of four items"
+		def filter = new ConsistentHashFilter()
+		def items = ['a', 'b', 'c', 'd']
+
+		when: "many keys are filtered"
+		def counts = (0..<4000).collect { filter.filter(items, "key-$it")[0] }.countBy { it }
+
+		then: "every item receives a fair share of the keys"
+		counts.size() == 4
+		counts.values().every { it > 600 }
+	}
+
+	def "When an item is added only the keys that move to it change item"() {
+		given: "A consistent hash filter and a list of items to which an item is added"
+		def filter = new ConsistentHashFilter()
+		def items = ['a', 'b', 'c', 'd']
+		def moreItems = items + ['e']
+		def keys = (0..<4000).collect { "key-$it" }
+
+		when: "the keys are filtered with both lists of items"
+		def before = keys.collect { filter.filter(items, it)[0] }
+		def after = keys.collect { filter.filter(moreItems, it)[0] }
+
+		then: "keys either stay with their item or move to the new item"
+		def moved = (0..<keys.size()).findAll { before[it] != after[it] }
+		moved.every { after[it] == 'e' }
+		moved.size() < 1500
+	}
+
+	def "When many lists of the same items are filtered they share a single ring"() {
+		given: "A consistent hash filter and more copies of a list of items than it caches states"
+		def filter = new ConsistentHashFilter()
+		def items = ['a', 'b', 'c', 'd']
+		def copies = (0..<1000).collect { new ArrayList(items) }
+
+		when: "a key is filtered with each copy"
+		def rings = copies.collect { filter.filter(it, "key"); filter.getState(it) }
+
+		then: "the ring has only been created once"
+		rings.every { it.is(rings[0]) }
+	}
+
+	def "When a null key is provided an IllegalArgumentException is thrown"() {
+		given: "A consistent hash filter"
+		def filter = new ConsistentHashFilter()
+
+		when: "a null key is provided"
+		filter.filter(['a', 'b'], null)
+
+		then: "an IllegalArgumentException was thrown"
+		thrown(IllegalArgumentException)
+	}
+
+	def "When an empty list of items are filtered, an empty list is returned"() {
+		given: "A consistent hash filter"
+		def filter = new ConsistentHashFilter()
+
+		when: "an empty list of items is filtered"
+		def filteredItems = filter.filter([], "key")
+
+		then: "an empty list is returned"
+		filteredItems.empty
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package reactor.filter
+
+import spock.lang.Specification
+
+class LeastLoadedFilterSpec extends Specification {
+
+	def "When items are filtered the item with the fewest in-flight uses is returned"() {
+		given: "A least loaded filter and a list of three items"
+		def filter = new LeastLoadedFilter()
+		def items = ['a', 'b', 'c']
+
+		when: "items are filtered three times without completing any of them"
+		def filtered = (0..<3).collect { filter.filter(items, "key")[0] }
+
+		then: "each item is returned once"
+		filtered.sort() == ['a', 'b', 'c']
+
+		when: "two of the items are completed and items are filtered again"
+		filter.complete('a')
+		filter.complete('c')
+		def first = filter.filter(items, "key")[0]
+		def second = filter.filter(items, "key")[0]
+
+		then: "the completed items are returned"
+		[first, second].sort() == ['a', 'c']
+		filter.getInFlightCount('b') == 1
+	}
+
+	def "When a slow item is used it is avoided until it completes"() {
+		given: "A least loaded filter in power-of-two-choices mode and a list of two items"
+		def filter = new LeastLoadedFilter(true)
+		def items = ['slow', 'fast']
+
+		when: "the slow item is in use and the fast item keeps completing"
+		def selected = filter.filter(items, "key")[0]
+		def slow = selected
+		def others = (0..<20).collect {
+			def item = filter.filter(items, "key")[0]
+			filter.complete(item)
+			item
+		}
+
+		then: "the other item is always returned"
+		others.every { it != slow }
+		filter.getInFlightCount(slow) == 1
+	}
+
+	def "When an item is completed more often than it was returned its count does not go below zero"() {
+		given: "A least loaded filter"
+		def filter = new LeastLoadedFilter()
+
+		when: "an item is completed without having been returned"
+		filter.filter(['a'], "key")
+		filter.complete('a')
+		filter.complete('a')
+
+		then: "its count is zero"
+		filter.getInFlightCount('a') == 0
+	}
+
+	def "When an empty list of items are filtered, an empty list is returned"() {
+		given: "A least loaded filter"
+		def filter = new LeastLoadedFilter()
+
+		when: "an empty list of items is filtered"
+		def filteredItems = filter.filter([], null)
+
+		then: "an empty list is returned"
+		filteredItems.empty
+	}
+}
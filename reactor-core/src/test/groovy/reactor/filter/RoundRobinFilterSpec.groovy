@@ -61,6 +61,36 @@ class RoundRobinFilterSpec extends Specification {
 		then: "the first item is returned"
 	}
 
+	def "When more keys than there are counters are used, each key keeps being round-robined"() {
+		given: "A round robin filter and a list of three items"
+		def filter = new RoundRobinFilter()
+		def items = ['a', 'b', 'c']
+		def counts = [a: 0, b: 0, c: 0]
+
+		when: "2000 different keys are each used three times in turn"
+		3.times { (0..<2000).each { counts[filter.filter(items, "key-$it")[0]]++ } }
+
+		then: "every item was returned the same number of times"
+		counts == [a: 2000, b: 2000, c: 2000]
+	}
+
+	def "When items are filtered concurrently, each item is returned equally often"() {
+		given: "A round robin filter and a list of four items"
+		def filter = new RoundRobinFilter()
+		def items = ['a', 'b', 'c', 'd']
+		def counts = new java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.atomic.AtomicInteger>()
+		items.each { counts[it] = new java.util.concurrent.atomic.AtomicInteger() }
+
+		when: "items are filtered from several threads"
+		def threads = (0..<4).collect {
+			Thread.start { 1000.times { counts[filter.filter(items, "key")[0]].incrementAndGet() } }
+		}
+		threads*.join()
+
+		then: "every item was returned the same number of times"
+		counts.values()*.get() == [1000, 1000, 1000, 1000]
+	}
+
 	def "When null items are filtered an IllegalStateException is thrown"() {
 		given: "A round robin filter"
 		def filter = new RoundRobinFilter()
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package reactor.filter
+
+import reactor.fn.Consumer
+import reactor.fn.registry.CachingRegistry
+import spock.lang.Specification
+
+import static reactor.Fn.$
+
+class WeightedFilterSpec extends Specification {
+
+	def "When registrations are filtered they are selected in proportion to their selector's weight tag"() {
+		given: "A weighted filter and registrations with weights of 3, 1 and none"
+		def filter = new WeightedFilter()
+		def registry = new CachingRegistry<Consumer>(null)
+		def heavy = registry.register($('key').setTags('weight=3'), {} as Consumer)
+		def light = registry.register($('key').setTags('weight=1'), {} as Consumer)
+		def untagged = registry.register($('key'), {} as Consumer)
+		def items = [heavy, light, untagged]
+
+		when: "items are filtered many times"
+		def counts = (0..<500).collect { filter.filter(items, 'key')[0] }.countBy { it }
+
+		then: "each registration is selected in proportion to its weight"
+		counts[heavy] == 300
+		counts[light] == 100
+		counts[untagged] == 100
+	}
+
+	def "When an item has a weight of zero it is never selected"() {
+		given: "A weighted filter and registrations, one of which has a weight of 0"
+		def filter = new WeightedFilter()
+		def registry = new CachingRegistry<Consumer>(null)
+		def disabled = registry.register($('key').setTags('weight=0'), {} as Consumer)
+		def enabled = registry.register($('key'), {} as Consumer)
+
+		when: "items are filtered many times"
+		def filtered = (0..<10).collect { filter.filter([disabled, enabled], 'key')[0] }
+
+		then: "only the item with a non-zero weight is selected"
+		filtered.every { it.is(enabled) }
+	}
+
+	def "When an empty list of items are filtered, an empty list is returned"() {
+		given: "A weighted filter"
+		def filter = new WeightedFilter()
+
+		when: "an empty list of items is filtered"
+		def filteredItems = filter.filter([], null)
+
+		then: "an empty list is returned"
+		filteredItems.empty
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.fn
+
+import spock.lang.Specification
+
+class EventHeadersSpec extends Specification {
+
+	def "Header names are case-insensitive"() {
+
+		given: "headers with a mixed-case name"
+		def headers = new Event.Headers().set("Content-Type", "text/plain")
+
+		when: "the header is replaced using a different case"
+		headers.set("CONTENT-TYPE", "application/json")
+
+		then: "there is a single header that can be found using any case"
+		headers.get("content-type") == "application/json"
+		headers.contains("Content-type")
+		headers.asMap() == ["content-type": "application/json"]
+	}
+
+	def "Headers keep their values when growing beyond the inline entries"() {
+
+		given: "empty headers"
+		def headers = new Event.Headers()
+
+		when: "many headers are set"
+		(0..<20).each { headers.set("Header-$it", "$it") }
+		headers.setOrigin("origin")
+
+		then: "all the values can be read back"
+		(0..<20).every { headers.get("header-$it") == "$it" }
+		headers.origin == "origin"
+		headers.asMap().size() == 21
+	}
+
+	def "Read-only headers reflect the source but cannot be modified"() {
+
+		given: "headers and a read-only version of them"
+		def headers = new Event.Headers().set("a", "1")
+		def readOnly = headers.readOnly()
+
+		when: "the source is modified"
+		headers.set("b", "2")
+
+		then: "the read-only version sees the change"
+		readOnly.get("A") == "1"
+		readOnly.get("b") == "2"
+
+		when: "the read-only version is modified"
+		readOnly.set("c", "3")
+
+		then: "an exception is thrown"
+		thrown(UnsupportedOperationException)
+	}
+
+}
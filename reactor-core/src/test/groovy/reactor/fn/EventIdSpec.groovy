@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.fn
+
+import reactor.support.StripedIdGenerator
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class EventIdSpec extends Specification {
+
+	def "A StripedIdGenerator issues unique, node-prefixed ids across threads"() {
+
+		given: "a generator for node 42 with 4 stripes"
+		def generator = new StripedIdGenerator(42, 4)
+		def ids = new ConcurrentHashMap<Long, Boolean>()
+		def latch = new CountDownLatch(8)
+
+		when: "ids are generated from several threads"
+		8.times {
+			Thread.start {
+				long last = 0
+				10000.times {
+					long id = generator.generateId()
+					assert id > last
+					last = id
+					ids.put(id, true)
+				}
+				latch.countDown()
+			}
+		}
+
+		then: "every id is unique and carries the node prefix"
+		latch.await(5, TimeUnit.SECONDS)
+		ids.size() == 80000
+		ids.keySet().every { (it >>> 48) == 42 }
+	}
+
+	def "An Event's ids are created once and shared with its copies"() {
+
+		given: "an event and a copy of it with overlaid headers"
+		def event = Event.wrap("data")
+		def copy = event.overlayHeaders([a: "1"])
+
+		expect: "the ids are stable and shared"
+		event.numericId != 0
+		event.numericId == event.numericId
+		copy.numericId == event.numericId
+		copy.id == event.id
+		event.id == event.id
+	}
+
+}
@@ -123,6 +123,34 @@ class SelectorSpec extends Specification {
 
 	}
 
+	def "Headers resolved for one consumer are not visible to other consumers or to the notifier"() {
+
+		given: "A regex and a URI template selector matching the same key"
+		def key = "/path/to/resourceId"
+		def r = R.reactor().sync().get()
+		def regexHeaders = null
+		def uriHeaders = null
+		r.on(Fn.R("/path/to/(.+)"), consumer { Event<String> ev ->
+			regexHeaders = ev.headers.asMap()
+			ev.headers.set("written", "by-regex")
+		})
+		r.on(U("/path/to/{resource}"), consumer { Event<String> ev ->
+			uriHeaders = ev.headers.asMap()
+		})
+		def event = Event.wrap("")
+		event.headers.set("origin-header", "set-by-notifier")
+
+		when: "The selectors are matched"
+		r.notify key, event
+
+		then: "Each consumer sees the notifier's headers plus only the values resolved by its own selector"
+		regexHeaders == ['origin-header': 'set-by-notifier', group1: 'resourceId']
+		uriHeaders == ['origin-header': 'set-by-notifier', resource: 'resourceId']
+
+		and: "The notified event has not been modified"
+		event.headers.asMap() == ['origin-header': 'set-by-notifier']
+	}
+
 	def "Consumers can be called using round-robin routing"() {
 
 		given: "A Reactor using round-robin routing and a set of consumers assigned to the same selector"
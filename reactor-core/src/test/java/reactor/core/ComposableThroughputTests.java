@@ -56,7 +56,15 @@ public class ComposableThroughputTests extends AbstractReactorTest {
 	}
 
 	private Stream<Integer> createComposable(Dispatcher dispatcher) {
-		Stream<Integer> cInt = S.<Integer>defer().using(env).using(dispatcher).get();
+		return createComposable(dispatcher, false);
+	}
+
+	private Stream<Integer> createComposable(Dispatcher dispatcher, boolean fused) {
+		Stream.Spec<Integer> spec = S.<Integer>defer().using(env).using(dispatcher);
+		if (fused) {
+			spec.fused();
+		}
+		Stream<Integer> cInt = spec.get();
 		cInt.map(new Function<Integer, Integer>() {
 			@Override
 			public Integer apply(Integer integer) {
@@ -80,7 +88,11 @@ public class ComposableThroughputTests extends AbstractReactorTest {
 	}
 
 	private void doTest(Dispatcher dispatcher, String name) throws InterruptedException {
-		Stream<Integer> c = createComposable(dispatcher);
+		doTest(dispatcher, false, name);
+	}
+
+	private void doTest(Dispatcher dispatcher, boolean fused, String name) throws InterruptedException {
+		Stream<Integer> c = createComposable(dispatcher, fused);
 		long start = System.currentTimeMillis();
 		for (int x = 0; x < samples; x++) {
 			for (int i = 0; i < runs; i++) {
@@ -123,4 +135,60 @@ public class ComposableThroughputTests extends AbstractReactorTest {
 		doTest(new RingBufferDispatcher("test", 1024, ProducerType.SINGLE, new YieldingWaitStrategy()), "single-producer ring buffer");
 	}
 
+	@Test
+	public void testFusedRingBufferDispatcherComposableThroughput() throws InterruptedException {
+		doTest(new RingBufferDispatcher("test", 1024, ProducerType.SINGLE, new YieldingWaitStrategy()), true, "fused single-producer ring buffer");
+	}
+
+	@Test
+	public void testSynchronousComposableThroughputPerStage() throws InterruptedException {
+		for (int i = 0; i < samples; i++) {
+			doStageTest(false, "reactor per stage");
+			doStageTest(true, "fused");
+		}
+	}
+
+	private void doStageTest(boolean fused, String name) throws InterruptedException {
+		int stages = 10;
+		int values = length * runs;
+
+		Stream.Spec<Integer> spec = S.<Integer>defer().using(env).sync();
+		if (fused) {
+			spec.fused();
+		}
+		Stream<Integer> source = spec.get();
+		Stream<Integer> stream = source;
+		for (int i = 0; i < stages; i++) {
+			stream = stream.map(new Function<Integer, Integer>() {
+				@Override
+				public Integer apply(Integer integer) {
+					return integer;
+				}
+			});
+		}
+		final CountDownLatch stageLatch = new CountDownLatch(values * samples);
+		stream.consume(new Consumer<Integer>() {
+			@Override
+			public void accept(Integer integer) {
+				stageLatch.countDown();
+			}
+		});
+
+		long start = System.nanoTime();
+		for (int x = 0; x < samples; x++) {
+			for (int i = 0; i < values; i++) {
+				source.accept(i);
+			}
+		}
+		stageLatch.await(1, TimeUnit.SECONDS);
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println(String.format("%s throughput through %s stages (%sms): %s, %sns per value per stage",
+																		 name,
+																		 stages,
+																		 elapsed / 1000000,
+																		 Math.round((values * samples) / (elapsed / 1e9)) + "/sec",
+																		 elapsed / ((long) values * samples * stages)));
+	}
+
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.fn.Consumer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Measures the cost of the request/reply pattern of creating a promise, adding a callback to it and completing it.
+ */
+public class PromiseThroughputTests {
+
+	private final Logger log        = LoggerFactory.getLogger(getClass());
+	private final int    iterations = 1000000;
+	private final int    testRuns   = 3;
+
+	@Test
+	public void testPromiseThroughput() {
+		doTest(false, "promise");
+	}
+
+	@Test
+	public void testLightweightPromiseThroughput() {
+		doTest(true, "lightweight promise");
+	}
+
+	private void doTest(boolean lightweight, String name) {
+		final AtomicLong sum = new AtomicLong();
+		Consumer<Integer> onSuccess = new Consumer<Integer>() {
+			@Override
+			public void accept(Integer i) {
+				sum.addAndGet(i);
+			}
+		};
+
+		for (int i = 0; i < testRuns; i++) {
+			long start = System.nanoTime();
+
+			for (int j = 0; j < iterations; j++) {
+				Promise.Spec<Integer> spec = Promises.<Integer>defer().sync();
+				if (lightweight) {
+					spec.lightweight();
+				}
+				Promise<Integer> p = spec.get();
+				p.onSuccess(onSuccess);
+				p.set(1);
+			}
+
+			long elapsed = System.nanoTime() - start;
+			long throughput = Math.round(iterations / (elapsed / 1e9));
+			log.info(name + " throughput (" + (elapsed / 1000000) + "ms): " + throughput + "/sec");
+		}
+		assertThat(sum.get(), is((long) iterations * testRuns));
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2011-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.fn;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Measures the cost of creating events that carry a couple of headers, as every notification with a reply-to origin
+ * does.
+ */
+public class EventThroughputTests {
+
+	private final Logger log        = LoggerFactory.getLogger(getClass());
+	private final int    iterations = 10000000;
+	private final int    testRuns   = 3;
+
+	@Test
+	public void testEventWithHeadersThroughput() {
+		long checksum = 0;
+		for (int i = 0; i < testRuns; i++) {
+			long allocatedBefore = allocatedBytes();
+			long start = System.nanoTime();
+
+			for (int j = 0; j < iterations; j++) {
+				Event<Integer> ev = new Event<Integer>(j);
+				ev.getHeaders().setOrigin("origin").set("Content-Type", "text/plain");
+				checksum += ev.getHeaders().get("content-type").length() + ev.getHeaders().getOrigin().length();
+			}
+
+			long elapsed = System.nanoTime() - start;
+			long allocated = allocatedBytes() - allocatedBefore;
+			long throughput = Math.round(iterations / (elapsed / 1e9));
+
+			log.info("Event with headers throughput (" + (elapsed / 1000000) + "ms): " + throughput + "/sec, "
+									 + (allocated < 0 ? "n/a" : (allocated / iterations) + " bytes") + " allocated per event");
+		}
+		assertThat(checksum, is(16L * iterations * testRuns));
+	}
+
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+}
@@ -63,11 +63,17 @@ public abstract class AbstractTcpConnection<IN, OUT> implements TcpConnection<IN
 
 	@Override
 	public Stream<IN> in() {
-		Stream<IN> c = S.<IN>defer()
-												.using(env)
-												.using(eventsReactor.getDispatcher())
-												.get();
-		consume(c);
+		final Stream<IN> c = S.<IN>defer()
+															.using(env)
+															.using(eventsReactor.getDispatcher())
+															.get();
+		// cancelling the stream, or a stage derived from it that was its last consumer, stops reading into it
+		c.cancelWith(eventsReactor.on(read.getT1(), new Consumer<Event<IN>>() {
+			@Override
+			public void accept(Event<IN> ev) {
+				c.accept(ev.getData());
+			}
+		}));
 		return c;
 	}
 